@@ -0,0 +1,122 @@
+package com.example.benchmarks;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.type.Argument;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result against a baseline result. A benchmark is only reported as regressed or
+ * improved when the score moved by more than {@code threshold} (a fraction of the baseline score) and by
+ * more than the combined error of both runs.
+ * <p>
+ * Can be run on its own: {@code BaselineComparison <baseline.json> <current.json> [threshold]}.
+ */
+@Serdeable
+public record BaselineComparison(double threshold, List<Entry> entries) {
+
+    private static final Argument<List<BenchmarkResult>> RESULTS = Argument.listOf(BenchmarkResult.class);
+    private static final String PACKAGE_PREFIX = BaselineComparison.class.getPackageName() + ".";
+
+    public enum Verdict {
+        IMPROVED, UNCHANGED, REGRESSED, NEW, MISSING
+    }
+
+    @Serdeable
+    public record Entry(String benchmark,
+                        String mode,
+                        String unit,
+                        @Nullable Double baseline,
+                        @Nullable Double current,
+                        @Nullable Double change,
+                        Verdict verdict) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <current.json> [threshold]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : BenchmarkMain.DEFAULT_THRESHOLD;
+        BaselineComparison comparison = compare(read(Path.of(args[0])), read(Path.of(args[1])), threshold);
+        comparison.print(System.out);
+        if (comparison.hasRegressions()) {
+            System.exit(1);
+        }
+    }
+
+    public static List<BenchmarkResult> read(Path file) throws IOException {
+        return JsonMapper.createDefault().readValue(Files.readAllBytes(file), RESULTS);
+    }
+
+    public static BaselineComparison compare(List<BenchmarkResult> baseline, List<BenchmarkResult> current, double threshold) {
+        Map<String, BenchmarkResult> remaining = new LinkedHashMap<>();
+        for (BenchmarkResult result : baseline) {
+            remaining.put(result.key(), result);
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (BenchmarkResult result : current) {
+            BenchmarkResult base = remaining.remove(result.key());
+            BenchmarkResult.Metric metric = result.primaryMetric();
+            if (base == null) {
+                entries.add(new Entry(result.key(), result.mode(), metric.scoreUnit(), null, metric.score(), null, Verdict.NEW));
+                continue;
+            }
+            BenchmarkResult.Metric baseMetric = base.primaryMetric();
+            double difference = metric.score() - baseMetric.score();
+            double change = difference / baseMetric.score();
+            boolean significant = Math.abs(change) > threshold
+                    && Math.abs(difference) > errorOf(baseMetric) + errorOf(metric);
+            Verdict verdict = Verdict.UNCHANGED;
+            if (significant) {
+                verdict = (difference > 0) == result.higherIsBetter() ? Verdict.IMPROVED : Verdict.REGRESSED;
+            }
+            entries.add(new Entry(result.key(), result.mode(), metric.scoreUnit(), baseMetric.score(), metric.score(), change, verdict));
+        }
+        for (BenchmarkResult base : remaining.values()) {
+            entries.add(new Entry(base.key(), base.mode(), base.primaryMetric().scoreUnit(), base.primaryMetric().score(), null, null, Verdict.MISSING));
+        }
+        return new BaselineComparison(threshold, entries);
+    }
+
+    public boolean hasRegressions() {
+        return entries.stream().anyMatch(entry -> entry.verdict() == Verdict.REGRESSED);
+    }
+
+    public void write(Path file) throws IOException {
+        Files.write(file, JsonMapper.createDefault().writeValueAsBytes(this));
+    }
+
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%nBaseline comparison (threshold %.1f%%)%n", threshold * 100);
+        out.printf(Locale.ROOT, "%-56s %-6s %18s %18s %9s  %s%n", "Benchmark", "Mode", "Baseline", "Current", "Change", "Verdict");
+        for (Entry entry : entries) {
+            out.printf(Locale.ROOT, "%-56s %-6s %18s %18s %9s  %s%n",
+                    entry.benchmark().replace(PACKAGE_PREFIX, ""),
+                    entry.mode(),
+                    format(entry.baseline(), entry.unit()),
+                    format(entry.current(), entry.unit()),
+                    entry.change() == null ? "" : String.format(Locale.ROOT, "%+.1f%%", entry.change() * 100),
+                    entry.verdict());
+        }
+    }
+
+    // JMH reports NaN as the error of single-iteration runs
+    private static double errorOf(BenchmarkResult.Metric metric) {
+        return Double.isNaN(metric.scoreError()) ? 0 : metric.scoreError();
+    }
+
+    private static String format(@Nullable Double score, String unit) {
+        return score == null ? "-" : String.format(Locale.ROOT, "%.3f %s", score, unit);
+    }
+}
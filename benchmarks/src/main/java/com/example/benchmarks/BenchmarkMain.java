@@ -0,0 +1,60 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the JMH suites with the regular JMH command line, always writing a JSON result. When
+ * {@code -Dbenchmark.baseline=<file>} is set, the result is compared against that baseline, the report is
+ * written next to the result as {@code jmh-comparison.json}, and the process exits with status 1 if any
+ * benchmark regressed by more than {@code -Dbenchmark.threshold} (default {@value #DEFAULT_THRESHOLD}).
+ */
+public final class BenchmarkMain {
+
+    static final double DEFAULT_THRESHOLD = 0.10;
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams()
+                || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        Path result = Path.of(cli.getResult().orElse(DEFAULT_RESULT)).toAbsolutePath();
+        Files.createDirectories(result.getParent());
+        Options options = new OptionsBuilder()
+                .parent(cli)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+        new Runner(options).run();
+        System.out.println("JMH result written to " + result);
+
+        String baseline = System.getProperty("benchmark.baseline");
+        if (baseline == null) {
+            return;
+        }
+        double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", String.valueOf(DEFAULT_THRESHOLD)));
+        BaselineComparison comparison = BaselineComparison.compare(
+                BaselineComparison.read(Path.of(baseline)), BaselineComparison.read(result), threshold);
+        comparison.print(System.out);
+        Path report = result.resolveSibling("jmh-comparison.json");
+        comparison.write(report);
+        System.out.println("Comparison report written to " + report);
+        if (comparison.hasRegressions()) {
+            System.exit(1);
+        }
+    }
+}
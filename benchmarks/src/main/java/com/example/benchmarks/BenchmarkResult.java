@@ -0,0 +1,28 @@
+package com.example.benchmarks;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.Map;
+
+/**
+ * The subset of a JMH JSON result entry needed to compare runs.
+ */
+@Serdeable
+public record BenchmarkResult(String benchmark, String mode, @Nullable Map<String, String> params, Metric primaryMetric) {
+
+    public String key() {
+        return params == null || params.isEmpty() ? benchmark : benchmark + params;
+    }
+
+    /**
+     * Throughput scores improve upwards, every other JMH mode measures time and improves downwards.
+     */
+    public boolean higherIsBetter() {
+        return "thrpt".equals(mode);
+    }
+
+    @Serdeable
+    public record Metric(double score, double scoreError, String scoreUnit) {
+    }
+}
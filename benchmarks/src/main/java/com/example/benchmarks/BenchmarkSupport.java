@@ -0,0 +1,31 @@
+package com.example.benchmarks;
+
+import com.example.model.Product;
+import io.micronaut.context.ApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+final class BenchmarkSupport {
+
+    static final String ENVIRONMENT = "benchmark";
+
+    private BenchmarkSupport() {
+    }
+
+    static ApplicationContext startContext() {
+        return startContext(Map.of());
+    }
+
+    static ApplicationContext startContext(Map<String, Object> properties) {
+        return ApplicationContext.builder()
+                .environments(ENVIRONMENT)
+                .deduceEnvironment(false)
+                .properties(properties)
+                .start();
+    }
+
+    static Product product(int i) {
+        return new Product("Product " + i, "Benchmark product number " + i, new BigDecimal(i + ".99"));
+    }
+}
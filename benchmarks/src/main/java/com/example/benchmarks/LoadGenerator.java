@@ -0,0 +1,481 @@
+package com.example.benchmarks;
+
+import com.sun.tools.attach.VirtualMachine;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.serde.annotation.Serdeable;
+
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load generator that runs the same mixed read/write workload against several product APIs,
+ * one after another, and prints their results side by side. Each of {@code concurrency} clients sends its next
+ * request as soon as the previous one completed, so latencies do not include queueing in front of the clients.
+ * <p>
+ * The {@code mixed} workload reads {@code GET /products/{id}} of a random product of the dataset, every tenth one
+ * a page of {@code GET /products?after=&limit=20}. Writes are alternately a {@code POST /products} and an
+ * unconditional {@code PUT /products/{id}}; concurrent updates of the same product may be answered with 409, which
+ * is counted apart from errors. The {@code search} workload only sends substring searches, which scan the table.
+ * <p>
+ * Responses 429 and 503 are counted as rejected rather than timed, and the client waits for {@code Retry-After}
+ * before its next request, as a well-behaved client would.
+ * <p>
+ * A target started with {@code --start} is launched from its command (split on whitespace, no shell, so the
+ * command has to be the JVM itself) and stopped afterwards. For those, the time to the first successful
+ * {@code GET /products?limit=1} is reported as startup time, and the allocation rate during the measurement is
+ * read from the JVM through the attach API.
+ * <p>
+ * Usage: {@code LoadGenerator [options] <name>=<base-url> ...}
+ * <pre>
+ *   -c &lt;clients&gt;             concurrent clients (default 32)
+ *   -d &lt;seconds&gt;             measured duration per target (default 30)
+ *   -w &lt;seconds&gt;             warm-up per target before measuring (default 10)
+ *   --dataset &lt;products&gt;     products created before the warm-up (default 10000)
+ *   --writes &lt;fraction&gt;      fraction of requests that are writes (default 0.2)
+ *   --workload &lt;name&gt;       mixed or search (default mixed)
+ *   --start &lt;name&gt;=&lt;command&gt;  launches the target, output goes to &lt;name&gt;.log next to the result
+ *   -o &lt;file&gt;                JSON result (default target/load-result.json)
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+    private static final int PAGE_SIZE = 20;
+
+    private final int concurrency;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int dataset;
+    private final double writeRatio;
+    private final Workload workload;
+
+    public enum Workload {
+        MIXED, SEARCH
+    }
+
+    @Serdeable
+    public record Result(String target,
+                         int concurrency,
+                         double writeRatio,
+                         int dataset,
+                         long requests,
+                         long rejected,
+                         long conflicts,
+                         long errors,
+                         double throughput,
+                         double p50Millis,
+                         double p99Millis,
+                         double p999Millis,
+                         double maxMillis,
+                         @Nullable Double allocationMbPerSecond,
+                         @Nullable Long startupMillis) {
+    }
+
+    LoadGenerator(int concurrency, Duration duration, Duration warmup, int dataset, double writeRatio,
+                  Workload workload) {
+        this.concurrency = concurrency;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.dataset = dataset;
+        this.writeRatio = writeRatio;
+        this.workload = workload;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = 32;
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(10);
+        int dataset = 10_000;
+        double writeRatio = 0.2;
+        Workload workload = Workload.MIXED;
+        Path output = Path.of("target/load-result.json");
+        Map<String, URI> targets = new LinkedHashMap<>();
+        Map<String, String> commands = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-c" -> concurrency = Integer.parseInt(args[++i]);
+                case "-d" -> duration = Duration.ofSeconds(Long.parseLong(args[++i]));
+                case "-w" -> warmup = Duration.ofSeconds(Long.parseLong(args[++i]));
+                case "--dataset" -> dataset = Integer.parseInt(args[++i]);
+                case "--writes" -> writeRatio = Double.parseDouble(args[++i]);
+                case "--workload" -> workload = Workload.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--start" -> {
+                    String[] start = args[++i].split("=", 2);
+                    commands.put(start[0], start[1]);
+                }
+                case "-o" -> output = Path.of(args[++i]);
+                default -> {
+                    String[] target = args[i].split("=", 2);
+                    if (target.length != 2) {
+                        usage("Expected <name>=<base-url>, got " + args[i]);
+                    }
+                    targets.put(target[0], URI.create(target[1].endsWith("/") ? target[1] : target[1] + "/"));
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            usage("No targets given");
+        }
+        if (!targets.keySet().containsAll(commands.keySet())) {
+            usage("--start given for an unknown target: " + commands.keySet());
+        }
+
+        output = output.toAbsolutePath();
+        Files.createDirectories(output.getParent());
+        LoadGenerator generator = new LoadGenerator(concurrency, duration, warmup, dataset, writeRatio, workload);
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, URI> target : targets.entrySet()) {
+            String command = commands.get(target.getKey());
+            Path log = output.resolveSibling(target.getKey() + ".log");
+            results.add(generator.run(target.getKey(), target.getValue(), command, log));
+        }
+        print(results, System.out);
+        Files.write(output, JsonMapper.createDefault().writeValueAsBytes(results));
+        System.out.println("Load test result written to " + output);
+    }
+
+    Result run(String name, URI baseUri, @Nullable String command, @Nullable Path log) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Process process = null;
+        Long startupMillis = null;
+        try {
+            if (command != null) {
+                System.out.printf("Starting %s: %s%n", name, command);
+                long start = System.nanoTime();
+                process = new ProcessBuilder(command.trim().split("\\s+"))
+                        .redirectErrorStream(true)
+                        .redirectOutput(log.toFile())
+                        .start();
+                awaitReady(client, baseUri, process, log);
+                startupMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            }
+
+            System.out.printf("Loading %d products into %s...%n", dataset, name);
+            long[] ids = seed(client, baseUri);
+            System.out.printf("Warming up %s for %ds...%n", name, warmup.toSeconds());
+            drive(client, baseUri, ids, warmup);
+
+            try (AllocationProbe allocations = process != null ? AllocationProbe.attach(process.pid()) : null) {
+                long allocatedBefore = allocations != null ? allocations.allocatedBytes() : -1;
+                System.out.printf("Measuring %s for %ds with %d clients...%n", name, duration.toSeconds(), concurrency);
+                long start = System.nanoTime();
+                Run run = drive(client, baseUri, ids, duration);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                Double allocationRate = null;
+                if (allocatedBefore >= 0) {
+                    allocationRate = (allocations.allocatedBytes() - allocatedBefore) / seconds / (1024 * 1024);
+                }
+                long[] latencies = run.latencies();
+                return new Result(name, concurrency, writeRatio, dataset, latencies.length,
+                        run.rejected(), run.conflicts(), run.errors(), latencies.length / seconds,
+                        percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                        latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6,
+                        allocationRate, startupMillis);
+            }
+        } finally {
+            if (process != null) {
+                process.destroy();
+                process.waitFor();
+            }
+            client.close();
+        }
+    }
+
+    private void awaitReady(HttpClient client, URI baseUri, Process process, Path log) throws Exception {
+        HttpRequest probe = HttpRequest.newBuilder(baseUri.resolve("products?limit=1")).build();
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Target exited before serving a request, see " + log);
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Target did not answer within " + READY_TIMEOUT + ", see " + log);
+    }
+
+    private long[] seed(HttpClient client, URI baseUri) throws Exception {
+        return workload == Workload.SEARCH ? seedBatches(client, baseUri) : seedProducts(client, baseUri);
+    }
+
+    // Searches need no ids, so the products are created a thousand at a time
+    private long[] seedBatches(HttpClient client, URI baseUri) throws Exception {
+        int chunk = 1000;
+        for (int start = 0; start < dataset; start += chunk) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = start; i < Math.min(start + chunk, dataset); i++) {
+                body.append(i > start ? "," : "").append(productJson(i));
+            }
+            body.append(']');
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(baseUri.resolve("products/batch"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Batch failed with " + response.statusCode() + ": " + response.body());
+            }
+        }
+        return new long[0];
+    }
+
+    private long[] seedProducts(HttpClient client, URI baseUri) throws InterruptedException {
+        long[] ids = new long[dataset];
+        AtomicLong next = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < concurrency; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (long i = next.getAndIncrement(); i < dataset; i = next.getAndIncrement()) {
+                    try {
+                        HttpResponse<String> response = client.send(create(baseUri, i), HttpResponse.BodyHandlers.ofString());
+                        Matcher matcher = ID.matcher(response.body());
+                        if (response.statusCode() != 201 || !matcher.find()) {
+                            throw new IllegalStateException("Create failed with " + response.statusCode() + ": " + response.body());
+                        }
+                        ids[(int) i] = Long.parseLong(matcher.group(1));
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Create failed", e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (Arrays.stream(ids).anyMatch(id -> id == 0)) {
+            throw new IllegalStateException("Not all products could be created");
+        }
+        return ids;
+    }
+
+    private Run drive(HttpClient client, URI baseUri, long[] ids, Duration length) throws InterruptedException {
+        long deadline = System.nanoTime() + length.toNanos();
+        List<Client> clients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < concurrency; t++) {
+            Client worker = new Client(client, baseUri, ids, deadline);
+            clients.add(worker);
+            threads.add(Thread.ofPlatform().start(worker));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int total = clients.stream().mapToInt(worker -> worker.count).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Client worker : clients) {
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            offset += worker.count;
+        }
+        Arrays.sort(latencies);
+        return new Run(latencies,
+                clients.stream().mapToLong(worker -> worker.rejected).sum(),
+                clients.stream().mapToLong(worker -> worker.conflicts).sum(),
+                clients.stream().mapToLong(worker -> worker.errors).sum());
+    }
+
+    private HttpRequest nextRequest(URI baseUri, long[] ids, ThreadLocalRandom random) {
+        if (workload == Workload.SEARCH) {
+            return HttpRequest.newBuilder(baseUri.resolve("products/search?match=CONTAINS&sort=price&limit=" + PAGE_SIZE
+                    + "&name=" + random.nextInt(1000))).build();
+        }
+        long id = ids[random.nextInt(ids.length)];
+        if (random.nextDouble() < writeRatio) {
+            return random.nextBoolean()
+                    ? create(baseUri, random.nextLong(Long.MAX_VALUE))
+                    : HttpRequest.newBuilder(baseUri.resolve("products/" + id))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(productJson(id)))
+                            .build();
+        }
+        if (random.nextInt(10) == 0) {
+            return HttpRequest.newBuilder(baseUri.resolve("products?after=" + (id - 1) + "&limit=" + PAGE_SIZE)).build();
+        }
+        return HttpRequest.newBuilder(baseUri.resolve("products/" + id)).build();
+    }
+
+    private static HttpRequest create(URI baseUri, long sequence) {
+        return HttpRequest.newBuilder(baseUri.resolve("products"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(productJson(sequence)))
+                .build();
+    }
+
+    private static String productJson(long sequence) {
+        return String.format(Locale.ROOT, "{\"name\":\"Load %d\",\"description\":\"Load test product %d\",\"price\":%d.%02d}",
+                sequence, sequence, 1 + Math.floorMod(sequence, 999), Math.floorMod(sequence, 100));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    static void print(List<Result> results, PrintStream out) {
+        out.printf(Locale.ROOT, "%n%-12s %10s %10s %9s %9s %9s %9s %11s %9s %9s %8s%n",
+                "Target", "Startup", "Req/s", "p50 ms", "p99 ms", "p999 ms", "Max ms", "Alloc MB/s", "Rejected",
+                "Conflicts", "Errors");
+        for (Result result : results) {
+            out.printf(Locale.ROOT, "%-12s %10s %10.0f %9.2f %9.2f %9.2f %9.2f %11s %9d %9d %8d%n",
+                    result.target(),
+                    result.startupMillis() == null ? "-" : result.startupMillis() + " ms",
+                    result.throughput(),
+                    result.p50Millis(),
+                    result.p99Millis(),
+                    result.p999Millis(),
+                    result.maxMillis(),
+                    result.allocationMbPerSecond() == null ? "-" : String.format(Locale.ROOT, "%.1f", result.allocationMbPerSecond()),
+                    result.rejected(),
+                    result.conflicts(),
+                    result.errors());
+        }
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: LoadGenerator [-c clients] [-d seconds] [-w seconds] [--dataset products] "
+                + "[--writes fraction] [--workload mixed|search] [--start name=command] [-o result.json] "
+                + "<name>=<base-url> ...");
+        System.exit(2);
+    }
+
+    private record Run(long[] latencies, long rejected, long conflicts, long errors) {
+    }
+
+    private final class Client implements Runnable {
+
+        private final HttpClient client;
+        private final URI baseUri;
+        private final long[] ids;
+        private final long deadline;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long rejected;
+        private long conflicts;
+        private long errors;
+
+        Client(HttpClient client, URI baseUri, long[] ids, long deadline) {
+            this.client = client;
+            this.baseUri = baseUri;
+            this.ids = ids;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now = System.nanoTime();
+            while (now < deadline) {
+                HttpRequest request = nextRequest(baseUri, ids, random);
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    int status = response.statusCode();
+                    if (status == 429 || status == 503) {
+                        rejected++;
+                        // With jitter, so that the rejected clients do not all come back at once
+                        long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                        long retryAfterMillis = Math.max(1, retryAfter) * 1000;
+                        Thread.sleep(retryAfterMillis / 2 + random.nextLong(retryAfterMillis));
+                        now = System.nanoTime();
+                        continue;
+                    }
+                    if (status == 409) {
+                        conflicts++;
+                    } else if (status >= 400) {
+                        errors++;
+                    }
+                } catch (IOException e) {
+                    errors++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long end = System.nanoTime();
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = end - now;
+                now = end;
+            }
+        }
+    }
+
+    // Bytes allocated on the heap of another JVM, read through a local JMX connection
+    private static final class AllocationProbe implements AutoCloseable {
+
+        private final JMXConnector connector;
+        private final com.sun.management.ThreadMXBean threads;
+
+        private AllocationProbe(JMXConnector connector, com.sun.management.ThreadMXBean threads) {
+            this.connector = connector;
+            this.threads = threads;
+        }
+
+        @Nullable
+        static AllocationProbe attach(long pid) {
+            try {
+                VirtualMachine vm = VirtualMachine.attach(String.valueOf(pid));
+                String address;
+                try {
+                    address = vm.startLocalManagementAgent();
+                } finally {
+                    vm.detach();
+                }
+                JMXConnector connector = JMXConnectorFactory.connect(new JMXServiceURL(address));
+                return new AllocationProbe(connector, ManagementFactory.newPlatformMXBeanProxy(
+                        connector.getMBeanServerConnection(), ManagementFactory.THREAD_MXBEAN_NAME,
+                        com.sun.management.ThreadMXBean.class));
+            } catch (Exception e) {
+                System.out.println("Allocation rate not available for pid " + pid + ": " + e);
+                return null;
+            }
+        }
+
+        long allocatedBytes() {
+            return threads.getTotalThreadAllocatedBytes();
+        }
+
+        @Override
+        public void close() throws IOException {
+            connector.close();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.benchmarks;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.runtime.server.EmbeddedServer;
+import io.micronaut.scheduling.TaskExecutors;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load scenarios that compare configurations of the application, each run against servers started in this JVM:
+ * <pre>
+ *   execution-modes   read-only load with the controllers on the io and on the blocking executor
+ *   admission         substring searches against a small connection pool, with admission control off and on
+ *   transfer          a streamed CSV import and export, sampling the heap of this JVM
+ * </pre>
+ * Options, after the scenario:
+ * <pre>
+ *   -c &lt;clients&gt;             concurrent clients (default 200, admission 400)
+ *   -d &lt;seconds&gt;             measured duration (default 20)
+ *   -w &lt;seconds&gt;             warm-up before measuring (default 5)
+ *   --dataset &lt;products&gt;    products loaded first (default 1000, admission 20000)
+ *   --pool-size &lt;n&gt;         connections of the admission runs (default 4)
+ *   --latency-threshold &lt;ms&gt; latency the admission limit adapts to (default 500); it has to sit above the latency
+ *                            of a search on the machine, or the limit settles at its minimum
+ *   --rows &lt;n&gt;              rows of the transfer file (default 1000000)
+ * </pre>
+ * Run the transfer scenario with a small {@code -Xmx}: neither side builds the file in memory, so the peak heap
+ * should stay flat as {@code --rows} grows.
+ */
+public final class LoadScenarios {
+
+    private static final String DESCRIPTION = "d".repeat(400);
+
+    private LoadScenarios() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage("No scenario given");
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                usage("No value given for " + args[i]);
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        switch (args[0]) {
+            case "execution-modes" -> executionModes(options);
+            case "admission" -> admission(options);
+            case "transfer" -> transfer(options);
+            default -> usage("Unknown scenario " + args[0]);
+        }
+    }
+
+    private static void executionModes(Map<String, String> options) throws Exception {
+        LoadGenerator generator = generator(options, 200, 1000, LoadGenerator.Workload.MIXED);
+        List<LoadGenerator.Result> results = new ArrayList<>();
+        for (String mode : List.of(TaskExecutors.IO, TaskExecutors.BLOCKING)) {
+            Map<String, Object> properties = Map.of(
+                    "datasources.default.url", database("execution-" + mode),
+                    "products.executor", mode);
+            results.add(run(generator, mode, properties));
+        }
+        LoadGenerator.print(results, System.out);
+    }
+
+    /**
+     * Full-scan searches keep every connection busy, so without admission requests queue on the pool until they
+     * time out; with it the excess is answered 429/503 straight away and the admitted requests keep a bounded latency.
+     */
+    private static void admission(Map<String, String> options) throws Exception {
+        LoadGenerator generator = generator(options, 400, 20_000, LoadGenerator.Workload.SEARCH);
+        int poolSize = Integer.parseInt(options.getOrDefault("--pool-size", "4"));
+        int latencyThreshold = Integer.parseInt(options.getOrDefault("--latency-threshold", "500"));
+        List<LoadGenerator.Result> results = new ArrayList<>();
+        for (boolean admission : List.of(false, true)) {
+            Map<String, Object> properties = new HashMap<>();
+            // A database per run, so that the second run does not scan the first run's products as well
+            properties.put("datasources.default.url", database("admission-" + admission));
+            properties.put("datasources.default.maximum-pool-size", poolSize);
+            properties.put("datasources.default.minimum-idle", poolSize);
+            properties.put("datasources.default.connection-timeout", 2000);
+            properties.put("products.cache.enabled", false);
+            properties.put("products.admission.enabled", admission);
+            properties.put("products.admission.reads.max-limit", poolSize * 4);
+            properties.put("products.admission.reads.initial-limit", poolSize * 2);
+            properties.put("products.admission.reads.min-limit", 1);
+            properties.put("products.admission.reads.latency-threshold", latencyThreshold + "ms");
+            properties.put("products.admission.reads.rate", 1_000_000);
+            properties.put("products.admission.reads.burst", 1_000_000);
+            properties.put("products.admission.writes.rate", 1_000_000);
+            properties.put("products.admission.writes.burst", 1_000_000);
+            results.add(run(generator, admission ? "admission" : "no-admission", properties));
+        }
+        LoadGenerator.print(results, System.out);
+    }
+
+    private static void transfer(Map<String, String> options) throws Exception {
+        int rows = Integer.parseInt(options.getOrDefault("--rows", "1000000"));
+        // A file database, so that the heap holds only what the application keeps rather than the table itself
+        Path database = Files.createTempDirectory("transfer-benchmark");
+        Map<String, Object> properties = Map.of(
+                "datasources.default.url", "jdbc:h2:file:" + database.resolve("products") + ";MODE=Oracle",
+                "products.cache.enabled", false);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 10, TimeUnit.MILLISECONDS);
+        try (ApplicationContext context = BenchmarkSupport.startContext(properties);
+             HttpClient client = HttpClient.newHttpClient()) {
+            URI base = context.getBean(EmbeddedServer.class).start().getURI();
+            System.gc();
+            long baseline = memory.getHeapMemoryUsage().getUsed();
+
+            peakHeap.set(0);
+            GeneratedCsv upload = new GeneratedCsv(rows);
+            long start = System.nanoTime();
+            HttpResponse<String> imported = client.send(HttpRequest.newBuilder(base.resolve("/products/import"))
+                            .header("Content-Type", "text/csv")
+                            .POST(HttpRequest.BodyPublishers.ofInputStream(() -> upload))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            double importSeconds = (System.nanoTime() - start) / 1e9;
+            if (imported.statusCode() != 200) {
+                throw new IllegalStateException("Import failed with " + imported.statusCode() + ": " + imported.body());
+            }
+            long importPeak = peakHeap.get();
+
+            System.gc();
+            peakHeap.set(0);
+            start = System.nanoTime();
+            HttpResponse<InputStream> exported = client.send(HttpRequest.newBuilder(base.resolve("/products/export"))
+                            .header("Accept", "text/csv")
+                            .build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            long exportedBytes;
+            try (InputStream body = exported.body()) {
+                exportedBytes = body.transferTo(OutputStream.nullOutputStream());
+            }
+            double exportSeconds = (System.nanoTime() - start) / 1e9;
+            long exportPeak = peakHeap.get();
+
+            System.out.printf(Locale.ROOT, "%n%-8s %12s %10s %16s %16s%n",
+                    "", "MB", "Seconds", "Peak heap MB", "Baseline MB");
+            System.out.printf(Locale.ROOT, "%-8s %12.1f %10.1f %16.1f %16.1f%n", "Import", upload.count / 1e6,
+                    importSeconds, importPeak / 1e6, baseline / 1e6);
+            System.out.printf(Locale.ROOT, "%-8s %12.1f %10.1f %16.1f %16.1f%n", "Export", exportedBytes / 1e6,
+                    exportSeconds, exportPeak / 1e6, baseline / 1e6);
+            System.out.println("The database is in " + database + "; delete it afterwards");
+        } finally {
+            sampler.shutdownNow();
+        }
+    }
+
+    private static LoadGenerator generator(Map<String, String> options, int concurrency, int dataset,
+                                           LoadGenerator.Workload workload) {
+        return new LoadGenerator(
+                Integer.parseInt(options.getOrDefault("-c", String.valueOf(concurrency))),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("-d", "20"))),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("-w", "5"))),
+                Integer.parseInt(options.getOrDefault("--dataset", String.valueOf(dataset))),
+                0, workload);
+    }
+
+    private static LoadGenerator.Result run(LoadGenerator generator, String name, Map<String, Object> properties)
+            throws Exception {
+        try (ApplicationContext context = BenchmarkSupport.startContext(properties)) {
+            URI base = context.getBean(EmbeddedServer.class).start().getURI();
+            return generator.run(name, base.resolve("/"), null, null);
+        }
+    }
+
+    private static String database(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=Oracle;DB_CLOSE_DELAY=-1";
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: LoadScenarios execution-modes|admission|transfer [-c clients] [-d seconds] "
+                + "[-w seconds] [--dataset products] [--pool-size n] [--latency-threshold ms] [--rows n]");
+        System.exit(2);
+    }
+
+    /**
+     * Generates the CSV file row by row as it is read.
+     */
+    private static final class GeneratedCsv extends InputStream {
+
+        private final int rows;
+        private int row = -1;
+        private byte[] line = "name,description,price\n".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private long count;
+
+        private GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position == line.length) {
+                if (++row >= rows) {
+                    return -1;
+                }
+                line = ("Product " + row + "," + DESCRIPTION + "," + (row % 1000 + 1) + ".99\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            int n = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, n);
+            position += n;
+            count += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.benchmarks;
+
+import com.example.model.Product;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.compression.ZstdDecoder;
+import io.netty.handler.codec.compression.ZstdEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost versus bytes saved when compressing a JSON page of products with the Netty codecs the HTTP server
+ * negotiates from Accept-Encoding. The compressed size and ratio are printed during setup; a single product shows
+ * why responses below {@code micronaut.server.netty.compression-threshold} are sent as they are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductCompressionBenchmark {
+
+    @Param({"gzip", "deflate", "zstd"})
+    String encoding;
+
+    @Param({"1", "6"})
+    int level;
+
+    @Param({"1", "100", "1000"})
+    int products;
+
+    private byte[] json;
+    private byte[] compressed;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Product> page = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = BenchmarkSupport.product(i);
+            product.setId((long) i + 1);
+            product.setVersion(0L);
+            page.add(product);
+        }
+        try (ApplicationContext context = BenchmarkSupport.startContext()) {
+            json = context.getBean(JsonMapper.class).writeValueAsBytes(page);
+        }
+        compressed = compress();
+        System.out.printf("[%s level %d] %d products: %d -> %d bytes (%.1f%%)%n",
+                encoding, level, products, json.length, compressed.length, 100.0 * compressed.length / json.length);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return drain(true, encoder(), json);
+    }
+
+    @Benchmark
+    public byte[] decompress() {
+        return drain(false, decoder(), compressed);
+    }
+
+    private ChannelHandler encoder() {
+        return switch (encoding) {
+            case "gzip" -> ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP, level);
+            case "deflate" -> ZlibCodecFactory.newZlibEncoder(ZlibWrapper.ZLIB, level);
+            case "zstd" -> new ZstdEncoder(level);
+            default -> throw new IllegalStateException(encoding);
+        };
+    }
+
+    private ChannelHandler decoder() {
+        return switch (encoding) {
+            case "gzip" -> ZlibCodecFactory.newZlibDecoder(ZlibWrapper.GZIP);
+            case "deflate" -> ZlibCodecFactory.newZlibDecoder(ZlibWrapper.ZLIB);
+            case "zstd" -> new ZstdDecoder();
+            default -> throw new IllegalStateException(encoding);
+        };
+    }
+
+    private static byte[] drain(boolean outbound, ChannelHandler codec, byte[] data) {
+        EmbeddedChannel channel = new EmbeddedChannel(codec);
+        if (outbound) {
+            channel.writeOutbound(Unpooled.wrappedBuffer(data));
+        } else {
+            channel.writeInbound(Unpooled.wrappedBuffer(data));
+        }
+        channel.finish();
+        ByteBuf result = Unpooled.buffer();
+        ByteBuf chunk;
+        while ((chunk = outbound ? channel.readOutbound() : channel.readInbound()) != null) {
+            result.writeBytes(chunk);
+            chunk.release();
+        }
+        byte[] bytes = new byte[result.readableBytes()];
+        result.readBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.benchmarks;
+
+import com.example.codec.ProductMediaTypes;
+import com.example.model.Product;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.body.MessageBodyHandlerRegistry;
+import io.micronaut.http.body.MessageBodyReader;
+import io.micronaut.http.body.MessageBodyWriter;
+import io.micronaut.http.simple.SimpleHttpHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a page of products in each media type the product endpoints offer, through the same
+ * message body handlers the HTTP server selects. The encoded size per product is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductFormatBenchmark {
+
+    private static final Argument<List<Product>> PRODUCT_LIST = Argument.listOf(Product.class);
+
+    @Param({MediaType.APPLICATION_JSON, ProductMediaTypes.APPLICATION_NDJSON, ProductMediaTypes.APPLICATION_CBOR})
+    String format;
+
+    @Param({"1", "100"})
+    int products;
+
+    private ApplicationContext context;
+    private MediaType mediaType;
+    private MessageBodyWriter<List<Product>> writer;
+    private MessageBodyReader<List<Product>> reader;
+    private List<Product> page;
+    private byte[] encoded;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkSupport.startContext();
+        MessageBodyHandlerRegistry handlers = context.getBean(MessageBodyHandlerRegistry.class);
+        mediaType = MediaType.of(format);
+        writer = handlers.findWriter(PRODUCT_LIST, List.of(mediaType)).orElseThrow();
+        reader = handlers.findReader(PRODUCT_LIST, List.of(mediaType)).orElseThrow();
+        page = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = BenchmarkSupport.product(i);
+            product.setId((long) i + 1);
+            product.setVersion(0L);
+            page.add(product);
+        }
+        buffer = new ByteArrayOutputStream(products * 256);
+        encoded = serialize();
+        System.out.printf("[%s] %d products: %d bytes, %.1f bytes/product%n",
+                format, products, encoded.length, (double) encoded.length / products);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        buffer.reset();
+        writer.writeTo(PRODUCT_LIST, mediaType, page, new SimpleHttpHeaders(), buffer);
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public List<Product> deserialize() {
+        return reader.read(PRODUCT_LIST, mediaType, new SimpleHttpHeaders(), new ByteArrayInputStream(encoded));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.benchmarks;
+
+import com.example.model.Product;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.runtime.server.EmbeddedServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full in-process HTTP round trips through {@code ProductController}: client encoding, Netty, routing,
+ * validation, the service and repository layers, and response decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ProductHttpBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final int PAGE_SIZE = 20;
+
+    private EmbeddedServer server;
+    private HttpClient httpClient;
+    private BlockingHttpClient client;
+    private long[] ids;
+
+    @Setup
+    public void setup() {
+        ApplicationContext context = BenchmarkSupport.startContext();
+        server = context.getBean(EmbeddedServer.class).start();
+        httpClient = context.createBean(HttpClient.class, server.getURL());
+        client = httpClient.toBlocking();
+        ids = new long[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            ids[i] = client.retrieve(HttpRequest.POST("/products", BenchmarkSupport.product(i)), Product.class).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpClient.close();
+        server.getApplicationContext().close();
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        return client.retrieve(HttpRequest.GET("/products/" + randomId()), Product.class);
+    }
+
+    @Benchmark
+    public List<Product> getPage() {
+        return client.retrieve(HttpRequest.GET("/products?after=" + randomId() + "&limit=" + PAGE_SIZE),
+                Argument.listOf(Product.class));
+    }
+
+    @Benchmark
+    public Product createProduct() {
+        return client.retrieve(HttpRequest.POST("/products", BenchmarkSupport.product(ThreadLocalRandom.current().nextInt(ROWS))),
+                Product.class);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
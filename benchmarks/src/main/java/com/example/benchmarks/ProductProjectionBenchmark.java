@@ -0,0 +1,90 @@
+package com.example.benchmarks;
+
+import com.example.model.Product;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.runtime.server.EmbeddedServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process {@code GET /products} pages of products with 500-character descriptions, in full and with
+ * {@code ?fields=id,name,price}. The response size is printed during setup; run with {@code -prof gc} to see the
+ * bytes allocated per page ({@code gc.alloc.rate.norm}), client and server together.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductProjectionBenchmark {
+
+    private static final int ROWS = 2000;
+    private static final int BATCH = 500;
+    private static final String DESCRIPTION = "d".repeat(500);
+
+    @Param({"all", "id,name,price"})
+    String fields;
+
+    @Param({"100"})
+    int pageSize;
+
+    private EmbeddedServer server;
+    private HttpClient httpClient;
+    private BlockingHttpClient client;
+    private long firstId;
+
+    @Setup
+    public void setup() {
+        ApplicationContext context = BenchmarkSupport.startContext();
+        server = context.getBean(EmbeddedServer.class).start();
+        httpClient = context.createBean(HttpClient.class, server.getURL());
+        client = httpClient.toBlocking();
+        for (int start = 0; start < ROWS; start += BATCH) {
+            List<Product> batch = new ArrayList<>(BATCH);
+            for (int i = start; i < start + BATCH; i++) {
+                batch.add(new Product("Product " + i, DESCRIPTION, new BigDecimal(i + ".99")));
+            }
+            client.exchange(HttpRequest.POST("/products/batch", batch));
+        }
+        firstId = client.retrieve(HttpRequest.GET("/products?limit=1&fields=id"), Product[].class)[0].getId() - 1;
+        byte[] page = getPage();
+        System.out.printf("[fields=%s] %d products: %d bytes, %.1f bytes/product%n",
+                fields, pageSize, page.length, (double) page.length / pageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpClient.close();
+        server.getApplicationContext().close();
+    }
+
+    @Benchmark
+    public byte[] getPage() {
+        long after = firstId + ThreadLocalRandom.current().nextInt(ROWS - pageSize);
+        String uri = "/products?after=" + after + "&limit=" + pageSize;
+        if (!fields.equals("all")) {
+            uri += "&fields=" + fields;
+        }
+        return client.retrieve(HttpRequest.GET(uri), byte[].class);
+    }
+}
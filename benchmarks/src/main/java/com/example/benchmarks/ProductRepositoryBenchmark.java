@@ -0,0 +1,81 @@
+package com.example.benchmarks;
+
+import com.example.model.Product;
+import com.example.repository.ProductRepositoryMicronaut;
+import io.micronaut.context.ApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductRepositoryMicronaut} against embedded H2. The table is seeded with {@code rows} products;
+ * every benchmark method runs in its own fork, so rows inserted by {@link #save()} never leak into the
+ * read benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+    @Param({"1000"})
+    int rows;
+
+    private ApplicationContext context;
+    private ProductRepositoryMicronaut productRepository;
+    private long[] ids;
+    private int sequence;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkSupport.startContext();
+        productRepository = context.getBean(ProductRepositoryMicronaut.class);
+        List<Product> products = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            products.add(BenchmarkSupport.product(i));
+        }
+        ids = new long[rows];
+        int i = 0;
+        for (Product product : productRepository.saveAll(products)) {
+            ids[i++] = product.getId();
+        }
+        sequence = rows;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product save() {
+        return productRepository.save(BenchmarkSupport.product(sequence++));
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productRepository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public List<Product> findAll() {
+        return productRepository.findAll();
+    }
+}
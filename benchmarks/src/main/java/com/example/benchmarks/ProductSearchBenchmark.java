@@ -0,0 +1,138 @@
+package com.example.benchmarks;
+
+import com.example.model.Product;
+import com.example.repository.ProductRepositoryMicronaut;
+import com.example.repository.ProductSpecifications;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /products/search} queries against a large H2 table, with and without the {@code name} and
+ * {@code price} indexes. The query plans for both variants are printed during setup so that index range
+ * scans can be told apart from full table scans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final int LIMIT = 50;
+    private static final int INSERT_BATCH = 1000;
+
+    @Param({"200000"})
+    int rows;
+
+    @Param({"true", "false"})
+    boolean indexed;
+
+    private ApplicationContext context;
+    private ProductRepositoryMicronaut productRepository;
+    private Connection connection;
+
+    @Setup
+    public void setup() throws SQLException {
+        context = BenchmarkSupport.startContext();
+        productRepository = context.getBean(ProductRepositoryMicronaut.class);
+        // Raw connection to the same in-memory database for bulk loading and EXPLAIN
+        connection = DriverManager.getConnection(
+                context.getRequiredProperty("datasources.default.url", String.class),
+                context.getRequiredProperty("datasources.default.username", String.class),
+                context.getProperty("datasources.default.password", String.class).orElse(""));
+        seed();
+        if (!indexed) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP INDEX idx_products_name");
+                statement.execute("DROP INDEX idx_products_price");
+            }
+        }
+        explain("SELECT * FROM products WHERE name LIKE 'Product 0123%' ORDER BY name, id FETCH FIRST 50 ROWS ONLY");
+        explain("SELECT * FROM products WHERE price >= 100 AND price <= 101 ORDER BY price, id FETCH FIRST 50 ROWS ONLY");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> nameStartsWith() {
+        String prefix = String.format("Product %04d", ThreadLocalRandom.current().nextInt(rows / 100));
+        return search(ProductSpecifications.nameStartsWith(prefix), "name");
+    }
+
+    @Benchmark
+    public List<Product> nameContains() {
+        String text = String.format("%04d", ThreadLocalRandom.current().nextInt(rows / 100));
+        return search(ProductSpecifications.nameContains(text), "name");
+    }
+
+    @Benchmark
+    public List<Product> priceRange() {
+        BigDecimal min = BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(999));
+        return search(ProductSpecifications.priceAtLeast(min).and(ProductSpecifications.priceAtMost(min.add(BigDecimal.ONE))), "price");
+    }
+
+    private List<Product> search(PredicateSpecification<Product> criteria, String sort) {
+        Pageable pageable = Pageable.from(0, LIMIT, Sort.of(Sort.Order.asc(sort), Sort.Order.asc("id"))).withoutTotal();
+        return productRepository.findAll(criteria, pageable).getContent();
+    }
+
+    private void seed() throws SQLException {
+        String sql = "INSERT INTO products (id, name, description, price, version) "
+                + "VALUES (NEXT VALUE FOR products_seq, ?, ?, ?, 0)";
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int i = 0; i < rows; i++) {
+                insert.setString(1, String.format("Product %06d", i));
+                insert.setString(2, "Benchmark product number " + i);
+                insert.setBigDecimal(3, BigDecimal.valueOf(random.nextLong(1, 100_000), 2));
+                insert.addBatch();
+                if ((i + 1) % INSERT_BATCH == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE products");
+        }
+    }
+
+    private void explain(String query) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + query)) {
+            while (plan.next()) {
+                System.out.println("[indexed=" + indexed + "] " + plan.getString(1).replaceAll("\\s+", " "));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.benchmarks;
+
+import com.example.model.Product;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.core.type.Argument;
+import io.micronaut.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Product} serialization and deserialization through micronaut-serde-jackson, for a single
+ * product and for a page of {@value #PAGE_SIZE} products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSerdeBenchmark {
+
+    private static final Argument<List<Product>> PRODUCT_LIST = Argument.listOf(Product.class);
+    private static final int PAGE_SIZE = 100;
+
+    private ApplicationContext context;
+    private JsonMapper jsonMapper;
+    private Product product;
+    private List<Product> page;
+    private byte[] productJson;
+    private byte[] pageJson;
+
+    @Setup
+    public void setup() throws IOException {
+        context = BenchmarkSupport.startContext();
+        jsonMapper = context.getBean(JsonMapper.class);
+        product = BenchmarkSupport.product(1);
+        product.setId(1L);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Product p = BenchmarkSupport.product(i);
+            p.setId((long) i + 1);
+            page.add(p);
+        }
+        productJson = jsonMapper.writeValueAsBytes(product);
+        pageJson = jsonMapper.writeValueAsBytes(page);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws IOException {
+        return jsonMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public Product deserializeProduct() throws IOException {
+        return jsonMapper.readValue(productJson, Product.class);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<Product> deserializePage() throws IOException {
+        return jsonMapper.readValue(pageJson, PRODUCT_LIST);
+    }
+}
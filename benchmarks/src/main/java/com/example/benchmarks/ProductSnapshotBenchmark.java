@@ -0,0 +1,106 @@
+package com.example.benchmarks;
+
+import com.example.model.Product;
+import com.example.snapshot.ProductSnapshots;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.runtime.server.EmbeddedServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process {@code GET /products/{id}} and {@code GET /products} pages from 8 threads, read through JDBC or from
+ * the catalog snapshot. Lookups by id on the JDBC path are mostly answered by the product cache, so there the
+ * snapshot saves the serialization rather than the query. Run with {@code -prof gc} to compare the bytes
+ * allocated per read ({@code gc.alloc.rate.norm}), client and server together.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ProductSnapshotBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int BATCH = 500;
+
+    @Param({"false", "true"})
+    boolean snapshot;
+
+    @Param({"100"})
+    int pageSize;
+
+    private EmbeddedServer server;
+    private HttpClient httpClient;
+    private BlockingHttpClient client;
+    // Ids are drawn from a pooled sequence and need not be consecutive
+    private long[] ids;
+
+    @Setup
+    public void setup() {
+        ApplicationContext context = BenchmarkSupport.startContext(Map.of(
+                "products.snapshot.enabled", snapshot,
+                // Nothing changes during the run; builds are started below
+                "products.snapshot.refresh-interval", "1h"));
+        server = context.getBean(EmbeddedServer.class).start();
+        httpClient = context.createBean(HttpClient.class, server.getURL());
+        client = httpClient.toBlocking();
+        for (int start = 0; start < ROWS; start += BATCH) {
+            List<Product> batch = new ArrayList<>(BATCH);
+            for (int i = start; i < start + BATCH; i++) {
+                batch.add(BenchmarkSupport.product(i));
+            }
+            client.exchange(HttpRequest.POST("/products/batch", batch));
+        }
+        ids = new long[ROWS];
+        for (int loaded = 0; loaded < ROWS; ) {
+            long after = loaded == 0 ? 0 : ids[loaded - 1];
+            for (Product product : client.retrieve(
+                    HttpRequest.GET("/products?fields=id&limit=1000&after=" + after), Product[].class)) {
+                ids[loaded++] = product.getId();
+            }
+        }
+        if (snapshot) {
+            context.getBean(ProductSnapshots.class).rebuild();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpClient.close();
+        server.getApplicationContext().close();
+    }
+
+    @Benchmark
+    public byte[] getProduct() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ROWS)];
+        return client.retrieve(HttpRequest.GET("/products/" + id), byte[].class);
+    }
+
+    @Benchmark
+    public byte[] getPage() {
+        long after = ids[ThreadLocalRandom.current().nextInt(ROWS - pageSize)];
+        return client.retrieve(HttpRequest.GET("/products?after=" + after + "&limit=" + pageSize), byte[].class);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.benchmarks;
+
+import com.example.model.Product;
+import com.example.shard.ShardedProductRepository;
+import io.micronaut.context.ApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ShardedProductRepository} over {@code shards} embedded H2 databases, with concurrent writers and readers.
+ * Inserts and single-product reads go to one shard, pages to all of them. The databases share this JVM and its
+ * cores, so the numbers show the routing and merge overhead and the relief from lock contention on one table,
+ * not the write capacity separate database servers would add.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ShardedProductRepositoryBenchmark {
+
+    @Param({"1", "2", "4"})
+    int shards;
+
+    @Param({"1000"})
+    int rows;
+
+    private ApplicationContext context;
+    private ShardedProductRepository repository;
+    private long[] ids;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Setup
+    public void setup() {
+        Map<String, Object> properties = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            String name = "shard-" + i;
+            names.add(name);
+            String prefix = "datasources." + name + ".";
+            properties.put(prefix + "db-type", "h2");
+            properties.put(prefix + "dialect", "H2");
+            properties.put(prefix + "driver-class-name", "org.h2.Driver");
+            properties.put(prefix + "url", "jdbc:h2:mem:benchmark-shard" + i + ";MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+            properties.put(prefix + "username", "sa");
+            properties.put(prefix + "password", "");
+            properties.put("flyway.datasources." + name + ".enabled", true);
+            properties.put("jpa." + name + ".entity-scan.packages", "com.example");
+            properties.put("jpa." + name + ".properties.hibernate.hbm2ddl.auto", "update");
+        }
+        properties.put("products.shards.datasources", names);
+        context = BenchmarkSupport.startContext(properties);
+        repository = context.getBean(ShardedProductRepository.class);
+
+        List<Product> products = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            products.add(BenchmarkSupport.product(i));
+        }
+        ids = repository.saveAll(products).stream().mapToLong(Product::getId).toArray();
+        sequence.set(rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product save() {
+        return repository.save(BenchmarkSupport.product(sequence.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return repository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public List<Product> page() {
+        return repository.findByIdGreaterThanOrderById(ids[ThreadLocalRandom.current().nextInt(ids.length)], 20);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.crac;
+
+import io.micronaut.crac.OrderedResource;
+import jakarta.inject.Singleton;
+import org.crac.Context;
+import org.crac.Resource;
+
+/**
+ * Closes the database connections before a CRaC checkpoint, which fails while sockets are open, and reopens
+ * them after restore. The pools stay suspended in between, so nothing can open a connection; the Hikari pools,
+ * and the Hibernate or Micronaut Data JDBC state built on them, are restored as they were.
+ */
+@Singleton
+public class ConnectionPoolResource implements OrderedResource {
+
+    private final ConnectionPools pools;
+
+    public ConnectionPoolResource(ConnectionPools pools) {
+        this.pools = pools;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+        pools.suspend();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        pools.resume();
+    }
+}
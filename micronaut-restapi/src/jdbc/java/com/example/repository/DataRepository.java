@@ -0,0 +1,29 @@
+package com.example.repository;
+
+import io.micronaut.context.annotation.AliasFor;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the repositories of the {@code jdbc} persistence mode: all SQL is generated at compile time for Oracle and
+ * run through plain JDBC. H2 runs it in its Oracle compatibility mode ({@code MODE=Oracle}).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@JdbcRepository(dialect = Dialect.ORACLE)
+public @interface DataRepository {
+
+    /**
+     * @return The name of the datasource, {@code default} if empty
+     */
+    @AliasFor(annotation = Repository.class, member = "value")
+    String value() default "";
+}
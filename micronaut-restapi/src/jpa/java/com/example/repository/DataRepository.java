@@ -0,0 +1,27 @@
+package com.example.repository;
+
+import io.micronaut.context.annotation.AliasFor;
+import io.micronaut.data.annotation.Repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the repositories of the {@code jpa} persistence mode, the default: queries run through Hibernate. The
+ * {@code jdbc} mode compiles a different declaration of this annotation from {@code src/jdbc/java}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repository
+public @interface DataRepository {
+
+    /**
+     * @return The name of the datasource, {@code default} if empty
+     */
+    @AliasFor(annotation = Repository.class, member = "value")
+    String value() default "";
+}
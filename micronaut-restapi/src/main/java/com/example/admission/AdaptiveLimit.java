@@ -0,0 +1,69 @@
+package com.example.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit adjusted by AIMD: a response slower than the latency threshold, or failed, cuts the limit by
+ * {@link #BACKOFF}; each fast one while the limit is in use raises it by {@code 1 / limit}, about one per round of
+ * requests. As in TCP, only requests admitted after the last cut can cut it again, so one slow round backs off once
+ * rather than once per request in flight.
+ */
+final class AdaptiveLimit {
+
+    static final double BACKOFF = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // The limit is a double so that additive increase can move it by fractions; stored as raw bits
+    private final AtomicLong limit;
+    private final AtomicLong lastDecrease;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long latencyThresholdNanos;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos) {
+        this.limit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+        this.lastDecrease = new AtomicLong(System.nanoTime());
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long startNanos, long endNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        if (failed || endNanos - startNanos > latencyThresholdNanos) {
+            long previous = lastDecrease.get();
+            if (startNanos - previous > 0 && lastDecrease.compareAndSet(previous, endNanos)) {
+                update(value -> Math.max(minLimit, value * BACKOFF));
+            }
+        } else if (current * 2 >= limit()) {
+            // Only grow while at least half the limit is used, so that an idle service does not drift to the max
+            update(value -> Math.min(maxLimit, value + 1 / value));
+        }
+    }
+
+    int limit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update(DoubleUnaryOperator function) {
+        limit.updateAndGet(bits -> Double.doubleToLongBits(function.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.admission;
+
+import com.example.config.AdmissionConfiguration;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.async.publisher.Publishers;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpMethod;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.filter.HttpServerFilter;
+import io.micronaut.http.filter.ServerFilterChain;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fails fast instead of queueing when {@code /products} is over capacity. Reads (GET, HEAD, OPTIONS) and writes
+ * have separate budgets, each made of:
+ * <ul>
+ *     <li>a token bucket per client, answering 429 with the time until the next token as Retry-After;</li>
+ *     <li>an {@link AdaptiveLimit} on requests in flight, answering 503 with {@code products.admission.retry-after}.
+ *     It shrinks when responses slow down or fail, so excess requests are turned away before they pile up on the
+ *     connection pool.</li>
+ * </ul>
+ * Streaming and bulk transfer endpoints only go through the token bucket.
+ */
+@Filter("/products/**")
+@Requires(property = "products.admission.enabled", notEquals = "false")
+public class AdmissionFilter implements HttpServerFilter {
+
+    public static final String REJECTED_METRIC = "products.admission.rejected";
+    public static final String LIMIT_METRIC = "products.admission.limit";
+    public static final String IN_FLIGHT_METRIC = "products.admission.in-flight";
+
+    // Streams and bulk transfers last as long as their data, not as long as the service is slow, so their latency
+    // would only mislead the adaptive limits; they are rate limited but not counted in flight
+    private static final Set<String> LONG_LIVED = Set.of(
+            "/products/stream", "/products/changes", "/products/import", "/products/export");
+
+    private final String clientHeader;
+    private final long retryAfterSeconds;
+    private final Budget reads;
+    private final Budget writes;
+
+    public AdmissionFilter(AdmissionConfiguration configuration, MeterRegistry meterRegistry) {
+        this.clientHeader = configuration.getClientHeader();
+        this.retryAfterSeconds = toRetryAfterSeconds(configuration.getRetryAfter().toNanos());
+        this.reads = new Budget("reads", configuration.getReads(), meterRegistry);
+        this.writes = new Budget("writes", configuration.getWrites(), meterRegistry);
+    }
+
+    @Override
+    public Publisher<MutableHttpResponse<?>> doFilter(HttpRequest<?> request, ServerFilterChain chain) {
+        Budget budget = isRead(request.getMethod()) ? reads : writes;
+        long start = System.nanoTime();
+        long wait = budget.bucket(clientOf(request), start).tryAcquire(start);
+        if (wait > 0) {
+            budget.rateLimited.increment();
+            return Publishers.just(reject(HttpStatus.TOO_MANY_REQUESTS, toRetryAfterSeconds(wait)));
+        }
+        if (LONG_LIVED.contains(request.getPath())) {
+            return chain.proceed(request);
+        }
+        if (!budget.limit.tryAcquire()) {
+            budget.overloaded.increment();
+            return Publishers.just(reject(HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds));
+        }
+        AtomicBoolean failed = new AtomicBoolean();
+        return Flux.from(chain.proceed(request))
+                .doOnNext(response -> failed.set(response.code() >= 500))
+                .doOnError(error -> failed.set(true))
+                .doFinally(signal -> budget.limit.release(start, System.nanoTime(), failed.get()));
+    }
+
+    private String clientOf(HttpRequest<?> request) {
+        if (clientHeader != null) {
+            String client = request.getHeaders().get(clientHeader);
+            if (client != null) {
+                return client;
+            }
+        }
+        return request.getRemoteAddress().getHostString();
+    }
+
+    private static boolean isRead(HttpMethod method) {
+        return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS;
+    }
+
+    private static MutableHttpResponse<?> reject(HttpStatus status, long retryAfterSeconds) {
+        return HttpResponse.status(status).header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+
+    private static long toRetryAfterSeconds(long nanos) {
+        return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    private static final class Budget {
+
+        private final double rate;
+        private final int burst;
+        // A bucket untouched for longer than it takes to refill is full, so it can be dropped and recreated
+        private final Cache<String, TokenBucket> buckets;
+        private final AdaptiveLimit limit;
+        private final Counter rateLimited;
+        private final Counter overloaded;
+
+        private Budget(String name, AdmissionConfiguration.Budget configuration, MeterRegistry meterRegistry) {
+            this.rate = configuration.getRate();
+            this.burst = configuration.getBurst();
+            this.buckets = Caffeine.newBuilder()
+                    .expireAfterAccess(Duration.ofNanos((long) (burst * 1_000_000_000L / rate)).plusSeconds(1))
+                    .maximumSize(100_000)
+                    .build();
+            this.limit = new AdaptiveLimit(configuration.getInitialLimit(), configuration.getMinLimit(),
+                    configuration.getMaxLimit(), configuration.getLatencyThreshold().toNanos());
+            this.rateLimited = rejected(meterRegistry, name, "rate-limit");
+            this.overloaded = rejected(meterRegistry, name, "concurrency");
+            Gauge.builder(LIMIT_METRIC, limit, AdaptiveLimit::limit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("budget", name)
+                    .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_METRIC, limit, AdaptiveLimit::inFlight)
+                    .description("Requests currently admitted")
+                    .tag("budget", name)
+                    .register(meterRegistry);
+        }
+
+        private TokenBucket bucket(String client, long now) {
+            return buckets.get(client, key -> new TokenBucket(rate, burst, now));
+        }
+
+        private static Counter rejected(MeterRegistry meterRegistry, String budget, String reason) {
+            return Counter.builder(REJECTED_METRIC)
+                    .description("Requests turned away by admission control")
+                    .tag("budget", budget)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: instead of a token count it keeps the time at which the bucket would be
+ * full again, so taking a token is a single compare-and-set.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(double ratePerSecond, int burst, long now) {
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.capacityNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token; returns 0 on success, otherwise the nanoseconds until a token is available.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.cache;
+
+import com.example.model.Product;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import jakarta.inject.Singleton;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+@Singleton
+@Requires(property = "products.cache.enabled", value = StringUtils.FALSE)
+public class NoOpProductCache implements ProductCache {
+
+    @Override
+    public Optional<Product> findById(Long id, Function<Long, Optional<Product>> loader) {
+        return loader.apply(id);
+    }
+
+    @Override
+    public Optional<Product> findByName(String name, Function<String, Optional<Product>> loader) {
+        return loader.apply(name);
+    }
+
+    @Override
+    public void invalidate(Long id) {
+    }
+}
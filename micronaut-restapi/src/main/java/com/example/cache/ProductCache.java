@@ -0,0 +1,15 @@
+package com.example.cache;
+
+import com.example.model.Product;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+public interface ProductCache {
+
+    Optional<Product> findById(Long id, Function<Long, Optional<Product>> loader);
+
+    Optional<Product> findByName(String name, Function<String, Optional<Product>> loader);
+
+    void invalidate(Long id);
+}
@@ -0,0 +1,20 @@
+package com.example.cache;
+
+import com.example.event.ProductChangedEvent;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class ProductCacheInvalidator {
+
+    private final ProductCache productCache;
+
+    public ProductCacheInvalidator(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @TransactionalEventListener(TransactionalEventListener.TransactionPhase.AFTER_COMPLETION)
+    public void onProductChanged(ProductChangedEvent event) {
+        productCache.invalidate(event.id());
+    }
+}
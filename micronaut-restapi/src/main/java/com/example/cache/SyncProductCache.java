@@ -0,0 +1,85 @@
+package com.example.cache;
+
+import com.example.model.Product;
+import io.micronaut.cache.SyncCache;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through product cache on top of two Micronaut caches: {@code products} (id to product) and
+ * {@code product-names} (name to id). The backing store is whatever cache implementation is configured,
+ * Caffeine by default.
+ * <p>
+ * Loads race with invalidations: a reader may fetch a row just before a writer commits and store it
+ * just after the writer invalidated. Every invalidation bumps a generation counter, and a reader that
+ * sees the counter move while it was loading evicts what it stored.
+ */
+@Singleton
+@Requires(property = "products.cache.enabled", notEquals = StringUtils.FALSE)
+public class SyncProductCache implements ProductCache {
+
+    private final SyncCache<?> products;
+    private final SyncCache<?> productNames;
+    private final AtomicLong generation = new AtomicLong();
+
+    public SyncProductCache(@Named("products") SyncCache<?> products,
+                            @Named("product-names") SyncCache<?> productNames) {
+        this.products = products;
+        this.productNames = productNames;
+    }
+
+    @Override
+    public Optional<Product> findById(Long id, Function<Long, Optional<Product>> loader) {
+        Optional<Product> cached = products.get(id, Product.class);
+        if (cached.isPresent()) {
+            return cached.map(SyncProductCache::copy);
+        }
+        long seen = generation.get();
+        Optional<Product> loaded = loader.apply(id);
+        loaded.ifPresent(product -> store(product, seen));
+        return loaded;
+    }
+
+    @Override
+    public Optional<Product> findByName(String name, Function<String, Optional<Product>> loader) {
+        Optional<Product> cached = productNames.get(name, Long.class)
+                .flatMap(id -> products.get(id, Product.class))
+                .filter(product -> Objects.equals(product.getName(), name));
+        if (cached.isPresent()) {
+            return cached.map(SyncProductCache::copy);
+        }
+        long seen = generation.get();
+        Optional<Product> loaded = loader.apply(name);
+        loaded.ifPresent(product -> store(product, seen));
+        return loaded;
+    }
+
+    @Override
+    public void invalidate(Long id) {
+        generation.incrementAndGet();
+        products.invalidate(id);
+    }
+
+    private void store(Product product, long seen) {
+        products.put(product.getId(), copy(product));
+        productNames.put(product.getName(), product.getId());
+        if (generation.get() != seen) {
+            products.invalidate(product.getId());
+        }
+    }
+
+    private static Product copy(Product product) {
+        Product copy = new Product(product.getName(), product.getDescription(), product.getPrice());
+        copy.setId(product.getId());
+        copy.setVersion(product.getVersion());
+        copy.setLastModified(product.getLastModified());
+        return copy;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micronaut.core.type.Argument;
+import io.micronaut.core.type.Headers;
+import io.micronaut.core.type.MutableHeaders;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Consumes;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.body.MessageBodyHandler;
+import io.micronaut.http.codec.CodecException;
+import io.micronaut.serde.Deserializer;
+import io.micronaut.serde.LimitingStream;
+import io.micronaut.serde.SerdeRegistry;
+import io.micronaut.serde.Serializer;
+import io.micronaut.serde.config.SerdeConfiguration;
+import io.micronaut.serde.jackson.JacksonDecoder;
+import io.micronaut.serde.jackson.JacksonEncoder;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Reads and writes {@code application/cbor} bodies with the same Micronaut Serde (de)serializers that produce
+ * JSON, so {@code @Serdeable} types need nothing extra. Only the wire format differs: Jackson's CBOR
+ * generator writes {@link java.math.BigDecimal} values as decimal fractions (unscaled value and scale), so
+ * prices round-trip exactly.
+ */
+@Singleton
+@Produces(ProductMediaTypes.APPLICATION_CBOR)
+@Consumes(ProductMediaTypes.APPLICATION_CBOR)
+public class CborMessageBodyHandler<T> implements MessageBodyHandler<T> {
+
+    // The HTTP layer owns the streams
+    private static final CBORFactory FACTORY = CBORFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final SerdeRegistry serdeRegistry;
+    private final SerdeConfiguration serdeConfiguration;
+
+    public CborMessageBodyHandler(SerdeRegistry serdeRegistry, SerdeConfiguration serdeConfiguration) {
+        this.serdeRegistry = serdeRegistry;
+        this.serdeConfiguration = serdeConfiguration;
+    }
+
+    @Override
+    public T read(Argument<T> type, MediaType mediaType, Headers httpHeaders, InputStream inputStream) {
+        try (JsonParser parser = FACTORY.createParser(inputStream)) {
+            Deserializer.DecoderContext context = serdeRegistry.newDecoderContext(null);
+            Deserializer<? extends T> deserializer = context.findDeserializer(type).createSpecific(context, type);
+            return deserializer.deserializeNullable(
+                    JacksonDecoder.create(parser, LimitingStream.limitsFromConfiguration(serdeConfiguration)),
+                    context, type);
+        } catch (IOException e) {
+            throw new CodecException("Error decoding CBOR stream for type [" + type.getName() + "]: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void writeTo(Argument<T> type, MediaType mediaType, T object, MutableHeaders outgoingHeaders,
+                        OutputStream outputStream) {
+        outgoingHeaders.set(HttpHeaders.CONTENT_TYPE, mediaType);
+        try (JsonGenerator generator = FACTORY.createGenerator(outputStream)) {
+            Serializer.EncoderContext context = serdeRegistry.newEncoderContext(null);
+            Serializer<? super T> serializer = context.findSerializer(type).createSpecific(context, type);
+            serializer.serialize(
+                    JacksonEncoder.create(generator, LimitingStream.limitsFromConfiguration(serdeConfiguration)),
+                    context, type, object);
+        } catch (IOException e) {
+            throw new CodecException("Error encoding object [" + object + "] to CBOR: " + e.getMessage(), e);
+        }
+    }
+}
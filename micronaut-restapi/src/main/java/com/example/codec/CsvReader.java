@@ -0,0 +1,133 @@
+package com.example.codec;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time: fields separated by commas, quoted with {@code "} when they contain commas,
+ * quotes or line breaks, records ended by LF or CRLF. The input is read through a buffer rather than a character per
+ * call to the reader. At most {@code maxRecordLength} characters of a record are kept, so a single huge or
+ * unterminated record cannot exhaust memory; the rest of it is read and discarded, and {@link #isTooLong()} reports
+ * it.
+ */
+public final class CsvReader {
+
+    private static final int BYTE_ORDER_MARK = '\uFEFF';
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final int maxRecordLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+    private boolean tooLong;
+    private boolean started;
+    private int pushedBack = -2;
+
+    public CsvReader(Reader in, int maxRecordLength) {
+        this.in = in;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Returns the fields of the next record, or null at the end of the input.
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == BYTE_ORDER_MARK) {
+                c = read();
+            }
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        tooLong = false;
+        int length = 0;
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+            } else if (c == '"') {
+                quoted = true;
+                c = read();
+                continue;
+            } else if (c == ',') {
+                if (!tooLong) {
+                    fields.add(field.toString());
+                }
+                field.setLength(0);
+                c = read();
+                continue;
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    pushedBack = next;
+                }
+                break;
+            }
+            if (++length > maxRecordLength) {
+                tooLong = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Line on which the last record returned started, counting from 1.
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Whether the last record returned exceeded the maximum length; its fields are incomplete.
+     */
+    public boolean isTooLong() {
+        return tooLong;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack != -2) {
+            c = pushedBack;
+            pushedBack = -2;
+        } else {
+            if (position == limit) {
+                limit = in.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            c = buffer[position++];
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
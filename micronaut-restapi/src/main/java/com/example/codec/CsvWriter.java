@@ -0,0 +1,34 @@
+package com.example.codec;
+
+/**
+ * Appends RFC 4180 fields, quoting those that contain a comma, a quote or a line break.
+ */
+public final class CsvWriter {
+
+    private CsvWriter() {
+    }
+
+    public static void appendField(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.codec;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines ended by LF, as in NDJSON, keeping at most {@code maxLineLength} characters of each so that a single
+ * huge line cannot exhaust memory; the rest of it is read and discarded, and {@link #isTooLong()} reports it.
+ * Unlike {@link java.io.BufferedReader}, a lone CR does not end a line, and a trailing CR is kept.
+ */
+public final class LineReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final int maxLineLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder current = new StringBuilder();
+    private int position;
+    private int limit;
+    private long line;
+    private boolean tooLong;
+
+    public LineReader(Reader in, int maxLineLength) {
+        this.in = in;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Returns the next line without its terminator, or null at the end of the input.
+     */
+    public String readLine() throws IOException {
+        if (position == limit && !fill()) {
+            return null;
+        }
+        line++;
+        tooLong = false;
+        current.setLength(0);
+        while (position < limit || fill()) {
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(start, position);
+            if (position < limit) {
+                position++;
+                break;
+            }
+        }
+        return current.toString();
+    }
+
+    /**
+     * Number of the last line returned, counting from 1.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Whether the last line returned exceeded the maximum length and was cut short.
+     */
+    public boolean isTooLong() {
+        return tooLong;
+    }
+
+    private void append(int start, int end) {
+        int room = maxLineLength - current.length();
+        if (end - start > room) {
+            tooLong = true;
+            end = start + Math.max(room, 0);
+        }
+        current.append(buffer, start, end - start);
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.codec;
+
+import com.example.config.TransferConfiguration;
+import io.micronaut.core.type.Argument;
+import io.micronaut.core.type.Headers;
+import io.micronaut.core.type.MutableHeaders;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Consumes;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.body.MessageBodyHandler;
+import io.micronaut.http.codec.CodecException;
+import io.micronaut.json.JsonMapper;
+import jakarta.inject.Singleton;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes lists as {@code application/x-ndjson}: one JSON document per element, each followed by a
+ * newline. Clients can process the elements as the lines arrive instead of parsing one large array. Bodies are
+ * parsed one line at a time, and a line longer than {@code products.transfer.max-record-length} is rejected.
+ */
+@Singleton
+@Produces(ProductMediaTypes.APPLICATION_NDJSON)
+@Consumes(ProductMediaTypes.APPLICATION_NDJSON)
+public class NdjsonMessageBodyHandler<T> implements MessageBodyHandler<T> {
+
+    private final JsonMapper jsonMapper;
+    private final int maxLineLength;
+
+    public NdjsonMessageBodyHandler(JsonMapper jsonMapper, TransferConfiguration configuration) {
+        this.jsonMapper = jsonMapper;
+        this.maxLineLength = configuration.getMaxRecordLength();
+    }
+
+    @Override
+    public boolean isReadable(Argument<T> type, MediaType mediaType) {
+        return type.getType().isAssignableFrom(ArrayList.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read(Argument<T> type, MediaType mediaType, Headers httpHeaders, InputStream inputStream) {
+        Argument<?> elementType = elementType(type);
+        List<Object> elements = new ArrayList<>();
+        LineReader lines = new LineReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), maxLineLength);
+        try {
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                if (lines.isTooLong()) {
+                    throw new CodecException("NDJSON line " + lines.getLine() + " exceeds " + maxLineLength + " characters");
+                }
+                if (!line.isBlank()) {
+                    elements.add(jsonMapper.readValue(line, elementType));
+                }
+            }
+        } catch (IOException e) {
+            throw new CodecException("Error decoding NDJSON line " + lines.getLine() + " as [" + elementType.getName() + "]: " + e.getMessage(), e);
+        }
+        return (T) elements;
+    }
+
+    @Override
+    public boolean isWriteable(Argument<T> type, MediaType mediaType) {
+        return Iterable.class.isAssignableFrom(type.getType());
+    }
+
+    @Override
+    public void writeTo(Argument<T> type, MediaType mediaType, T object, MutableHeaders outgoingHeaders,
+                        OutputStream outputStream) {
+        outgoingHeaders.set(HttpHeaders.CONTENT_TYPE, mediaType);
+        Argument<Object> elementType = elementType(type);
+        // The mapper closes the stream after each value; the HTTP layer owns it
+        OutputStream line = new FilterOutputStream(outputStream) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            for (Object element : (Iterable<?>) object) {
+                jsonMapper.writeValue(line, elementType, element);
+                outputStream.write('\n');
+            }
+        } catch (IOException e) {
+            throw new CodecException("Error encoding NDJSON: " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Argument<Object> elementType(Argument<?> type) {
+        return (Argument<Object>) type.getFirstTypeVariable().orElse(Argument.OBJECT_ARGUMENT);
+    }
+}
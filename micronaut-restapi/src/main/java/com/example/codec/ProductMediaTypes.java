@@ -0,0 +1,19 @@
+package com.example.codec;
+
+/**
+ * Media types offered by the product endpoints in addition to {@code application/json}.
+ */
+public final class ProductMediaTypes {
+
+    /** Newline-delimited JSON: one JSON document per line, for lists of products. */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /** Comma-separated values (RFC 4180) with a header record, for bulk import and export. */
+    public static final String TEXT_CSV = "text/csv";
+
+    /** Concise Binary Object Representation (RFC 8949). */
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    private ProductMediaTypes() {
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.compression;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.http.netty.channel.ChannelPipelineCustomizer;
+import io.micronaut.http.server.netty.NettyServerCustomizer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponse;
+import jakarta.inject.Singleton;
+
+/**
+ * A gzip, deflate or zstd body is a different representation from the identity body, so it must not carry the same
+ * strong ETag (RFC 9110, section 8.8.3). Micronaut's compressor decides on the encoding after the controller has
+ * set the tag, so this Netty handler, which sees the response on its way out, makes the tag of every content-coded
+ * response weak. {@code If-None-Match} compares weakly and still matches it; {@code If-Match} never does.
+ */
+@Singleton
+public class ContentCodingETags implements BeanCreatedEventListener<NettyServerCustomizer.Registry> {
+
+    static final String HANDLER_NAME = "content-coding-etags";
+
+    private static final WeakETagHandler HANDLER = new WeakETagHandler();
+
+    @Override
+    public NettyServerCustomizer.Registry onCreated(BeanCreatedEvent<NettyServerCustomizer.Registry> event) {
+        NettyServerCustomizer.Registry registry = event.getBean();
+        registry.register(new Customizer(null));
+        return registry;
+    }
+
+    private record Customizer(Channel channel) implements NettyServerCustomizer {
+
+        @Override
+        public NettyServerCustomizer specializeForChannel(Channel channel, ChannelRole role) {
+            return new Customizer(channel);
+        }
+
+        @Override
+        public void onStreamPipelineBuilt() {
+            ChannelPipeline pipeline = channel.pipeline();
+            if (pipeline.get(ChannelPipelineCustomizer.HANDLER_MICRONAUT_INBOUND) != null
+                    && pipeline.get(HANDLER_NAME) == null) {
+                pipeline.addBefore(ChannelPipelineCustomizer.HANDLER_MICRONAUT_INBOUND, HANDLER_NAME, HANDLER);
+            }
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private static final class WeakETagHandler extends ChannelOutboundHandlerAdapter {
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            if (msg instanceof HttpResponse response) {
+                HttpHeaders headers = response.headers();
+                String etag = headers.get(HttpHeaderNames.ETAG);
+                if (etag != null && !etag.startsWith("W/") && headers.contains(HttpHeaderNames.CONTENT_ENCODING)) {
+                    headers.set(HttpHeaderNames.ETAG, "W/" + etag);
+                }
+            }
+            ctx.write(msg, promise);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.compression;
+
+import com.example.codec.ProductMediaTypes;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.server.netty.HttpCompressionStrategy;
+import io.micronaut.http.server.netty.configuration.NettyHttpServerConfiguration;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponse;
+import jakarta.inject.Singleton;
+
+import java.util.Set;
+
+/**
+ * Same rules as Micronaut's default strategy (text-based bodies of at least
+ * {@code micronaut.server.netty.compression-threshold} bytes), extended to the binary and streaming formats the
+ * product endpoints produce. Responses of unknown length, such as NDJSON streams, are always compressed.
+ */
+@Singleton
+@Replaces(HttpCompressionStrategy.class)
+public class ProductCompressionStrategy implements HttpCompressionStrategy {
+
+    private static final Set<String> COMPRESSIBLE = Set.of(
+            ProductMediaTypes.APPLICATION_CBOR,
+            ProductMediaTypes.APPLICATION_NDJSON);
+
+    private final int compressionThreshold;
+    private final int compressionLevel;
+    private final int maxZstdEncodeSize;
+
+    public ProductCompressionStrategy(NettyHttpServerConfiguration configuration) {
+        this.compressionThreshold = configuration.getCompressionThreshold();
+        this.compressionLevel = configuration.getCompressionLevel();
+        this.maxZstdEncodeSize = configuration.getMaxZstdEncodeSize();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return compressionThreshold >= 0;
+    }
+
+    @Override
+    public boolean shouldCompress(HttpResponse response) {
+        if (!isEnabled()) {
+            return false;
+        }
+        HttpHeaders headers = response.headers();
+        String contentType = headers.get(HttpHeaderNames.CONTENT_TYPE);
+        if (contentType == null || headers.contains(HttpHeaderNames.CONTENT_ENCODING)) {
+            return false;
+        }
+        Integer contentLength = headers.getInt(HttpHeaderNames.CONTENT_LENGTH);
+        if (contentLength != null && contentLength < compressionThreshold) {
+            return false;
+        }
+        return MediaType.isTextBased(contentType) || COMPRESSIBLE.contains(MediaType.of(contentType).getName());
+    }
+
+    @Override
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    @Override
+    public int getMaxZstdEncodeSize() {
+        return maxZstdEncodeSize;
+    }
+}
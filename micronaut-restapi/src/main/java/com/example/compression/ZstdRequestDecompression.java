@@ -0,0 +1,60 @@
+package com.example.compression;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.http.netty.channel.ChannelPipelineCustomizer;
+import io.micronaut.http.server.netty.NettyServerCustomizer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZstdDecoder;
+import io.netty.handler.codec.http.HttpContentDecoder;
+import jakarta.inject.Singleton;
+
+/**
+ * Micronaut decompresses gzip, deflate, br and snappy request bodies itself but passes zstd through untouched.
+ * This inserts a Netty decoder for {@code Content-Encoding: zstd} in front of Micronaut's inbound handler so that
+ * bulk uploads can use the same codecs as responses.
+ */
+@Singleton
+public class ZstdRequestDecompression implements BeanCreatedEventListener<NettyServerCustomizer.Registry> {
+
+    static final String HANDLER_NAME = "zstd-request-decompressor";
+
+    @Override
+    public NettyServerCustomizer.Registry onCreated(BeanCreatedEvent<NettyServerCustomizer.Registry> event) {
+        NettyServerCustomizer.Registry registry = event.getBean();
+        registry.register(new Customizer(null));
+        return registry;
+    }
+
+    private record Customizer(Channel channel) implements NettyServerCustomizer {
+
+        @Override
+        public NettyServerCustomizer specializeForChannel(Channel channel, ChannelRole role) {
+            return new Customizer(channel);
+        }
+
+        @Override
+        public void onStreamPipelineBuilt() {
+            ChannelPipeline pipeline = channel.pipeline();
+            if (pipeline.get(ChannelPipelineCustomizer.HANDLER_MICRONAUT_INBOUND) != null
+                    && pipeline.get(HANDLER_NAME) == null) {
+                pipeline.addBefore(ChannelPipelineCustomizer.HANDLER_MICRONAUT_INBOUND, HANDLER_NAME, new ZstdContentDecoder());
+            }
+        }
+    }
+
+    // Returning null leaves every other encoding to Micronaut
+    private static final class ZstdContentDecoder extends HttpContentDecoder {
+
+        @Override
+        protected EmbeddedChannel newContentDecoder(String contentEncoding) {
+            if (!"zstd".equalsIgnoreCase(contentEncoding.trim())) {
+                return null;
+            }
+            Channel parent = ctx.channel();
+            return new EmbeddedChannel(parent.id(), parent.metadata().hasDisconnect(), parent.config(), new ZstdDecoder());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
+
+import java.time.Duration;
+
+@ConfigurationProperties("products.admission")
+public class AdmissionConfiguration {
+
+    private boolean enabled = true;
+    @Nullable
+    private String clientHeader;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private Reads reads = new Reads();
+    private Writes writes = new Writes();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Header identifying the client for rate limiting, such as an API key; the remote address is used when unset
+     * or absent from the request.
+     */
+    @Nullable
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(@Nullable String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    /**
+     * Retry-After sent when the concurrency limit is reached.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Reads getReads() {
+        return reads;
+    }
+
+    public void setReads(Reads reads) {
+        this.reads = reads;
+    }
+
+    public Writes getWrites() {
+        return writes;
+    }
+
+    public void setWrites(Writes writes) {
+        this.writes = writes;
+    }
+
+    @ConfigurationProperties("reads")
+    public static class Reads extends Budget {
+
+        public Reads() {
+            super(100, 200, 40, 4, 200, Duration.ofMillis(250));
+        }
+    }
+
+    @ConfigurationProperties("writes")
+    public static class Writes extends Budget {
+
+        public Writes() {
+            super(20, 50, 10, 2, 40, Duration.ofMillis(500));
+        }
+    }
+
+    /**
+     * A per-client token bucket refilled at {@code rate} requests per second holding up to {@code burst} tokens,
+     * and a concurrency limit shared by all clients that adapts between {@code min-limit} and {@code max-limit}.
+     */
+    public abstract static class Budget {
+
+        private double rate;
+        private int burst;
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private Duration latencyThreshold;
+
+        protected Budget(double rate, int burst, int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+            this.rate = rate;
+            this.burst = burst;
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        /**
+         * Responses slower than this shrink the concurrency limit, as do 5xx responses.
+         */
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+    }
+}
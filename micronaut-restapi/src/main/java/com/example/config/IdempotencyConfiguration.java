@@ -0,0 +1,73 @@
+package com.example.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("products.idempotency")
+public class IdempotencyConfiguration {
+
+    public static final String STORE_MEMORY = "memory";
+    public static final String STORE_JDBC = "jdbc";
+
+    private String store = STORE_MEMORY;
+    private Duration ttl = Duration.ofHours(24);
+    private long maxEntries = 100_000;
+    private Duration waitTimeout = Duration.ofSeconds(10);
+    private Duration purgeInterval = Duration.ofMinutes(10);
+
+    /**
+     * Where responses are recorded: {@code memory} (per instance) or {@code jdbc} (shared by all instances).
+     */
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    /**
+     * How long a key is remembered after its first response.
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Bound on the in-memory store; the least recently used keys are evicted beyond it.
+     */
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * How long a duplicate waits for the first request with its key before answering 409.
+     */
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public void setWaitTimeout(Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * How often the JDBC store deletes expired keys.
+     */
+    public Duration getPurgeInterval() {
+        return purgeInterval;
+    }
+
+    public void setPurgeInterval(Duration purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+}
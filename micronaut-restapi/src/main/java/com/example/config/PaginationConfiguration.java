@@ -0,0 +1,42 @@
+package com.example.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+@ConfigurationProperties("products.pagination")
+public class PaginationConfiguration {
+
+    private int defaultLimit = 100;
+    private int maxLimit = 1000;
+    private int streamBatchSize = 500;
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public int getStreamBatchSize() {
+        return streamBatchSize;
+    }
+
+    public void setStreamBatchSize(int streamBatchSize) {
+        this.streamBatchSize = streamBatchSize;
+    }
+
+    public int resolveLimit(Integer requested) {
+        if (requested == null) {
+            return defaultLimit;
+        }
+        return Math.min(requested, maxLimit);
+    }
+}
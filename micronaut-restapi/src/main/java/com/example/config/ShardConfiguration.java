@@ -0,0 +1,66 @@
+package com.example.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("products.shards")
+public class ShardConfiguration {
+
+    public enum Strategy {
+        HASH,
+        RANGE
+    }
+
+    private List<String> datasources = List.of();
+    private Strategy strategy = Strategy.HASH;
+    private long rangeSize = 10_000_000;
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Names of the datasources holding the products table, in shard order. Neither the list nor its order may
+     * change once products have been written, as that moves ids to other shards.
+     */
+    public List<String> getDatasources() {
+        return datasources;
+    }
+
+    public void setDatasources(List<String> datasources) {
+        this.datasources = datasources;
+    }
+
+    /**
+     * {@code hash} spreads ids evenly over the shards; {@code range} puts {@code range-size} consecutive ids on
+     * each shard in turn, so new products all go to the same shard until it is full.
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Ids per shard with the {@code range} strategy; the last shard takes every id beyond.
+     */
+    public long getRangeSize() {
+        return rangeSize;
+    }
+
+    public void setRangeSize(long rangeSize) {
+        this.rangeSize = rangeSize;
+    }
+
+    /**
+     * How long a query sent to all shards waits for the slowest of them.
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
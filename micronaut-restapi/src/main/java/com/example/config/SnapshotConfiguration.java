@@ -0,0 +1,70 @@
+package com.example.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("products.snapshot")
+public class SnapshotConfiguration {
+
+    private boolean enabled = false;
+    private String directory = Path.of(System.getProperty("java.io.tmpdir"), "products-snapshot").toString();
+    private Duration refreshInterval = Duration.ofSeconds(1);
+    private Duration maxStaleness = Duration.ofSeconds(5);
+    private Duration maxAge = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Where the snapshot files are written; it should be on a local disk, as they are memory-mapped.
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * How often the snapshot is rebuilt while products have changed since the last build.
+     */
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * How long a page may be served from a snapshot that misses a change made through this instance. Beyond it,
+     * pages are read from the database until the next build.
+     */
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public void setMaxStaleness(Duration maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+
+    /**
+     * The oldest a snapshot may be served at, which bounds how long changes made by other instances, or outside
+     * the application, go unseen. Snapshots are rebuilt at half this age whether or not anything changed.
+     */
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("products.stats")
+public class StatsConfiguration {
+
+    private Duration cacheTtl = Duration.ofSeconds(5);
+    private int maxBuckets = 100;
+
+    /**
+     * How long aggregation results are reused; zero computes them on every request.
+     */
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.convert.format.ReadableBytes;
+
+@ConfigurationProperties("products.transfer")
+public class TransferConfiguration {
+
+    private int commitInterval = 1000;
+    private int maxRecordLength = 8192;
+    private int maxReportedErrors = 1000;
+    private int fetchSize = 500;
+    private int chunkSize = 65536;
+    private long maxImportSize = 64L * 1024 * 1024 * 1024;
+
+    /**
+     * Valid imported rows written per transaction.
+     */
+    public int getCommitInterval() {
+        return commitInterval;
+    }
+
+    public void setCommitInterval(int commitInterval) {
+        this.commitInterval = commitInterval;
+    }
+
+    /**
+     * Characters kept of one imported CSV record or NDJSON line; longer ones are skipped and reported. NDJSON request
+     * bodies with a longer line are rejected.
+     */
+    public int getMaxRecordLength() {
+        return maxRecordLength;
+    }
+
+    public void setMaxRecordLength(int maxRecordLength) {
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Rejected rows listed in the import report; further ones are only counted.
+     */
+    public int getMaxReportedErrors() {
+        return maxReportedErrors;
+    }
+
+    public void setMaxReportedErrors(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Rows the export cursor fetches per round trip.
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Bytes of encoded rows collected before the export writes them to the response.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Bytes accepted in one upload to {@code POST /products/import}, which is exempt from
+     * {@code micronaut.server.max-request-size}.
+     */
+    public long getMaxImportSize() {
+        return maxImportSize;
+    }
+
+    public void setMaxImportSize(@ReadableBytes long maxImportSize) {
+        this.maxImportSize = maxImportSize;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.controller;
+
+import com.example.config.TransferConfiguration;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.http.netty.body.BodySizeLimits;
+import io.micronaut.http.netty.channel.ChannelPipelineCustomizer;
+import io.micronaut.http.server.netty.NettyServerCustomizer;
+import io.micronaut.http.server.netty.configuration.NettyHttpServerConfiguration;
+import io.micronaut.http.server.netty.handler.PipeliningServerHandler;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import jakarta.inject.Singleton;
+
+/**
+ * Lets {@code POST /products/import} stream uploads up to {@code products.transfer.max-import-size} while every
+ * other request stays capped at {@code micronaut.server.max-request-size}. Micronaut applies one limit per
+ * connection and reads it when a request arrives, so this sets the limit for each request just before Micronaut
+ * sees it. Only HTTP/1.1 connections are covered; over HTTP/2 the import is held to the server-wide limit.
+ */
+@Singleton
+public class ImportSizeLimit implements BeanCreatedEventListener<NettyServerCustomizer.Registry> {
+
+    static final String HANDLER_NAME = "import-size-limit";
+    static final String IMPORT_PATH = "/products/import";
+
+    private final BodySizeLimits defaultLimits;
+    private final BodySizeLimits importLimits;
+
+    public ImportSizeLimit(NettyHttpServerConfiguration server, TransferConfiguration transfer) {
+        this.defaultLimits = new BodySizeLimits(server.getMaxRequestSize(), server.getMaxRequestBufferSize());
+        this.importLimits = new BodySizeLimits(transfer.getMaxImportSize(), server.getMaxRequestBufferSize());
+    }
+
+    @Override
+    public NettyServerCustomizer.Registry onCreated(BeanCreatedEvent<NettyServerCustomizer.Registry> event) {
+        NettyServerCustomizer.Registry registry = event.getBean();
+        registry.register(new Customizer(null));
+        return registry;
+    }
+
+    private final class Customizer implements NettyServerCustomizer {
+
+        private final Channel channel;
+
+        private Customizer(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public NettyServerCustomizer specializeForChannel(Channel channel, ChannelRole role) {
+            return new Customizer(channel);
+        }
+
+        @Override
+        public void onStreamPipelineBuilt() {
+            ChannelPipeline pipeline = channel.pipeline();
+            ChannelHandler inbound = pipeline.get(ChannelPipelineCustomizer.HANDLER_MICRONAUT_INBOUND);
+            if (inbound instanceof PipeliningServerHandler server && pipeline.get(HANDLER_NAME) == null) {
+                pipeline.addBefore(ChannelPipelineCustomizer.HANDLER_MICRONAUT_INBOUND, HANDLER_NAME,
+                        new RequestLimits(server));
+            }
+        }
+    }
+
+    // HTTP/1.1 requests on a connection are read one after the other, so the limit set for a request stays in place
+    // until its body has been read
+    private final class RequestLimits extends ChannelInboundHandlerAdapter {
+
+        private final PipeliningServerHandler server;
+
+        private RequestLimits(PipeliningServerHandler server) {
+            this.server = server;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof HttpRequest request) {
+                server.setBodySizeLimits(isImport(request) ? importLimits : defaultLimits);
+            }
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    private static boolean isImport(HttpRequest request) {
+        String uri = request.uri();
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        return request.method().equals(HttpMethod.POST) && path.equals(IMPORT_PATH);
+    }
+}
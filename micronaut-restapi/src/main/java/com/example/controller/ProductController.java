@@ -1,67 +1,442 @@
 package com.example.controller;
 
+import com.example.codec.ProductMediaTypes;
+import com.example.config.PaginationConfiguration;
+import com.example.config.StatsConfiguration;
+import com.example.idempotency.IdempotencyService;
 import com.example.model.Product;
-import com.example.repository.ProductRepository;
+import com.example.outbox.ProductChange;
+import com.example.outbox.ProductChangeFeed;
+import com.example.repository.ProductPriceStats;
+import com.example.repository.ProductReadRouter;
+import com.example.repository.ProductSpecifications;
+import com.example.repository.ProductStreamer;
+import com.example.repository.ProductSummary;
+import com.example.repository.ProductVersion;
+import com.example.service.BatchResult;
+import com.example.service.ImportReport;
+import com.example.service.ProductBatchService;
+import com.example.service.ProductExportService;
+import com.example.service.ProductImportService;
+import com.example.service.ProductPriceHistogram;
+import com.example.service.ProductService;
+import com.example.service.ProductStatsService;
+import com.example.service.TransferFormat;
+import com.example.snapshot.CatalogSnapshot;
+import com.example.snapshot.ProductSnapshots;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Consumes;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Delete;
 import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Header;
 import io.micronaut.http.annotation.Post;
+import io.micronaut.http.annotation.Produces;
 import io.micronaut.http.annotation.Put;
+import io.micronaut.http.annotation.QueryValue;
 import io.micronaut.http.annotation.Status;
-import jakarta.transaction.Transactional;
+import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.http.sse.Event;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import org.reactivestreams.Publisher;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Set;
 
 @Controller("/products")
+@Produces({MediaType.APPLICATION_JSON, ProductMediaTypes.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, ProductMediaTypes.APPLICATION_CBOR})
+@ExecuteOn("${products.executor:blocking}")
 public class ProductController {
 
-    private final ProductRepository productRepository;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String APPLICATION_NDJSON = ProductMediaTypes.APPLICATION_NDJSON;
+    // Clients and proxies may store reads but must revalidate them with the ETag before reuse
+    private static final String CACHE_CONTROL = "no-cache";
+    private static final List<String> SORTABLE = List.of("id", "name", "price");
+    private static final byte[] JSON_ARRAY = {'[', ']'};
+    private static final MediaType CBOR = MediaType.of(ProductMediaTypes.APPLICATION_CBOR);
+    private static final List<MediaType> PRODUCT_TYPES = List.of(MediaType.APPLICATION_JSON_TYPE, CBOR);
+    private static final List<MediaType> PAGE_TYPES = List.of(MediaType.APPLICATION_JSON_TYPE,
+            MediaType.of(APPLICATION_NDJSON), CBOR);
 
-    public ProductController(ProductRepository productRepository) {
-        this.productRepository = productRepository;
+    public enum NameMatch {
+        PREFIX, CONTAINS
     }
 
-    @Get
-    public List<Product> getAllProducts() {
-        return StreamSupport.stream(productRepository.findAll().spliterator(), false)
-                .collect(Collectors.toList());
+    private final ProductReadRouter productReads;
+    private final ProductService productService;
+    private final ProductStreamer productStreamer;
+    private final ProductBatchService productBatchService;
+    private final ProductChangeFeed productChangeFeed;
+    private final IdempotencyService idempotencyService;
+    private final ProductStatsService productStatsService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final PaginationConfiguration pagination;
+    private final StatsConfiguration statsConfiguration;
+    private final JsonMapper jsonMapper;
+    @Nullable
+    private final ProductSnapshots productSnapshots;
+
+    public ProductController(ProductReadRouter productReads,
+                             ProductService productService,
+                             ProductStreamer productStreamer,
+                             ProductBatchService productBatchService,
+                             ProductChangeFeed productChangeFeed,
+                             IdempotencyService idempotencyService,
+                             ProductStatsService productStatsService,
+                             ProductImportService productImportService,
+                             ProductExportService productExportService,
+                             PaginationConfiguration pagination,
+                             StatsConfiguration statsConfiguration,
+                             JsonMapper jsonMapper,
+                             @Nullable ProductSnapshots productSnapshots) {
+        this.productReads = productReads;
+        this.productService = productService;
+        this.productStreamer = productStreamer;
+        this.productBatchService = productBatchService;
+        this.productChangeFeed = productChangeFeed;
+        this.idempotencyService = idempotencyService;
+        this.productStatsService = productStatsService;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.pagination = pagination;
+        this.statsConfiguration = statsConfiguration;
+        this.jsonMapper = jsonMapper;
+        this.productSnapshots = productSnapshots;
+    }
+
+    // With ?fields=, only the selected fields are written; unless the description is among them, rows are read
+    // through the ProductSummary projection and the description column is never loaded. Full JSON pages come
+    // from the catalog snapshot when it is enabled and fresh enough.
+    @Get(produces = {MediaType.APPLICATION_JSON, APPLICATION_NDJSON, ProductMediaTypes.APPLICATION_CBOR})
+    public HttpResponse<?> getAllProducts(@QueryValue(defaultValue = "0") @PositiveOrZero long after,
+                                          @Nullable @QueryValue @Positive Integer limit,
+                                          @Nullable @QueryValue String fields,
+                                          HttpHeaders headers) {
+        Set<ProductField> selected = fields != null ? ProductField.parse(fields) : null;
+        int pageSize = pagination.resolveLimit(limit);
+        MediaType type = responseType(headers, PAGE_TYPES);
+        if (selected == null && productSnapshots != null && type.equals(MediaType.APPLICATION_JSON_TYPE)) {
+            CatalogSnapshot snapshot = productSnapshots.forPages();
+            if (snapshot != null) {
+                return snapshotPage(snapshot, after, pageSize, headers);
+            }
+        }
+        Pageable pageable = Pageable.from(0, pageSize);
+        String ifNoneMatch = headers.get(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // Validate against ids and versions only; full rows are loaded only when the page changed
+            List<ProductVersion> versions = productReads.queryByIdGreaterThanOrderById(after, pageable);
+            String matched = ProductETags.matchIfNoneMatch(ifNoneMatch, ProductETags.of(versions, type));
+            if (matched != null) {
+                return withPageHeaders(HttpResponse.status(HttpStatus.NOT_MODIFIED), matched, versions, pageSize);
+            }
+        }
+        if (selected != null && !selected.contains(ProductField.DESCRIPTION)) {
+            List<ProductSummary> page = productReads.readByIdGreaterThanOrderById(after, pageable);
+            List<ProductVersion> versions = page.stream()
+                    .map(summary -> new ProductVersion(summary.id(), summary.version()))
+                    .toList();
+            List<?> body = page.stream().map(summary -> SparseProduct.of(selected, summary)).toList();
+            return withPageHeaders(HttpResponse.ok(body).contentType(type), ProductETags.of(versions, type), versions,
+                    pageSize);
+        }
+        List<Product> page = productReads.findByIdGreaterThanOrderById(after, pageable);
+        List<ProductVersion> versions = page.stream()
+                .map(product -> new ProductVersion(product.getId(), product.getVersion()))
+                .toList();
+        List<?> body = selected != null
+                ? page.stream().map(product -> SparseProduct.of(selected, product)).toList()
+                : page;
+        return withPageHeaders(HttpResponse.ok(body).contentType(type), ProductETags.of(versions, type), versions,
+                pageSize);
+    }
+
+    @Get(value = "/search", produces = {MediaType.APPLICATION_JSON, APPLICATION_NDJSON, ProductMediaTypes.APPLICATION_CBOR})
+    public List<Product> searchProducts(@Nullable @QueryValue @Size(min = 1, max = 100) String name,
+                                       @QueryValue(defaultValue = "PREFIX") NameMatch match,
+                                       @Nullable @QueryValue @PositiveOrZero BigDecimal minPrice,
+                                       @Nullable @QueryValue @PositiveOrZero BigDecimal maxPrice,
+                                       @QueryValue(defaultValue = "id") String sort,
+                                       @Nullable @QueryValue @Positive Integer limit) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "minPrice must not be greater than maxPrice");
+        }
+        PredicateSpecification<Product> criteria = null;
+        if (name != null) {
+            criteria = match == NameMatch.PREFIX
+                    ? ProductSpecifications.nameStartsWith(name)
+                    : ProductSpecifications.nameContains(name);
+        }
+        if (minPrice != null) {
+            criteria = ProductSpecifications.and(criteria, ProductSpecifications.priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            criteria = ProductSpecifications.and(criteria, ProductSpecifications.priceAtMost(maxPrice));
+        }
+        Pageable pageable = Pageable.from(0, pagination.resolveLimit(limit), parseSort(sort)).withoutTotal();
+        return productReads.findAll(criteria, pageable).getContent();
+    }
+
+    @Get("/stats")
+    public ProductPriceStats getStats() {
+        return productStatsService.stats();
+    }
+
+    @Get("/histogram")
+    public ProductPriceHistogram getHistogram(@QueryValue(defaultValue = "10") @Positive int buckets) {
+        if (buckets > statsConfiguration.getMaxBuckets()) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "buckets must not be greater than " + statsConfiguration.getMaxBuckets());
+        }
+        return productStatsService.histogram(buckets);
+    }
+
+    @Get(value = "/stream", produces = APPLICATION_NDJSON)
+    public Publisher<byte[]> streamProducts(@QueryValue(defaultValue = "0") @PositiveOrZero long after) {
+        return productStreamer.streamAfter(after).map(this::toNdjsonLine);
+    }
+
+    // CSV or NDJSON per Accept, NDJSON when the client accepts either
+    @Get(value = "/export", produces = {APPLICATION_NDJSON, ProductMediaTypes.TEXT_CSV})
+    public HttpResponse<Publisher<byte[]>> exportProducts(@QueryValue(defaultValue = "0") @PositiveOrZero long after,
+                                                          HttpHeaders headers) {
+        TransferFormat format = headers.accept().stream()
+                .filter(accepted -> accepted.matches(TransferFormat.CSV.mediaType()))
+                .findFirst()
+                .map(accepted -> TransferFormat.CSV)
+                .orElse(TransferFormat.NDJSON);
+        return HttpResponse.<Publisher<byte[]>>ok(productExportService.export(after, format)).contentType(format.mediaType());
+    }
+
+    // Each event carries a batch of changes and the id of the last one, which an EventSource sends back as
+    // Last-Event-ID when it reconnects
+    @Get(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM)
+    public Publisher<Event<List<ProductChange>>> streamChanges(@QueryValue(defaultValue = "0") @PositiveOrZero long since,
+                                                               @Nullable @Header(LAST_EVENT_ID_HEADER) Long lastEventId) {
+        return productChangeFeed.batchesAfter(lastEventId != null ? lastEventId : since)
+                .map(batch -> Event.of(batch)
+                        .name("changes")
+                        .id(String.valueOf(batch.get(batch.size() - 1).getId())));
     }
 
     @Get("/{id}")
-    public HttpResponse<Product> getProduct(Long id) {
-        return productRepository.findById(id)
-                .map(HttpResponse::ok)
+    public HttpResponse<?> getProduct(Long id, @Nullable @QueryValue String fields, HttpHeaders headers) {
+        MediaType type = responseType(headers, PRODUCT_TYPES);
+        if (fields != null) {
+            // Projected from the cached product, so sparse reads are as cheap as full ones
+            Set<ProductField> selected = ProductField.parse(fields);
+            return productService.findById(id)
+                    .map(product -> conditionalResponse(SparseProduct.of(selected, product), product.getVersion(),
+                            product.getLastModified(), type, headers))
+                    .orElse(HttpResponse.notFound());
+        }
+        if (productSnapshots != null && type.equals(MediaType.APPLICATION_JSON_TYPE)) {
+            CatalogSnapshot snapshot = productSnapshots.forProduct(id);
+            if (snapshot != null) {
+                int position = snapshot.indexOf(id);
+                if (position < 0) {
+                    return HttpResponse.notFound();
+                }
+                return conditionalResponse(Unpooled.wrappedBuffer(snapshot.json(position)),
+                        snapshot.version(position), snapshot.lastModified(position), type, headers);
+            }
+        }
+        return productService.findById(id)
+                .map(product -> conditionalResponse(product, product.getVersion(), product.getLastModified(), type,
+                        headers))
                 .orElse(HttpResponse.notFound());
     }
 
+    // With an Idempotency-Key, a retry gets the response of the first request instead of creating another product
     @Post
-    @Status(HttpStatus.CREATED)
-    public Product addProduct(@Body @Valid Product product) {
-        return productRepository.save(product);
+    public HttpResponse<Product> addProduct(@Body @Valid Product product,
+                                            @Nullable @Header(IDEMPOTENCY_KEY_HEADER) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return HttpResponse.created(productService.create(product));
+        }
+        IdempotencyService.Result<Product> result = idempotencyService.execute(
+                idempotencyKey, product, Product.class, HttpStatus.CREATED, () -> productService.create(product));
+        MutableHttpResponse<Product> response = HttpResponse.<Product>status(result.status()).body(result.body());
+        if (result.replayed()) {
+            response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return response;
+    }
+
+    @Post(value = "/batch", consumes = {MediaType.APPLICATION_JSON, APPLICATION_NDJSON, ProductMediaTypes.APPLICATION_CBOR})
+    public BatchResult addProducts(@Body List<Product> products) {
+        return productBatchService.create(products);
+    }
+
+    @Post(value = "/import", consumes = {ProductMediaTypes.TEXT_CSV, APPLICATION_NDJSON}, produces = MediaType.APPLICATION_JSON)
+    public ImportReport importProducts(@Body InputStream body, @Header(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        TransferFormat format = contentType.matches(TransferFormat.CSV.mediaType()) ? TransferFormat.CSV : TransferFormat.NDJSON;
+        return productImportService.importProducts(body, format);
     }
 
     @Put("/{id}")
-    @Transactional
-    public HttpResponse<Product> updateProduct(Long id, @Body @Valid Product product) {
-        return productRepository.findById(id)
-                .map(existingProduct -> {
-                    existingProduct.setName(product.getName());
-                    existingProduct.setDescription(product.getDescription());
-                    existingProduct.setPrice(product.getPrice());
-                    return HttpResponse.ok(productRepository.save(existingProduct));
-                })
-                .orElse(HttpResponse.notFound());
+    public HttpResponse<Product> updateProduct(Long id,
+                                               @Body @Valid Product product,
+                                               @Nullable @Header(HttpHeaders.IF_MATCH) String ifMatch,
+                                               HttpHeaders headers) {
+        MediaType type = responseType(headers, PRODUCT_TYPES);
+        return productService.update(id, product, ProductETags.parseIfMatch(ifMatch))
+                .<HttpResponse<Product>>map(updated -> HttpResponse.ok(updated).contentType(type)
+                        .header(HttpHeaders.ETAG, ProductETags.of(updated.getVersion(), type)))
+                // If-Match: * asks for a current representation, which a missing product does not have
+                .orElseGet(() -> ProductETags.isWildcard(ifMatch)
+                        ? HttpResponse.status(HttpStatus.PRECONDITION_FAILED)
+                        : HttpResponse.notFound());
+    }
+
+    @Put(value = "/batch", consumes = {MediaType.APPLICATION_JSON, APPLICATION_NDJSON, ProductMediaTypes.APPLICATION_CBOR})
+    public BatchResult updateProducts(@Body List<Product> products) {
+        return productBatchService.update(products);
     }
 
     @Delete("/{id}")
     @Status(HttpStatus.NO_CONTENT)
     public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+        productService.delete(id);
+    }
+
+    @Delete("/batch")
+    public BatchResult deleteProducts(@Body List<Long> ids) {
+        return productBatchService.delete(ids);
+    }
+
+    // "price" or "price,desc"; id breaks ties so that results are stable
+    private static Sort parseSort(String sort) {
+        String[] parts = sort.split(",", 2);
+        String property = parts[0].trim();
+        if (!SORTABLE.contains(property)) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "Cannot sort by '" + property + "', expected one of " + SORTABLE);
+        }
+        boolean descending = parts.length > 1 && parts[1].trim().equalsIgnoreCase("desc");
+        Sort.Order order = descending ? Sort.Order.desc(property) : Sort.Order.asc(property);
+        return property.equals("id") ? Sort.of(order) : Sort.of(order, Sort.Order.asc("id"));
+    }
+
+    private static <T> MutableHttpResponse<T> conditionalResponse(T body, Long version, @Nullable Instant lastModified,
+                                                                  MediaType type, HttpHeaders headers) {
+        String etag = ProductETags.of(version, type);
+        String notModified = notModifiedTag(headers, etag, lastModified);
+        MutableHttpResponse<T> response = notModified != null
+                ? HttpResponse.status(HttpStatus.NOT_MODIFIED)
+                : HttpResponse.ok(body).contentType(type);
+        response.header(HttpHeaders.ETAG, notModified != null ? notModified : etag);
+        response.header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (lastModified != null) {
+            response.getHeaders().lastModified(lastModified.toEpochMilli());
+        }
+        return response;
+    }
+
+    // The tag a 304 carries, or null if the response is a 200. If-None-Match takes precedence over
+    // If-Modified-Since (RFC 9110, section 13.2.2).
+    @Nullable
+    private static String notModifiedTag(HttpHeaders headers, String etag, @Nullable Instant lastModified) {
+        String ifNoneMatch = headers.get(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return ProductETags.matchIfNoneMatch(ifNoneMatch, etag);
+        }
+        if (lastModified == null) {
+            return null;
+        }
+        return headers.findDate(HttpHeaders.IF_MODIFIED_SINCE)
+                .filter(since -> !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(since.toInstant()))
+                .map(since -> etag)
+                .orElse(null);
+    }
+
+    private static <T> MutableHttpResponse<T> withPageHeaders(MutableHttpResponse<T> response, String etag,
+                                                              List<ProductVersion> versions, int pageSize) {
+        Long lastId = versions.isEmpty() ? null : versions.get(versions.size() - 1).id();
+        return withPageHeaders(response, etag, versions.size(), lastId, pageSize);
+    }
+
+    private static <T> MutableHttpResponse<T> withPageHeaders(MutableHttpResponse<T> response, String etag,
+                                                              int size, @Nullable Long lastId, int pageSize) {
+        response.header(HttpHeaders.ETAG, etag);
+        response.header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (size == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(lastId));
+        }
+        return response;
+    }
+
+    // The records of a page are adjacent in the snapshot, so the body is that one slice of the mapped file between
+    // brackets, which Netty writes to the connection as it is
+    private static MutableHttpResponse<?> snapshotPage(CatalogSnapshot snapshot, long after, int pageSize,
+                                                       HttpHeaders headers) {
+        int from = snapshot.firstAfter(after);
+        int to = (int) Math.min((long) from + pageSize, snapshot.size());
+        String etag = ProductETags.of(snapshot, from, to);
+        String ifNoneMatch = headers.get(HttpHeaders.IF_NONE_MATCH);
+        String matched = ifNoneMatch != null ? ProductETags.matchIfNoneMatch(ifNoneMatch, etag) : null;
+        MutableHttpResponse<ByteBuf> response = matched != null
+                ? HttpResponse.status(HttpStatus.NOT_MODIFIED)
+                : HttpResponse.ok(Unpooled.wrappedBuffer(ByteBuffer.wrap(JSON_ARRAY, 0, 1),
+                        snapshot.records(from, to), ByteBuffer.wrap(JSON_ARRAY, 1, 1)))
+                        .contentType(MediaType.APPLICATION_JSON_TYPE);
+        return withPageHeaders(response, matched != null ? matched : etag, to - from,
+                to > from ? snapshot.id(to - 1) : null, pageSize);
+    }
+
+    // The type the body is written as, which its ETag names: the first accepted type the route produces, else JSON.
+    // Bodies from the snapshot are JSON already; other types are written from the database.
+    private static MediaType responseType(HttpHeaders headers, List<MediaType> produced) {
+        for (MediaType accepted : headers.accept()) {
+            for (MediaType type : produced) {
+                if (type.getName().equals(accepted.getName())) {
+                    return type;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    private byte[] toNdjsonLine(Product product) {
+        try {
+            byte[] json = jsonMapper.writeValueAsBytes(product);
+            byte[] line = Arrays.copyOf(json, json.length + 1);
+            line[json.length] = '\n';
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-} 
\ No newline at end of file
+}
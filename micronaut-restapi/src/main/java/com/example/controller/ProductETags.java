@@ -0,0 +1,126 @@
+package com.example.controller;
+
+import com.example.repository.ProductVersion;
+import com.example.snapshot.CatalogSnapshot;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.MediaType;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Strong entity tags. A product's tag is its version, e.g. {@code "3"}; a listing's tag is a hash of the ids
+ * and versions on the page, so it changes whenever a product on the page is created, updated or deleted. Tags of
+ * representations other than JSON carry their subtype, e.g. {@code "3-cbor"}. A content-coded body is another
+ * representation as well; {@code ContentCodingETags} makes its tag weak.
+ */
+final class ProductETags {
+
+    static final String WILDCARD = "*";
+
+    private ProductETags() {
+    }
+
+    static String of(Long version, MediaType type) {
+        return tag(String.valueOf(version), type);
+    }
+
+    static String of(List<ProductVersion> page, MediaType type) {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        for (ProductVersion product : page) {
+            buffer.clear();
+            buffer.putLong(product.id()).putLong(product.version() == null ? 0 : product.version());
+            digest.update(buffer.array());
+        }
+        return tag(digest, type);
+    }
+
+    /**
+     * The tag of the JSON page of products from position {@code from} up to {@code to} of the snapshot; the same as
+     * that of the page read from the database.
+     */
+    static String of(CatalogSnapshot snapshot, int from, int to) {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        for (int position = from; position < to; position++) {
+            buffer.clear();
+            buffer.putLong(snapshot.id(position)).putLong(snapshot.version(position));
+            digest.update(buffer.array());
+        }
+        return tag(digest, MediaType.APPLICATION_JSON_TYPE);
+    }
+
+    /**
+     * Evaluates an {@code If-None-Match} header against the current tag using weak comparison.
+     *
+     * @return the matching tag as the client sent it, weak if the client holds a content-coded body, so that the
+     * 304 names the stored response it validates; null if none matches
+     */
+    @Nullable
+    static String matchIfNoneMatch(String header, String etag) {
+        if (header.trim().equals(WILDCARD)) {
+            return etag;
+        }
+        for (String tag : header.split(",")) {
+            String trimmed = tag.trim();
+            if ((trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed).equals(etag)) {
+                return trimmed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses an {@code If-Match} header into the versions it accepts, from the tag of any representation. Returns
+     * {@code null} when any version is acceptable (no header or {@code *}). Weak or malformed tags never match, so
+     * they are skipped.
+     */
+    @Nullable
+    static Set<Long> parseIfMatch(@Nullable String header) {
+        if (header == null || header.isBlank() || isWildcard(header)) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String tag : header.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                String value = trimmed.substring(1, trimmed.length() - 1);
+                int subtype = value.indexOf('-');
+                try {
+                    versions.add(Long.parseLong(subtype < 0 ? value : value.substring(0, subtype)));
+                } catch (NumberFormatException ignored) {
+                    // not one of our tags
+                }
+            }
+        }
+        return versions;
+    }
+
+    static boolean isWildcard(@Nullable String header) {
+        return header != null && header.trim().equals(WILDCARD);
+    }
+
+    private static String tag(MessageDigest digest, MediaType type) {
+        return tag(HexFormat.of().formatHex(digest.digest(), 0, 16), type);
+    }
+
+    private static String tag(String value, MediaType type) {
+        return type.equals(MediaType.APPLICATION_JSON_TYPE)
+                ? "\"" + value + "\""
+                : "\"" + value + "-" + type.getSubtype() + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.controller;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Product properties a client can select with {@code ?fields=id,name,price}.
+ */
+public enum ProductField {
+    ID("id"), NAME("name"), DESCRIPTION("description"), PRICE("price"), VERSION("version");
+
+    private static final List<String> NAMES = Arrays.stream(values()).map(ProductField::property).toList();
+
+    private final String property;
+
+    ProductField(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public static Set<ProductField> parse(String fields) {
+        Set<ProductField> selected = EnumSet.noneOf(ProductField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            ProductField field = Arrays.stream(values())
+                    .filter(candidate -> candidate.property.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new HttpStatusException(HttpStatus.BAD_REQUEST,
+                            "Unknown field '" + trimmed + "', expected some of " + NAMES));
+            selected.add(field);
+        }
+        if (selected.isEmpty()) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "fields must name at least one of " + NAMES);
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.controller;
+
+import com.example.model.Product;
+import com.example.repository.ProductSummary;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * The fields of a product selected with {@code ?fields=}; the others are null and left out of the response.
+ */
+@Serdeable
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SparseProduct(@Nullable Long id,
+                            @Nullable String name,
+                            @Nullable String description,
+                            @Nullable BigDecimal price,
+                            @Nullable Long version) {
+
+    static SparseProduct of(Set<ProductField> fields, Product product) {
+        return new SparseProduct(
+                fields.contains(ProductField.ID) ? product.getId() : null,
+                fields.contains(ProductField.NAME) ? product.getName() : null,
+                fields.contains(ProductField.DESCRIPTION) ? product.getDescription() : null,
+                fields.contains(ProductField.PRICE) ? product.getPrice() : null,
+                fields.contains(ProductField.VERSION) ? product.getVersion() : null);
+    }
+
+    static SparseProduct of(Set<ProductField> fields, ProductSummary summary) {
+        return new SparseProduct(
+                fields.contains(ProductField.ID) ? summary.id() : null,
+                fields.contains(ProductField.NAME) ? summary.name() : null,
+                null,
+                fields.contains(ProductField.PRICE) ? summary.price() : null,
+                fields.contains(ProductField.VERSION) ? summary.version() : null);
+    }
+}
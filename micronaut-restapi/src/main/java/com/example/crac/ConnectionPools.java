@@ -0,0 +1,108 @@
+package com.example.crac;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Suspends the Hikari pools of all datasources and closes their connections, and resumes them. While suspended,
+ * callers asking for a connection wait; connections in use are closed when they are returned. Requires
+ * {@code datasources.<name>.allow-pool-suspension=true}.
+ */
+@Singleton
+public class ConnectionPools {
+
+    static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final List<DataSource> dataSources;
+    private final Duration closeTimeout;
+
+    @Inject
+    public ConnectionPools(List<DataSource> dataSources) {
+        this(dataSources, CLOSE_TIMEOUT);
+    }
+
+    ConnectionPools(List<DataSource> dataSources, Duration closeTimeout) {
+        this.dataSources = dataSources;
+        this.closeTimeout = closeTimeout;
+    }
+
+    /**
+     * Leaves every pool resumed if it fails.
+     *
+     * @throws IllegalStateException if a pool is not suspendable or its connections are still open after
+     *                               {@link #CLOSE_TIMEOUT}
+     */
+    public void suspend() throws InterruptedException {
+        List<HikariDataSource> pools = pools();
+        for (HikariDataSource pool : pools) {
+            if (!pool.isAllowPoolSuspension()) {
+                throw new IllegalStateException("Pool " + pool.getPoolName() + " is not suspendable, set allow-pool-suspension=true");
+            }
+        }
+        List<HikariDataSource> suspended = new ArrayList<>();
+        try {
+            for (HikariDataSource pool : pools) {
+                HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+                bean.suspendPool();
+                suspended.add(pool);
+                bean.softEvictConnections();
+            }
+            awaitClosed(pools);
+        } catch (InterruptedException | RuntimeException e) {
+            // A pool left suspended would keep every caller waiting for a connection
+            resume(suspended);
+            throw e;
+        }
+    }
+
+    public void resume() {
+        resume(pools());
+    }
+
+    private void awaitClosed(List<HikariDataSource> pools) throws InterruptedException {
+        long deadline = System.nanoTime() + closeTimeout.toNanos();
+        for (HikariDataSource pool : pools) {
+            while (pool.getHikariPoolMXBean().getTotalConnections() > 0) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException("Pool " + pool.getPoolName() + " still has "
+                            + pool.getHikariPoolMXBean().getTotalConnections() + " open connections");
+                }
+                // Connections the pool was still adding when it was suspended only join it afterwards
+                pool.getHikariPoolMXBean().softEvictConnections();
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static void resume(List<HikariDataSource> pools) {
+        for (HikariDataSource pool : pools) {
+            pool.getHikariPoolMXBean().resumePool();
+        }
+    }
+
+    // Started Hikari pools behind the (possibly transaction-aware) datasource beans
+    private List<HikariDataSource> pools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (DataSource dataSource : dataSources) {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+                    if (pool.getHikariPoolMXBean() != null) {
+                        pools.add(pool);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return pools;
+    }
+}
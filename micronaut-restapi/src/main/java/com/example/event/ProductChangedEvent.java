@@ -0,0 +1,8 @@
+package com.example.event;
+
+public record ProductChangedEvent(Long id, Type type) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.idempotency;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+
+/**
+ * A recorded response in the JDBC idempotency store; expired rows are purged by {@link JdbcIdempotencyStore}. A row
+ * without a body is a claimed key whose request is still running in the transaction that inserted it.
+ */
+@Serdeable
+@Entity(name = "idempotency_keys")
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = IdempotencyService.MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    @NotNull
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    private int status;
+
+    @Lob
+    @Nullable
+    private String body;
+
+    @NotNull
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @NotNull
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    protected IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String idempotencyKey, String requestHash, int status, @Nullable String body,
+                             Instant createdAt, Instant expiresAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.status = status;
+        this.body = body;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public static IdempotencyRecord of(String idempotencyKey, IdempotentResponse response, Instant expiresAt) {
+        return new IdempotencyRecord(idempotencyKey, response.requestHash(), response.status(), response.body(),
+                response.createdAt(), expiresAt);
+    }
+
+    public IdempotentResponse toResponse() {
+        return new IdempotentResponse(requestHash, status, body, createdAt);
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    @Nullable
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(@Nullable String body) {
+        this.body = body;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
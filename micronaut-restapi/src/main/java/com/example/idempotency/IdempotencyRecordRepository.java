@@ -0,0 +1,28 @@
+package com.example.idempotency;
+
+import com.example.config.IdempotencyConfiguration;
+import com.example.metrics.RepositoryTimed;
+import com.example.repository.DataRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.repository.CrudRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@DataRepository
+@RepositoryTimed
+@Requires(property = "products.idempotency.store", value = IdempotencyConfiguration.STORE_JDBC)
+public interface IdempotencyRecordRepository extends CrudRepository<IdempotencyRecord, String> {
+
+    Optional<IdempotencyRecord> findByIdempotencyKeyAndExpiresAtGreaterThan(String idempotencyKey, Instant now);
+
+    int deleteByExpiresAtLessThan(Instant now);
+
+    int deleteByIdempotencyKeyAndExpiresAtLessThan(String idempotencyKey, Instant now);
+
+    // Native, so that the row is inserted at once rather than when the session is flushed
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, request_hash, status, created_at, expires_at) "
+            + "VALUES (:idempotencyKey, :requestHash, 0, :createdAt, :expiresAt)", nativeQuery = true)
+    void insertPending(String idempotencyKey, String requestHash, Instant createdAt, Instant expiresAt);
+}
@@ -0,0 +1,228 @@
+package com.example.idempotency;
+
+import com.example.config.IdempotencyConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.transaction.TransactionOperations;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}. The key is claimed in the {@link IdempotencyStore}, the
+ * request run and its response recorded in one transaction, and the response is replayed for later requests with the
+ * same key; a request that fails rolls back its claim, so it can be retried. A duplicate arriving while the first
+ * request is still running waits for its outcome instead of running alongside it: on the same instance it waits for
+ * the first request directly, on another one for the claim to commit. Reusing a key for a different request body is
+ * rejected with 422.
+ * <p>
+ * Published meters: {@code products.idempotency.requests} tagged
+ * {@code result=executed|replayed|waited|mismatch|conflict} and the {@code products.idempotency.in-flight} gauge.
+ */
+@Singleton
+public class IdempotencyService {
+
+    public static final String REQUESTS_METRIC = "products.idempotency.requests";
+    public static final String IN_FLIGHT_METRIC = "products.idempotency.in-flight";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+    /**
+     * A response body with its status, and whether it was replayed from an earlier request.
+     */
+    public record Result<T>(T body, HttpStatus status, boolean replayed) {
+    }
+
+    private final IdempotencyStore store;
+    private final TransactionOperations<?> transactionOperations;
+    private final JsonMapper jsonMapper;
+    private final long waitTimeoutNanos;
+    private final Map<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter waited;
+    private final Counter mismatched;
+    private final Counter conflicted;
+
+    public IdempotencyService(IdempotencyStore store,
+                              TransactionOperations<?> transactionOperations,
+                              JsonMapper jsonMapper,
+                              IdempotencyConfiguration configuration,
+                              MeterRegistry meterRegistry) {
+        this.store = store;
+        this.transactionOperations = transactionOperations;
+        this.jsonMapper = jsonMapper;
+        this.waitTimeoutNanos = configuration.getWaitTimeout().toNanos();
+        this.executed = requests(meterRegistry, "executed");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.waited = requests(meterRegistry, "waited");
+        this.mismatched = requests(meterRegistry, "mismatch");
+        this.conflicted = requests(meterRegistry, "conflict");
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, Map::size)
+                .description("Requests with an Idempotency-Key currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} unless a response is already recorded for {@code key}.
+     *
+     * @param request the request body, whose fingerprint must match the one recorded with the key
+     * @param status  the status of a successful response
+     * @throws HttpStatusException 400 for an invalid key, 422 if the key was used for a different request, 409 if
+     *                             the first request with the key is still running after the wait timeout
+     */
+    public <T> Result<T> execute(String key, Object request, Class<T> type, HttpStatus status, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(request);
+        boolean held = false;
+        long deadline = 0;
+        while (true) {
+            Optional<IdempotentResponse> recorded = store.find(key);
+            if (recorded.isPresent()) {
+                return replay(recorded.get(), requestHash, type, held ? waited : replayed);
+            }
+            CompletableFuture<IdempotentResponse> running = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> first = inFlight.putIfAbsent(key, running);
+            if (first != null) {
+                Optional<IdempotentResponse> outcome = await(first);
+                if (outcome.isPresent()) {
+                    return replay(outcome.get(), requestHash, type, waited);
+                }
+                // The first request failed, so this one gets to run
+                continue;
+            }
+            Executed<T> result;
+            try {
+                result = transactionOperations.executeWrite(transaction -> {
+                    // Recorded between the lookup above and taking the key, or held by a request on another instance
+                    if (!store.claim(key, requestHash)) {
+                        throw new KeyHeldException();
+                    }
+                    T body = action.get();
+                    IdempotentResponse response = new IdempotentResponse(requestHash, status.getCode(), toJson(body), Instant.now());
+                    store.complete(key, response);
+                    return new Executed<>(body, response);
+                });
+            } catch (KeyHeldException e) {
+                running.completeExceptionally(e);
+                // The holder has usually committed by the time the claim fails; otherwise poll until it has
+                if (!held) {
+                    held = true;
+                    deadline = System.nanoTime() + waitTimeoutNanos;
+                } else if (System.nanoTime() - deadline > 0) {
+                    conflicted.increment();
+                    throw new HttpStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+                } else {
+                    pause();
+                }
+                continue;
+            } catch (RuntimeException e) {
+                running.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, running);
+            }
+            // Only once committed, so that a request waiting on this instance never replays a rolled back response
+            running.complete(result.response());
+            executed.increment();
+            return new Result<>(result.body(), status, false);
+        }
+    }
+
+    private record Executed<T>(T body, IdempotentResponse response) {
+    }
+
+    // Rolls back the transaction of a request whose key could not be claimed
+    private static final class KeyHeldException extends RuntimeException {
+
+        private KeyHeldException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private <T> Result<T> replay(IdempotentResponse response, String requestHash, Class<T> type, Counter result) {
+        if (!response.requestHash().equals(requestHash)) {
+            mismatched.increment();
+            throw new HttpStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        result.increment();
+        try {
+            return new Result<>(jsonMapper.readValue(response.body(), type), HttpStatus.valueOf(response.status()), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Empty if the first request failed
+    private Optional<IdempotentResponse> await(CompletableFuture<IdempotentResponse> first) {
+        try {
+            return Optional.of(first.get(waitTimeoutNanos, TimeUnit.NANOSECONDS));
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        } catch (TimeoutException e) {
+            conflicted.increment();
+            throw new HttpStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for a request with this Idempotency-Key");
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(POLL_INTERVAL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for a request with this Idempotency-Key");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jsonMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return jsonMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(REQUESTS_METRIC)
+                .description("Requests with an Idempotency-Key, by how they were answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
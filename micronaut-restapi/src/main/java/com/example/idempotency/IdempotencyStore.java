@@ -0,0 +1,26 @@
+package com.example.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Records the first response to each idempotency key until it expires. {@link IdempotencyService} claims a key and
+ * records its response in the transaction of the request, so a store in the same database commits or rolls back both
+ * with the request. Implementations must be thread-safe.
+ */
+public interface IdempotencyStore {
+
+    Optional<IdempotentResponse> find(String key);
+
+    /**
+     * Reserves {@code key} for a request that is about to run. Within an instance {@link IdempotencyService} only lets
+     * one request per key get here; a store shared by several instances must make the claims of the others fail.
+     *
+     * @return false if a response is already recorded for the key, or another transaction holds it
+     */
+    boolean claim(String key, String requestHash);
+
+    /**
+     * Records the response to a claimed key.
+     */
+    void complete(String key, IdempotentResponse response);
+}
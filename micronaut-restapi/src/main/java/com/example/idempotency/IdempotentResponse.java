@@ -0,0 +1,14 @@
+package com.example.idempotency;
+
+import java.time.Instant;
+
+/**
+ * The response recorded for an idempotency key.
+ *
+ * @param requestHash fingerprint of the request body, to detect a key reused for a different request
+ * @param status      HTTP status of the response
+ * @param body        JSON body of the response
+ * @param createdAt   when the response was recorded
+ */
+public record IdempotentResponse(String requestHash, int status, String body, Instant createdAt) {
+}
@@ -0,0 +1,63 @@
+package com.example.idempotency;
+
+import com.example.config.IdempotencyConfiguration;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import jakarta.inject.Singleton;
+
+import java.util.Optional;
+
+/**
+ * Keeps recorded responses in a bounded Caffeine cache that forgets keys after the TTL. Each instance has its own
+ * store, so retries must reach the same instance to be deduplicated.
+ */
+@Singleton
+@Requires(property = "products.idempotency.store", value = IdempotencyConfiguration.STORE_MEMORY,
+        defaultValue = IdempotencyConfiguration.STORE_MEMORY)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, IdempotentResponse> responses;
+    private final TransactionOperations<?> transactionOperations;
+
+    public InMemoryIdempotencyStore(IdempotencyConfiguration configuration,
+                                    MeterRegistry meterRegistry,
+                                    TransactionOperations<?> transactionOperations) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(configuration.getMaxEntries())
+                .expireAfterWrite(configuration.getTtl())
+                .recordStats()
+                .build();
+        this.transactionOperations = transactionOperations;
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency-keys");
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    // IdempotencyService already keeps a second request with the key on this instance from running
+    @Override
+    public boolean claim(String key, String requestHash) {
+        return responses.getIfPresent(key) == null;
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        // The cache does not roll back, so a request whose commit fails must not leave its response behind
+        transactionOperations.findTransactionStatus().ifPresentOrElse(
+                status -> status.registerSynchronization(new TransactionSynchronization() {
+
+                    @Override
+                    public void afterCommit() {
+                        responses.put(key, response);
+                    }
+                }),
+                () -> responses.put(key, response));
+    }
+}
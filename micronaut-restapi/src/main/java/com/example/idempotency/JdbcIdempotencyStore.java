@@ -0,0 +1,71 @@
+package com.example.idempotency;
+
+import com.example.config.IdempotencyConfiguration;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps recorded responses in the {@code idempotency_keys} table, so a retry is recognised whichever instance it
+ * reaches. A key is claimed by inserting its row without a body in the transaction of the request, and the response
+ * is written into that row before the transaction commits. The primary key makes a second claim wait for that
+ * transaction and fail once it commits, so a duplicate on another instance never runs. Expired rows are ignored on
+ * lookup and deleted every {@code products.idempotency.purge-interval}.
+ */
+@Singleton
+@Requires(property = "products.idempotency.store", value = IdempotencyConfiguration.STORE_JDBC)
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcIdempotencyStore.class);
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final Duration ttl;
+
+    public JdbcIdempotencyStore(IdempotencyRecordRepository recordRepository, IdempotencyConfiguration configuration) {
+        this.recordRepository = recordRepository;
+        this.ttl = configuration.getTtl();
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return recordRepository.findByIdempotencyKeyAndExpiresAtGreaterThan(key, Instant.now())
+                .filter(record -> record.getBody() != null)
+                .map(IdempotencyRecord::toResponse);
+    }
+
+    @Override
+    public boolean claim(String key, String requestHash) {
+        Instant now = Instant.now();
+        try {
+            // An expired row that has not been purged yet would keep the key from being claimed
+            recordRepository.deleteByIdempotencyKeyAndExpiresAtLessThan(key, now);
+            recordRepository.insertPending(key, requestHash, now, now.plus(ttl));
+            return true;
+        } catch (DataAccessException | PersistenceException e) {
+            // Recorded by another request, or still held by its transaction after the lock timeout
+            LOG.debug("Idempotency key {} is held by another request", key, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        recordRepository.update(IdempotencyRecord.of(key, response, response.createdAt().plus(ttl)));
+    }
+
+    @Scheduled(fixedDelay = "${products.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        int purged = recordRepository.deleteByExpiresAtLessThan(Instant.now());
+        if (purged > 0) {
+            LOG.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
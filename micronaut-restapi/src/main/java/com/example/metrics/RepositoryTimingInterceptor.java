@@ -0,0 +1,66 @@
+package com.example.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.aop.InterceptorBean;
+import io.micronaut.aop.MethodInterceptor;
+import io.micronaut.aop.MethodInvocationContext;
+import jakarta.inject.Singleton;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Singleton
+@InterceptorBean(RepositoryTimed.class)
+public class RepositoryTimingInterceptor implements MethodInterceptor<Object, Object> {
+
+    public static final String METRIC = "repository.invocations";
+
+    private final MeterRegistry meterRegistry;
+    // Building a timer registers its percentile histograms, so each one is built on its first use only
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public RepositoryTimingInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(MethodInvocationContext<Object, Object> context) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return context.proceed();
+        } catch (RuntimeException e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(timer(context, exception));
+        }
+    }
+
+    private Timer timer(MethodInvocationContext<Object, Object> context, String exception) {
+        TimerKey key = new TimerKey(context.getTarget().getClass(), context.getMethodName(), exception);
+        return timers.computeIfAbsent(key, k -> Timer.builder(METRIC)
+                .description("Time spent in repository methods")
+                .tag("repository", repositoryName(context))
+                .tag("method", k.method())
+                .tag("exception", k.exception())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    // Inherited methods such as save or findById are declared on CrudRepository, so name the
+    // annotated repository interface the target implements instead
+    private static String repositoryName(MethodInvocationContext<Object, Object> context) {
+        for (Class<?> type : context.getTarget().getClass().getInterfaces()) {
+            if (type.isAnnotationPresent(RepositoryTimed.class)) {
+                return type.getSimpleName();
+            }
+        }
+        return context.getDeclaringType().getSimpleName();
+    }
+
+    private record TimerKey(Class<?> target, String method, String exception) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.outbox;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Turns values of {@code product_changes_seq} into change ids. The sequence steps by {@value #BLOCK_SIZE}: every
+ * value drawn reserves itself and the {@value #BLOCK_SIZE} - 1 ids below it, so one round trip covers
+ * {@value #BLOCK_SIZE} changes. A block serves only the transaction that drew it and the ids it does not need are
+ * dropped. Kept for later transactions, it would hand out ids below the ones other instances have written since,
+ * and the change feed, which resumes after the last id it saw, would skip them.
+ */
+public final class ChangeIds {
+
+    // INCREMENT BY of product_changes_seq, see V2__create_product_changes.sql
+    public static final int BLOCK_SIZE = 50;
+
+    private ChangeIds() {
+    }
+
+    /**
+     * @param nextValue draws the next value of {@code product_changes_seq}
+     * @return {@code count} ids in ascending order
+     */
+    public static long[] allocate(int count, LongSupplier nextValue) {
+        long[] ids = new long[count];
+        int i = 0;
+        while (i < count) {
+            long last = nextValue.getAsLong();
+            // The sequence starts at 1, whose block would reach below it
+            for (long id = Math.max(last - BLOCK_SIZE + 1, 1); id <= last && i < count; id++) {
+                ids[i++] = id;
+            }
+        }
+        return ids;
+    }
+}
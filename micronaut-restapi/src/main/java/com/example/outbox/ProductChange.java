@@ -0,0 +1,81 @@
+package com.example.outbox;
+
+import com.example.event.ProductChangedEvent;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+
+/**
+ * One row of the product change outbox. Ids are drawn by the writer just before its transaction commits, through
+ * {@link ChangeIds}, so that they follow the order in which changes are written across instances; consumers resume
+ * from the last id they processed. Each shard has an outbox of its own, whose ids come from the same sequence in
+ * the default datasource.
+ */
+@Serdeable
+@Entity(name = "product_changes")
+@Table(name = "product_changes")
+public class ProductChange {
+
+    @Id
+    private Long id;
+
+    @NotNull
+    @Column(name = "product_id")
+    private Long productId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private ProductChangedEvent.Type type;
+
+    @NotNull
+    @Column(name = "changed_at")
+    private Instant changedAt;
+
+    protected ProductChange() {
+    }
+
+    public ProductChange(Long productId, ProductChangedEvent.Type type, Instant changedAt) {
+        this.productId = productId;
+        this.type = type;
+        this.changedAt = changedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public ProductChangedEvent.Type getType() {
+        return type;
+    }
+
+    public void setType(ProductChangedEvent.Type type) {
+        this.type = type;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.outbox;
+
+import com.example.config.ChangeFeedConfiguration;
+import com.example.repository.ProductStore;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tails the outbox of the {@link ProductStore} in id order, one batch of up to {@code products.changes.batch-size}
+ * changes at a time; with sharded products, the outboxes of all shards are merged. A full batch is followed
+ * immediately by the next; otherwise the outbox is polled again after {@code products.changes.poll-interval}. The
+ * outbox is only read on demand, so a slow consumer holds back polling rather than buffering changes.
+ * <p>
+ * Concurrent transactions can commit in a different order than their change ids were drawn. Changes younger than
+ * {@code products.changes.settle-time} are therefore left for a later poll, which has to exceed the longest
+ * product write transaction.
+ */
+@Singleton
+public class ProductChangeFeed {
+
+    private final ProductStore productStore;
+    private final ChangeFeedConfiguration configuration;
+    private final Scheduler scheduler;
+
+    public ProductChangeFeed(ProductStore productStore,
+                             ChangeFeedConfiguration configuration,
+                             @Named(TaskExecutors.BLOCKING) ExecutorService executorService) {
+        this.productStore = productStore;
+        this.configuration = configuration;
+        this.scheduler = Schedulers.fromExecutorService(executorService);
+    }
+
+    public Flux<List<ProductChange>> batchesAfter(long since) {
+        int batchSize = configuration.getBatchSize();
+        AtomicLong cursor = new AtomicLong(since);
+        AtomicInteger lastSize = new AtomicInteger();
+        return Mono.fromCallable(() -> productStore.findChangesAfter(
+                        cursor.get(), Instant.now().minus(configuration.getSettleTime()), Pageable.from(0, batchSize)))
+                .subscribeOn(scheduler)
+                .doOnNext(batch -> {
+                    lastSize.set(batch.size());
+                    if (!batch.isEmpty()) {
+                        cursor.set(batch.get(batch.size() - 1).getId());
+                    }
+                })
+                .repeatWhen(polls -> polls.concatMap(poll -> lastSize.get() == batchSize
+                        ? Mono.just(poll)
+                        : Mono.delay(configuration.getPollInterval())))
+                .filter(batch -> !batch.isEmpty());
+    }
+}
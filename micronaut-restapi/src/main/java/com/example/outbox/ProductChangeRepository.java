@@ -0,0 +1,23 @@
+package com.example.outbox;
+
+import com.example.metrics.RepositoryTimed;
+import com.example.repository.DataRepository;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.repository.CrudRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+@DataRepository
+@RepositoryTimed
+public interface ProductChangeRepository extends CrudRepository<ProductChange, Long> {
+
+    /**
+     * @return the next value of {@code product_changes_seq}, see {@link ChangeIds}
+     */
+    @Query(value = "SELECT product_changes_seq.NEXTVAL FROM dual", nativeQuery = true)
+    long nextIdBlock();
+
+    List<ProductChange> findByIdGreaterThanAndChangedAtLessThanOrderById(Long id, Instant changedAt, Pageable pageable);
+}
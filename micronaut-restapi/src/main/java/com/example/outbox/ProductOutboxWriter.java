@@ -0,0 +1,76 @@
+package com.example.outbox;
+
+import com.example.event.ProductChangedEvent;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import jakarta.inject.Singleton;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes every product change to the outbox in the transaction that made it, just before that transaction
+ * commits, so the outbox holds exactly the committed changes. The changes of a transaction are collected and
+ * inserted together, so that a batch or an import chunk costs one batched insert and a sequence round trip per
+ * {@value ChangeIds#BLOCK_SIZE} changes. Sharded products are not written in that transaction; each shard records
+ * their changes itself.
+ */
+@Singleton
+@Requires(missingProperty = "products.shards.datasources")
+public class ProductOutboxWriter {
+
+    private final ProductChangeRepository changeRepository;
+    private final TransactionOperations<?> transactionOperations;
+    private final Map<TransactionStatus<?>, List<ProductChangedEvent>> pending = new ConcurrentHashMap<>();
+
+    public ProductOutboxWriter(ProductChangeRepository changeRepository,
+                               TransactionOperations<?> transactionOperations) {
+        this.changeRepository = changeRepository;
+        this.transactionOperations = transactionOperations;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        // Outside a transaction nothing is committed, so there is nothing to record
+        transactionOperations.findTransactionStatus()
+                .ifPresent(status -> pending.computeIfAbsent(status, this::collect).add(event));
+    }
+
+    private List<ProductChangedEvent> collect(TransactionStatus<?> status) {
+        status.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                List<ProductChangedEvent> events = pending.remove(status);
+                if (events != null) {
+                    write(events);
+                }
+            }
+
+            @Override
+            public void afterCompletion(Status completion) {
+                pending.remove(status);
+            }
+        });
+        return new ArrayList<>();
+    }
+
+    private void write(List<ProductChangedEvent> events) {
+        long[] ids = ChangeIds.allocate(events.size(), changeRepository::nextIdBlock);
+        Instant changedAt = Instant.now();
+        List<ProductChange> changes = new ArrayList<>(events.size());
+        for (int i = 0; i < ids.length; i++) {
+            ProductChangedEvent event = events.get(i);
+            ProductChange change = new ProductChange(event.id(), event.type(), changedAt);
+            change.setId(ids[i]);
+            changes.add(change);
+        }
+        changeRepository.saveAll(changes);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.repository;
+
+import com.example.model.Product;
+import com.example.outbox.ProductChange;
+import com.example.outbox.ProductChangeRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
+import jakarta.inject.Singleton;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The products table of the default datasource, written in the transaction of the caller.
+ * {@code ProductOutboxWriter} adds the changes to the outbox in that transaction.
+ */
+@Singleton
+@Requires(missingProperty = "products.shards.datasources")
+public class DatasourceProductStore implements ProductStore {
+
+    private final ProductRepositoryMicronaut productRepository;
+    private final ProductChangeRepository changeRepository;
+
+    public DatasourceProductStore(ProductRepositoryMicronaut productRepository,
+                                  ProductChangeRepository changeRepository) {
+        this.productRepository = productRepository;
+        this.changeRepository = changeRepository;
+    }
+
+    @Override
+    public <S extends Product> S save(S product) {
+        return productRepository.save(product);
+    }
+
+    @Override
+    public <S extends Product> List<S> saveAll(Iterable<S> products) {
+        return productRepository.saveAll(products);
+    }
+
+    @Override
+    public List<Product> updateAll(List<Product> products) {
+        return productRepository.updateAll(products);
+    }
+
+    @Override
+    public long updateByIdAndVersion(Long id, long version, String name, @Nullable String description,
+                                     BigDecimal price, Instant lastModified) {
+        return productRepository.updateByIdAndVersion(id, version, name, description, price, lastModified);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        productRepository.deleteById(id);
+    }
+
+    @Override
+    public void deleteByIdIn(Collection<Long> ids) {
+        productRepository.deleteByIdIn(ids);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return productRepository.existsById(id);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return productRepository.findVersionById(id);
+    }
+
+    @Override
+    public List<Long> findIdByIdIn(Collection<Long> ids) {
+        return productRepository.findIdByIdIn(ids);
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return productRepository.findById(id);
+    }
+
+    @Override
+    public List<Product> findByIdIn(Collection<Long> ids) {
+        return productRepository.findByIdIn(ids);
+    }
+
+    @Override
+    public Optional<Product> findByName(String name) {
+        return productRepository.findByName(name);
+    }
+
+    @Override
+    public List<Product> findByIdGreaterThanOrderById(Long id, Pageable pageable) {
+        return productRepository.findByIdGreaterThanOrderById(id, pageable);
+    }
+
+    @Override
+    public List<ProductVersion> queryByIdGreaterThanOrderById(Long id, Pageable pageable) {
+        return productRepository.queryByIdGreaterThanOrderById(id, pageable);
+    }
+
+    @Override
+    public List<ProductSummary> readByIdGreaterThanOrderById(Long id, Pageable pageable) {
+        return productRepository.readByIdGreaterThanOrderById(id, pageable);
+    }
+
+    @Override
+    public Page<Product> findAll(@Nullable PredicateSpecification<Product> spec, Pageable pageable) {
+        return productRepository.findAll(spec, pageable);
+    }
+
+    @Override
+    public ProductPriceStats findPriceStats() {
+        return productRepository.findPriceStats();
+    }
+
+    @Override
+    public List<ProductPriceBucket> findPriceBuckets(BigDecimal min, BigDecimal range, int buckets) {
+        return productRepository.findPriceBuckets(min, range, buckets);
+    }
+
+    @Override
+    public List<ProductChange> findChangesAfter(Long id, Instant changedBefore, Pageable pageable) {
+        return changeRepository.findByIdGreaterThanAndChangedAtLessThanOrderById(id, changedBefore, pageable);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.repository;
+
+import com.example.model.Product;
+import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A conjunction of the criteria built by {@link ProductSpecifications}. Micronaut Data evaluates it like any other
+ * specification; the shards, which are queried over plain JDBC, use its SQL form.
+ */
+public final class ProductCriteria implements PredicateSpecification<Product> {
+
+    enum Operator {
+        LIKE,
+        AT_LEAST,
+        AT_MOST
+    }
+
+    private final List<Condition> conditions;
+
+    private ProductCriteria(List<Condition> conditions) {
+        this.conditions = conditions;
+    }
+
+    // Properties of Product whose column has the same name
+    static ProductCriteria of(String property, Operator operator, Object value) {
+        return new ProductCriteria(List.of(new Condition(property, operator, value)));
+    }
+
+    ProductCriteria with(ProductCriteria other) {
+        List<Condition> all = new ArrayList<>(conditions);
+        all.addAll(other.conditions);
+        return new ProductCriteria(List.copyOf(all));
+    }
+
+    @Override
+    public Predicate toPredicate(Root<Product> root, CriteriaBuilder criteriaBuilder) {
+        return criteriaBuilder.and(conditions.stream()
+                .map(condition -> condition.toPredicate(root, criteriaBuilder))
+                .toArray(Predicate[]::new));
+    }
+
+    /**
+     * @return the criteria as a condition on the columns of the products table, with a {@code ?} for each of the
+     * {@link #parameters()}
+     */
+    public String toSql() {
+        return conditions.stream().map(Condition::toSql).collect(Collectors.joining(" AND "));
+    }
+
+    public List<Object> parameters() {
+        return conditions.stream().map(Condition::value).toList();
+    }
+
+    private record Condition(String property, Operator operator, Object value) {
+
+        Predicate toPredicate(Root<Product> root, CriteriaBuilder criteriaBuilder) {
+            return switch (operator) {
+                case LIKE -> criteriaBuilder.like(root.get(property), (String) value,
+                        ProductSpecifications.LIKE_ESCAPE);
+                case AT_LEAST -> criteriaBuilder.greaterThanOrEqualTo(root.get(property), (BigDecimal) value);
+                case AT_MOST -> criteriaBuilder.lessThanOrEqualTo(root.get(property), (BigDecimal) value);
+            };
+        }
+
+        String toSql() {
+            return switch (operator) {
+                case LIKE -> property + " LIKE ? ESCAPE '" + ProductSpecifications.LIKE_ESCAPE + "'";
+                case AT_LEAST -> property + " >= ?";
+                case AT_MOST -> property + " <= ?";
+            };
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.repository;
+
+import com.example.config.LoaderConfiguration;
+import com.example.event.ProductChangedEvent;
+import com.example.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads products by id for concurrent callers with as few queries as possible:
+ * <ul>
+ *     <li>callers asking for an id that is already being loaded wait for that load instead of querying again;</li>
+ *     <li>distinct ids requested within {@code products.loader.max-wait} of each other, up to
+ *     {@code products.loader.max-batch-size}, are loaded with one {@code WHERE id IN (...)} query.</li>
+ * </ul>
+ * The first caller of a batch waits for the window to close and runs the query for everyone, so a lone request
+ * pays at most {@code max-wait} of extra latency. Calls made inside a transaction bypass both, so that they see the
+ * transaction's own writes and never leak them to other callers.
+ * <p>
+ * Published meters: {@code products.loader.requests} tagged {@code result=loaded|coalesced},
+ * {@code products.loader.queries} and the {@code products.loader.batch.size} distribution; requests divided by
+ * queries is the coalescing ratio.
+ */
+@Singleton
+public class ProductLoader {
+
+    public static final String REQUESTS_METRIC = "products.loader.requests";
+    public static final String QUERIES_METRIC = "products.loader.queries";
+    public static final String BATCH_SIZE_METRIC = "products.loader.batch.size";
+
+    private final ProductReadRouter productReads;
+    private final List<TransactionOperations<?>> transactionOperations;
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final int maxBatchSize;
+    private final long timeoutNanos;
+    private final Map<Long, CompletableFuture<Optional<Product>>> inFlight = new ConcurrentHashMap<>();
+    // ReentrantLock rather than synchronized: waiting in a monitor would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch open;
+
+    private final Counter loaded;
+    private final Counter coalesced;
+    private final Counter queries;
+    private final DistributionSummary batchSizes;
+
+    public ProductLoader(ProductReadRouter productReads,
+                         List<TransactionOperations<?>> transactionOperations,
+                         LoaderConfiguration configuration,
+                         MeterRegistry meterRegistry) {
+        this.productReads = productReads;
+        this.transactionOperations = transactionOperations;
+        this.enabled = configuration.isEnabled();
+        this.maxWaitNanos = configuration.getMaxWait().toNanos();
+        this.maxBatchSize = configuration.getMaxBatchSize();
+        this.timeoutNanos = configuration.getTimeout().toNanos();
+        this.loaded = requests(meterRegistry, "loaded");
+        this.coalesced = requests(meterRegistry, "coalesced");
+        this.queries = Counter.builder(QUERIES_METRIC)
+                .description("Queries issued by the product loader")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE_METRIC)
+                .description("Ids loaded per product loader query")
+                .register(meterRegistry);
+    }
+
+    public Optional<Product> findById(Long id) {
+        if (!enabled || inTransaction()) {
+            return productReads.findById(id);
+        }
+        CompletableFuture<Optional<Product>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<Product>> pending = inFlight.putIfAbsent(id, future);
+        if (pending != null) {
+            coalesced.increment();
+            return await(id, pending);
+        }
+        loaded.increment();
+        Batch led = join(id, future);
+        if (led != null) {
+            load(led.futures);
+        }
+        return await(id, future);
+    }
+
+    // A product written after its load started must not be served from that load
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        inFlight.remove(event.id());
+    }
+
+    @TransactionalEventListener(TransactionalEventListener.TransactionPhase.AFTER_COMPLETION)
+    public void onProductChangeCompleted(ProductChangedEvent event) {
+        inFlight.remove(event.id());
+    }
+
+    // Adds the id to the open batch; returns the batch once it is closed if this caller opened it
+    private Batch join(Long id, CompletableFuture<Optional<Product>> future) {
+        lock.lock();
+        try {
+            Batch batch = open;
+            boolean leader = batch == null;
+            if (leader) {
+                batch = new Batch(lock.newCondition());
+                open = batch;
+            }
+            CompletableFuture<Optional<Product>> queued = batch.futures.putIfAbsent(id, future);
+            if (queued != null) {
+                // A change removed the id from inFlight while its batch was still open; the batch has not been
+                // queried yet, so this caller gets the same load
+                queued.whenComplete((product, error) -> {
+                    inFlight.remove(id, future);
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                    } else {
+                        future.complete(product);
+                    }
+                });
+            }
+            if (batch.futures.size() >= maxBatchSize) {
+                close(batch);
+            }
+            if (leader) {
+                awaitClose(batch);
+            }
+            return leader ? batch : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitClose(Batch batch) {
+        long remaining = maxWaitNanos;
+        try {
+            while (!batch.closed && remaining > 0) {
+                remaining = batch.full.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        close(batch);
+    }
+
+    private void close(Batch batch) {
+        if (!batch.closed) {
+            batch.closed = true;
+            batch.full.signal();
+            if (open == batch) {
+                open = null;
+            }
+        }
+    }
+
+    private void load(Map<Long, CompletableFuture<Optional<Product>>> futures) {
+        queries.increment();
+        batchSizes.record(futures.size());
+        try {
+            Map<Long, Product> products;
+            if (futures.size() == 1) {
+                Long id = futures.keySet().iterator().next();
+                products = productReads.findById(id).map(product -> Map.of(id, product)).orElse(Map.of());
+            } else {
+                products = productReads.findByIdIn(futures.keySet()).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+            }
+            futures.forEach((id, future) -> {
+                inFlight.remove(id, future);
+                future.complete(Optional.ofNullable(products.get(id)));
+            });
+        } catch (RuntimeException e) {
+            futures.forEach((id, future) -> {
+                inFlight.remove(id, future);
+                future.completeExceptionally(e);
+            });
+        }
+    }
+
+    private boolean inTransaction() {
+        for (TransactionOperations<?> operations : transactionOperations) {
+            if (operations.findTransactionStatus().isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Optional<Product> await(Long id, CompletableFuture<Optional<Product>> future) {
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new DataAccessException("Loading product " + id + " failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            // Later callers start a new load rather than wait for this one
+            inFlight.remove(id, future);
+            throw new DataAccessException("Product " + id + " was not loaded within "
+                    + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while loading product " + id);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(REQUESTS_METRIC)
+                .description("Product lookups by id, by whether they ran their own load or joined one in flight")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class Batch {
+
+        private final Map<Long, CompletableFuture<Optional<Product>>> futures = new LinkedHashMap<>();
+        private final Condition full;
+        private boolean closed;
+
+        private Batch(Condition full) {
+            this.full = full;
+        }
+    }
+}
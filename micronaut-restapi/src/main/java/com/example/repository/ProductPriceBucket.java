@@ -0,0 +1,10 @@
+package com.example.repository;
+
+import io.micronaut.core.annotation.Introspected;
+
+/**
+ * Number of products in one price bucket of a histogram; empty buckets have no row.
+ */
+@Introspected
+public record ProductPriceBucket(int bucket, long count) {
+}
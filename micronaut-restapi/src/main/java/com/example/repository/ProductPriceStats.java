@@ -0,0 +1,14 @@
+package com.example.repository;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * Summary of {@code Product.price} over all products, aggregated by the database. Every figure is 0 when there
+ * are no products.
+ */
+@Introspected
+@Serdeable
+public record ProductPriceStats(long count, double sum, double min, double max, double avg,
+                                double p50, double p90, double p95, double p99) {
+}
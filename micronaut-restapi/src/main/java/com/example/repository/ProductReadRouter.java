@@ -0,0 +1,143 @@
+package com.example.repository;
+
+import com.example.config.ReplicaConfiguration;
+import com.example.event.ProductChangedEvent;
+import com.example.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Sends product reads to the replica datasource when one is configured, and to the primary otherwise.
+ * <p>
+ * The replica lags behind the primary. For {@code products.replica.read-your-writes-window} after a product is
+ * written, reads of that product go to the primary, and so do name lookups, pages and searches after any write.
+ * The window opens when the change is published inside the writing transaction and is extended once the
+ * transaction completes, so it only has to cover the replication lag.
+ * <p>
+ * The primary is the {@link ProductStore}. With {@code products.shards.datasources} configured that is the shards,
+ * and there is no replica.
+ */
+@Singleton
+public class ProductReadRouter {
+
+    private final ProductStore primary;
+    @Nullable
+    private final ProductReplicaRepository replica;
+    private final long windowNanos;
+    private final Cache<Long, Boolean> recentlyWritten;
+    // System.nanoTime() until which any read may miss a write
+    private final AtomicLong anyWriteUntil;
+
+    public ProductReadRouter(ProductStore primary,
+                             @Nullable ProductReplicaRepository replica,
+                             ReplicaConfiguration configuration) {
+        this.primary = primary;
+        this.replica = replica;
+        this.windowNanos = configuration.getReadYourWritesWindow().toNanos();
+        this.recentlyWritten = Caffeine.newBuilder()
+                .expireAfterWrite(configuration.getReadYourWritesWindow())
+                .build();
+        this.anyWriteUntil = new AtomicLong(System.nanoTime());
+    }
+
+    public Optional<Product> findById(Long id) {
+        return useReplica(id) ? replica.findById(id) : primary.findById(id);
+    }
+
+    public List<Product> findByIdIn(Collection<Long> ids) {
+        if (replica == null) {
+            return primary.findByIdIn(ids);
+        }
+        Map<Boolean, List<Long>> byReplica = ids.stream().collect(Collectors.partitioningBy(this::useReplica));
+        List<Long> fromPrimary = byReplica.get(false);
+        List<Long> fromReplica = byReplica.get(true);
+        if (fromPrimary.isEmpty()) {
+            return replica.findByIdIn(fromReplica);
+        }
+        if (fromReplica.isEmpty()) {
+            return primary.findByIdIn(fromPrimary);
+        }
+        List<Product> products = new ArrayList<>(primary.findByIdIn(fromPrimary));
+        products.addAll(replica.findByIdIn(fromReplica));
+        return products;
+    }
+
+    public Optional<Product> findByName(String name) {
+        return useReplica() ? replica.findByName(name) : primary.findByName(name);
+    }
+
+    public List<Product> findByIdGreaterThanOrderById(Long id, Pageable pageable) {
+        return useReplica()
+                ? replica.findByIdGreaterThanOrderById(id, pageable)
+                : primary.findByIdGreaterThanOrderById(id, pageable);
+    }
+
+    public List<ProductVersion> queryByIdGreaterThanOrderById(Long id, Pageable pageable) {
+        return useReplica()
+                ? replica.queryByIdGreaterThanOrderById(id, pageable)
+                : primary.queryByIdGreaterThanOrderById(id, pageable);
+    }
+
+    public List<ProductSummary> readByIdGreaterThanOrderById(Long id, Pageable pageable) {
+        return useReplica()
+                ? replica.readByIdGreaterThanOrderById(id, pageable)
+                : primary.readByIdGreaterThanOrderById(id, pageable);
+    }
+
+    public Page<Product> findAll(@Nullable PredicateSpecification<Product> spec, Pageable pageable) {
+        return useReplica() ? replica.findAll(spec, pageable) : primary.findAll(spec, pageable);
+    }
+
+    public ProductPriceStats findPriceStats() {
+        return useReplica() ? replica.findPriceStats() : primary.findPriceStats();
+    }
+
+    public List<ProductPriceBucket> findPriceBuckets(BigDecimal min, BigDecimal range, int buckets) {
+        return useReplica()
+                ? replica.findPriceBuckets(min, range, buckets)
+                : primary.findPriceBuckets(min, range, buckets);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        markWritten(event.id());
+    }
+
+    @TransactionalEventListener(TransactionalEventListener.TransactionPhase.AFTER_COMPLETION)
+    public void onProductChangeCompleted(ProductChangedEvent event) {
+        markWritten(event.id());
+    }
+
+    private boolean useReplica(Long id) {
+        return replica != null && recentlyWritten.getIfPresent(id) == null;
+    }
+
+    private boolean useReplica() {
+        return replica != null && System.nanoTime() - anyWriteUntil.get() >= 0;
+    }
+
+    private void markWritten(Long id) {
+        if (replica == null || windowNanos == 0) {
+            return;
+        }
+        recentlyWritten.put(id, Boolean.TRUE);
+        long until = System.nanoTime() + windowNanos;
+        anyWriteUntil.accumulateAndGet(until, (current, next) -> next - current > 0 ? next : current);
+    }
+}
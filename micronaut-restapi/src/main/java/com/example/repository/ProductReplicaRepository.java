@@ -0,0 +1,46 @@
+package com.example.repository;
+
+import com.example.metrics.RepositoryTimed;
+import com.example.model.Product;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.repository.GenericRepository;
+import io.micronaut.data.repository.jpa.JpaSpecificationExecutor;
+import io.micronaut.transaction.annotation.ReadOnly;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads of the products table on the {@code replica} datasource, present only when {@code datasources.replica}
+ * is configured and the products are not sharded. Callers go through {@link ProductReadRouter}, which knows when
+ * the replica may be stale.
+ */
+@DataRepository("replica")
+@RepositoryTimed
+@ReadOnly(transactionManager = "replica")
+@Requires(property = "datasources.replica.url")
+@Requires(missingProperty = "products.shards.datasources")
+public interface ProductReplicaRepository extends GenericRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    Optional<Product> findById(Long id);
+
+    Optional<Product> findByName(String name);
+
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    List<Product> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<ProductVersion> queryByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<ProductSummary> readByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    @Query(value = ProductRepositoryMicronaut.PRICE_STATS_QUERY, nativeQuery = true)
+    ProductPriceStats findPriceStats();
+
+    @Query(value = ProductRepositoryMicronaut.PRICE_BUCKETS_QUERY, nativeQuery = true)
+    List<ProductPriceBucket> findPriceBuckets(BigDecimal min, BigDecimal range, int buckets);
+}
@@ -1,9 +1,63 @@
 package com.example.repository;
 
+import com.example.metrics.RepositoryTimed;
 import com.example.model.Product;
-import io.micronaut.data.annotation.Repository;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.CrudRepository;
+import io.micronaut.data.repository.jpa.JpaSpecificationExecutor;
 
-@Repository
-public interface ProductRepositoryMicronaut extends ProductRepository, CrudRepository<Product, Long> {
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@DataRepository
+@RepositoryTimed
+public interface ProductRepositoryMicronaut extends ProductRepository, CrudRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    // Native: JPQL has no ordered-set aggregates; PERCENTILE_CONT interpolates like Oracle's MEDIAN
+    String PRICE_STATS_QUERY = "SELECT COUNT(*) AS count, COALESCE(SUM(price), 0) AS sum, COALESCE(MIN(price), 0) AS min, "
+            + "COALESCE(MAX(price), 0) AS max, COALESCE(AVG(price), 0) AS avg, "
+            + "COALESCE(PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY price), 0) AS p50, "
+            + "COALESCE(PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY price), 0) AS p90, "
+            + "COALESCE(PERCENTILE_CONT(0.95) WITHIN GROUP (ORDER BY price), 0) AS p95, "
+            + "COALESCE(PERCENTILE_CONT(0.99) WITHIN GROUP (ORDER BY price), 0) AS p99 "
+            + "FROM products";
+
+    // Equal-width buckets over [min, min + range]; prices outside it are counted in the first or last bucket.
+    // The casts type the parameters: untyped, H2 computes the division at an unbounded decimal precision.
+    String PRICE_BUCKETS_QUERY = "SELECT bucket, COUNT(*) AS count FROM ("
+            + "SELECT CAST(GREATEST(0, LEAST(FLOOR((price - CAST(:min AS DECIMAL(12, 2))) * CAST(:buckets AS INTEGER) "
+            + "/ CAST(:range AS DECIMAL(12, 2))), CAST(:buckets AS INTEGER) - 1)) AS INTEGER) AS bucket "
+            + "FROM products) b GROUP BY bucket ORDER BY bucket";
+
+    List<Product> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<ProductVersion> queryByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<ProductSummary> readByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    List<Long> findIdByIdIn(Collection<Long> ids);
+
+    void deleteByIdIn(Collection<Long> ids);
+
+    Optional<Long> findVersionById(Long id);
+
+    // Native, so that the jpa and jdbc persistence modes run the same statement
+    @Query(value = "UPDATE products p SET p.name = :name, p.description = :description, p.price = :price, "
+            + "p.version = p.version + 1, p.last_modified = :lastModified WHERE p.id = :id AND p.version = :version",
+            nativeQuery = true)
+    long updateByIdAndVersion(Long id, Long version, String name, @Nullable String description, BigDecimal price,
+                              Instant lastModified);
+
+    @Query(value = PRICE_STATS_QUERY, nativeQuery = true)
+    ProductPriceStats findPriceStats();
+
+    @Query(value = PRICE_BUCKETS_QUERY, nativeQuery = true)
+    List<ProductPriceBucket> findPriceBuckets(BigDecimal min, BigDecimal range, int buckets);
 }
@@ -0,0 +1,61 @@
+package com.example.repository;
+
+import com.example.model.Product;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
+
+import java.math.BigDecimal;
+
+/**
+ * Criteria for {@code GET /products/search}. Name matching is case-sensitive so that prefix searches can be
+ * answered from the {@code name} index; {@code %} and {@code _} in user input are matched literally.
+ */
+public final class ProductSpecifications {
+
+    static final char LIKE_ESCAPE = '\\';
+
+    private ProductSpecifications() {
+    }
+
+    public static ProductCriteria nameStartsWith(String prefix) {
+        return ProductCriteria.of("name", ProductCriteria.Operator.LIKE, escapeLike(prefix) + "%");
+    }
+
+    public static ProductCriteria nameContains(String text) {
+        return ProductCriteria.of("name", ProductCriteria.Operator.LIKE, "%" + escapeLike(text) + "%");
+    }
+
+    public static ProductCriteria priceAtLeast(BigDecimal minPrice) {
+        return ProductCriteria.of("price", ProductCriteria.Operator.AT_LEAST, minPrice);
+    }
+
+    public static ProductCriteria priceAtMost(BigDecimal maxPrice) {
+        return ProductCriteria.of("price", ProductCriteria.Operator.AT_MOST, maxPrice);
+    }
+
+    @Nullable
+    public static PredicateSpecification<Product> and(@Nullable PredicateSpecification<Product> left,
+                                                      @Nullable PredicateSpecification<Product> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        // Kept a ProductCriteria where possible, so that the shards can evaluate it
+        return left instanceof ProductCriteria first && right instanceof ProductCriteria second
+                ? first.with(second)
+                : left.and(right);
+    }
+
+    static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.repository;
+
+import com.example.model.Product;
+import com.example.outbox.ProductChange;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where the products and the outbox of their changes are written and read: the default datasource
+ * ({@link DatasourceProductStore}) or, with {@code products.shards.datasources} configured, the shards
+ * ({@code ShardedProductRepository}). Exactly one of them is a bean. Reads that may go to the replica are made
+ * through {@link ProductReadRouter} instead.
+ */
+public interface ProductStore {
+
+    <S extends Product> S save(S product);
+
+    <S extends Product> List<S> saveAll(Iterable<S> products);
+
+    /**
+     * Updates each product at the version it was read at.
+     */
+    List<Product> updateAll(List<Product> products);
+
+    long updateByIdAndVersion(Long id, long version, String name, @Nullable String description, BigDecimal price,
+                              Instant lastModified);
+
+    void deleteById(Long id);
+
+    void deleteByIdIn(Collection<Long> ids);
+
+    boolean existsById(Long id);
+
+    Optional<Long> findVersionById(Long id);
+
+    List<Long> findIdByIdIn(Collection<Long> ids);
+
+    Optional<Product> findById(Long id);
+
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    Optional<Product> findByName(String name);
+
+    List<Product> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<ProductVersion> queryByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<ProductSummary> readByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    Page<Product> findAll(@Nullable PredicateSpecification<Product> spec, Pageable pageable);
+
+    ProductPriceStats findPriceStats();
+
+    List<ProductPriceBucket> findPriceBuckets(BigDecimal min, BigDecimal range, int buckets);
+
+    /**
+     * @return the outbox rows after {@code id} that were written before {@code changedBefore}, in id order
+     */
+    List<ProductChange> findChangesAfter(Long id, Instant changedBefore, Pageable pageable);
+}
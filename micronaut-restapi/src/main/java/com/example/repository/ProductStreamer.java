@@ -0,0 +1,55 @@
+package com.example.repository;
+
+import com.example.config.PaginationConfiguration;
+import com.example.model.Product;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Streams the product table in id order by walking it one keyset page at a time, so at most
+ * one page of entities is held in memory and no connection is kept open between pages.
+ */
+@Singleton
+public class ProductStreamer {
+
+    private final ProductReadRouter productReads;
+    private final PaginationConfiguration pagination;
+    private final Scheduler scheduler;
+
+    public ProductStreamer(ProductReadRouter productReads,
+                           PaginationConfiguration pagination,
+                           @Named(TaskExecutors.BLOCKING) ExecutorService executorService) {
+        this.productReads = productReads;
+        this.pagination = pagination;
+        this.scheduler = Schedulers.fromExecutorService(executorService);
+    }
+
+    public Flux<Product> streamAfter(long after) {
+        return batchesAfter(after).concatMapIterable(batch -> batch, 1);
+    }
+
+    public Flux<List<Product>> batchesAfter(long after) {
+        int batchSize = pagination.getStreamBatchSize();
+        return Flux.<List<Product>, Long>generate(() -> after, (cursor, sink) -> {
+                    List<Product> batch = productReads.findByIdGreaterThanOrderById(cursor, Pageable.from(0, batchSize));
+                    if (batch.isEmpty()) {
+                        sink.complete();
+                        return cursor;
+                    }
+                    sink.next(batch);
+                    if (batch.size() < batchSize) {
+                        sink.complete();
+                    }
+                    return batch.get(batch.size() - 1).getId();
+                })
+                .subscribeOn(scheduler);
+    }
+}
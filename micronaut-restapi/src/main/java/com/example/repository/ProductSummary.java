@@ -0,0 +1,15 @@
+package com.example.repository;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A product without its description, which can be up to 500 characters. Reading this projection selects only these
+ * columns.
+ */
+@Introspected
+public record ProductSummary(Long id, String name, BigDecimal price, Long version, @Nullable Instant lastModified) {
+}
@@ -0,0 +1,10 @@
+package com.example.repository;
+
+import io.micronaut.core.annotation.Introspected;
+
+/**
+ * Identity and version of a product, enough to validate a cached listing without loading full rows.
+ */
+@Introspected
+public record ProductVersion(Long id, Long version) {
+}
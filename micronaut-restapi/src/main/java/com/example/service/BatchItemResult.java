@@ -0,0 +1,22 @@
+package com.example.service;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+@Serdeable
+public record BatchItemResult(int index, @Nullable Long id, int status, List<String> errors) {
+
+    public static BatchItemResult success(int index, Long id, int status) {
+        return new BatchItemResult(index, id, status, List.of());
+    }
+
+    public static BatchItemResult failure(int index, @Nullable Long id, int status, List<String> errors) {
+        return new BatchItemResult(index, id, status, errors);
+    }
+
+    public boolean succeeded() {
+        return status < 400;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.service;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+@Serdeable
+public record BatchResult(int succeeded, int failed, List<BatchItemResult> items) {
+
+    public static BatchResult of(List<BatchItemResult> items) {
+        int succeeded = (int) items.stream().filter(BatchItemResult::succeeded).count();
+        return new BatchResult(succeeded, items.size() - succeeded, items);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.service;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+/**
+ * A rejected import row and why; {@code line} is where the row starts in the uploaded file, counting from 1.
+ */
+@Serdeable
+public record ImportError(long line, List<String> errors) {
+}
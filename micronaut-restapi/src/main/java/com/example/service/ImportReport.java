@@ -0,0 +1,13 @@
+package com.example.service;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists at most {@code products.transfer.max-reported-errors} of the
+ * {@code failed} rows.
+ */
+@Serdeable
+public record ImportReport(long imported, long failed, List<ImportError> errors) {
+}
@@ -0,0 +1,158 @@
+package com.example.service;
+
+import com.example.config.BatchConfiguration;
+import com.example.model.Product;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+import jakarta.inject.Singleton;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Validates bulk product requests item by item and writes the valid items in chunks of
+ * {@code products.batch.chunk-size}, one transaction per chunk, reporting a status for every item.
+ */
+@Singleton
+public class ProductBatchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductBatchService.class);
+
+    private final ProductBatchWriter writer;
+    private final Validator validator;
+    private final BatchConfiguration configuration;
+
+    ProductBatchService(ProductBatchWriter writer, Validator validator, BatchConfiguration configuration) {
+        this.writer = writer;
+        this.validator = validator;
+        this.configuration = configuration;
+    }
+
+    public BatchResult create(List<Product> products) {
+        checkSize(products.size());
+        BatchItemResult[] results = new BatchItemResult[products.size()];
+        List<Integer> valid = validate(products, results, false);
+        for (List<Integer> chunk : chunks(valid)) {
+            List<Product> toInsert = chunk.stream().map(products::get).toList();
+            toInsert.forEach(product -> {
+                product.setId(null);
+                product.setVersion(null);
+            });
+            try {
+                List<Product> saved = writer.insert(toInsert);
+                for (int i = 0; i < chunk.size(); i++) {
+                    results[chunk.get(i)] = BatchItemResult.success(chunk.get(i), saved.get(i).getId(), HttpStatus.CREATED.getCode());
+                }
+            } catch (RuntimeException e) {
+                fail(chunk, results, index -> products.get(index).getId(), e);
+            }
+        }
+        return BatchResult.of(Arrays.asList(results));
+    }
+
+    public BatchResult update(List<Product> products) {
+        checkSize(products.size());
+        BatchItemResult[] results = new BatchItemResult[products.size()];
+        List<Integer> valid = validate(products, results, true);
+        for (List<Integer> chunk : chunks(valid)) {
+            try {
+                Set<Long> updated = new HashSet<>();
+                writer.update(chunk.stream().map(products::get).toList()).forEach(product -> updated.add(product.getId()));
+                for (Integer index : chunk) {
+                    Long id = products.get(index).getId();
+                    results[index] = updated.contains(id)
+                            ? BatchItemResult.success(index, id, HttpStatus.OK.getCode())
+                            : BatchItemResult.failure(index, id, HttpStatus.NOT_FOUND.getCode(), List.of("Product not found"));
+                }
+            } catch (RuntimeException e) {
+                fail(chunk, results, index -> products.get(index).getId(), e);
+            }
+        }
+        return BatchResult.of(Arrays.asList(results));
+    }
+
+    public BatchResult delete(List<Long> ids) {
+        checkSize(ids.size());
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                results[i] = BatchItemResult.failure(i, null, HttpStatus.BAD_REQUEST.getCode(), List.of("Id is required"));
+            } else {
+                valid.add(i);
+            }
+        }
+        for (List<Integer> chunk : chunks(valid)) {
+            try {
+                Set<Long> deleted = new HashSet<>(writer.delete(new LinkedHashSet<>(chunk.stream().map(ids::get).toList())));
+                for (Integer index : chunk) {
+                    Long id = ids.get(index);
+                    results[index] = deleted.contains(id)
+                            ? BatchItemResult.success(index, id, HttpStatus.NO_CONTENT.getCode())
+                            : BatchItemResult.failure(index, id, HttpStatus.NOT_FOUND.getCode(), List.of("Product not found"));
+                }
+            } catch (RuntimeException e) {
+                fail(chunk, results, ids::get, e);
+            }
+        }
+        return BatchResult.of(Arrays.asList(results));
+    }
+
+    private List<Integer> validate(List<Product> products, BatchItemResult[] results, boolean idRequired) {
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (product == null) {
+                results[i] = BatchItemResult.failure(i, null, HttpStatus.BAD_REQUEST.getCode(), List.of("Product is required"));
+                continue;
+            }
+            List<String> errors = new ArrayList<>(validator.validate(product).stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .toList());
+            if (idRequired && product.getId() == null) {
+                errors.add("Id is required");
+            }
+            if (errors.isEmpty()) {
+                valid.add(i);
+            } else {
+                results[i] = BatchItemResult.failure(i, product.getId(), HttpStatus.BAD_REQUEST.getCode(), errors);
+            }
+        }
+        return valid;
+    }
+
+    private List<List<Integer>> chunks(List<Integer> indexes) {
+        int chunkSize = configuration.getChunkSize();
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < indexes.size(); from += chunkSize) {
+            chunks.add(indexes.subList(from, Math.min(from + chunkSize, indexes.size())));
+        }
+        return chunks;
+    }
+
+    private void checkSize(int size) {
+        if (size > configuration.getMaxItems()) {
+            throw new HttpStatusException(HttpStatus.REQUEST_ENTITY_TOO_LARGE,
+                    "Batch exceeds the maximum of " + configuration.getMaxItems() + " items");
+        }
+    }
+
+    private void fail(List<Integer> chunk, BatchItemResult[] results, IntFunction<Long> idOf, RuntimeException e) {
+        LOG.warn("Batch write of {} items failed", chunk.size(), e);
+        for (Integer index : chunk) {
+            results[index] = BatchItemResult.failure(index, idOf.apply(index),
+                    HttpStatus.INTERNAL_SERVER_ERROR.getCode(), List.of(String.valueOf(e.getMessage())));
+        }
+    }
+}
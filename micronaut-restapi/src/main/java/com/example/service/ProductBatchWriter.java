@@ -0,0 +1,63 @@
+package com.example.service;
+
+import com.example.event.ProductChangedEvent;
+import com.example.model.Product;
+import com.example.repository.ProductStore;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import jakarta.inject.Singleton;
+import jakarta.transaction.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Singleton
+class ProductBatchWriter {
+
+    private final ProductStore productStore;
+    private final ApplicationEventPublisher<ProductChangedEvent> eventPublisher;
+
+    ProductBatchWriter(ProductStore productStore,
+                       ApplicationEventPublisher<ProductChangedEvent> eventPublisher) {
+        this.productStore = productStore;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public List<Product> insert(List<Product> products) {
+        List<Product> saved = productStore.saveAll(products);
+        saved.forEach(product -> eventPublisher.publishEvent(
+                new ProductChangedEvent(product.getId(), ProductChangedEvent.Type.CREATED)));
+        return saved;
+    }
+
+    @Transactional
+    public List<Product> update(List<Product> products) {
+        Map<Long, Product> changes = products.stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity(), (first, second) -> second));
+        List<Product> existing = productStore.findByIdIn(changes.keySet());
+        for (Product current : existing) {
+            Product change = changes.get(current.getId());
+            current.setName(change.getName());
+            current.setDescription(change.getDescription());
+            current.setPrice(change.getPrice());
+        }
+        List<Product> updated = productStore.updateAll(existing);
+        updated.forEach(product -> eventPublisher.publishEvent(
+                new ProductChangedEvent(product.getId(), ProductChangedEvent.Type.UPDATED)));
+        return updated;
+    }
+
+    @Transactional
+    public List<Long> delete(Collection<Long> ids) {
+        List<Long> existing = productStore.findIdByIdIn(ids);
+        if (!existing.isEmpty()) {
+            productStore.deleteByIdIn(existing);
+            existing.forEach(id -> eventPublisher.publishEvent(
+                    new ProductChangedEvent(id, ProductChangedEvent.Type.DELETED)));
+        }
+        return existing;
+    }
+}
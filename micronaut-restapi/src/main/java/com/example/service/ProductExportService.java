@@ -0,0 +1,224 @@
+package com.example.service;
+
+import com.example.codec.CsvWriter;
+import com.example.config.ShardConfiguration;
+import com.example.config.TransferConfiguration;
+import com.example.model.Product;
+import io.micronaut.context.BeanLocator;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.connection.jdbc.advice.DelegatingDataSource;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Streams the whole product table, in id order, from a single forward-only JDBC cursor that fetches
+ * {@code products.transfer.fetch-size} rows per round trip. Rows are encoded straight into chunks of about
+ * {@code products.transfer.chunk-size} bytes, so memory use does not grow with the table.
+ * <p>
+ * The cursor bypasses the repositories: a persistence context would keep every row it loads, and a repository
+ * stream would need a transaction bound to one thread for as long as the response is written. The cursor holds a
+ * pooled connection until the export completes or the client goes away. It reads from the replica when one is
+ * configured. Sharded products are read with a cursor per shard, each holding a connection of its shard, and merged
+ * by id.
+ */
+@Singleton
+public class ProductExportService {
+
+    private static final String QUERY = "SELECT id, name, description, price, version FROM products WHERE id > ? ORDER BY id";
+    private static final String CSV_HEADER = "id,name,description,price,version\n";
+
+    private final List<DataSource> dataSources;
+    private final JsonMapper jsonMapper;
+    private final TransferConfiguration configuration;
+    private final Scheduler scheduler;
+
+    public ProductExportService(DataSource dataSource,
+                                @Nullable @Named("replica") DataSource replica,
+                                ShardConfiguration shards,
+                                BeanLocator beanLocator,
+                                JsonMapper jsonMapper,
+                                TransferConfiguration configuration,
+                                @Named(TaskExecutors.BLOCKING) ExecutorService executorService) {
+        // Unwrapped so that the connections are not tied to the transaction of the calling thread
+        this.dataSources = shards.getDatasources().isEmpty()
+                ? List.of(DelegatingDataSource.unwrapDataSource(replica != null ? replica : dataSource))
+                : shards.getDatasources().stream()
+                        .map(name -> DelegatingDataSource.unwrapDataSource(
+                                beanLocator.getBean(DataSource.class, Qualifiers.byName(name))))
+                        .toList();
+        this.jsonMapper = jsonMapper;
+        this.configuration = configuration;
+        this.scheduler = Schedulers.fromExecutorService(executorService);
+    }
+
+    public Flux<byte[]> export(long after, TransferFormat format) {
+        return Flux.using(
+                        () -> new Cursor(after, format),
+                        cursor -> Flux.<byte[]>generate(sink -> {
+                            byte[] chunk = cursor.nextChunk();
+                            if (chunk == null) {
+                                sink.complete();
+                            } else {
+                                sink.next(chunk);
+                            }
+                        }),
+                        Cursor::close)
+                .subscribeOn(scheduler);
+    }
+
+    private final class Cursor implements AutoCloseable {
+
+        private final TransferFormat format;
+        private final List<Source> sources = new ArrayList<>();
+        // The sources positioned on a row, the one with the lowest id first
+        private final PriorityQueue<Source> pending = new PriorityQueue<>(Comparator.comparingLong(Source::id));
+        private final ByteArrayOutputStream chunk;
+        private final StringBuilder line = new StringBuilder();
+        private boolean started;
+
+        Cursor(long after, TransferFormat format) throws SQLException {
+            this.format = format;
+            this.chunk = new ByteArrayOutputStream(configuration.getChunkSize() + 1024);
+            try {
+                for (DataSource dataSource : dataSources) {
+                    Source source = new Source(dataSource, after);
+                    sources.add(source);
+                    if (source.advance()) {
+                        pending.add(source);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        // Null once every row has been written
+        byte[] nextChunk() {
+            if (pending.isEmpty() && started) {
+                return null;
+            }
+            chunk.reset();
+            try {
+                if (format == TransferFormat.CSV && !started) {
+                    chunk.writeBytes(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+                }
+                started = true;
+                while (chunk.size() < configuration.getChunkSize() && !pending.isEmpty()) {
+                    Source source = pending.poll();
+                    writeRow(source.resultSet);
+                    if (source.advance()) {
+                        pending.add(source);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Product export failed: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return chunk.size() > 0 ? chunk.toByteArray() : null;
+        }
+
+        private void writeRow(ResultSet resultSet) throws SQLException, IOException {
+            if (format == TransferFormat.NDJSON) {
+                Product product = new Product(resultSet.getString(2), resultSet.getString(3), resultSet.getBigDecimal(4));
+                product.setId(resultSet.getLong(1));
+                product.setVersion(resultSet.getLong(5));
+                chunk.writeBytes(jsonMapper.writeValueAsBytes(product));
+                chunk.write('\n');
+                return;
+            }
+            line.setLength(0);
+            line.append(resultSet.getLong(1)).append(',');
+            CsvWriter.appendField(line, resultSet.getString(2));
+            line.append(',');
+            CsvWriter.appendField(line, resultSet.getString(3));
+            line.append(',').append(resultSet.getBigDecimal(4).toPlainString()).append(',')
+                    .append(resultSet.getLong(5)).append('\n');
+            chunk.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            IllegalStateException failure = null;
+            for (Source source : sources) {
+                try {
+                    source.close();
+                } catch (SQLException e) {
+                    if (failure == null) {
+                        failure = new IllegalStateException(
+                                "Closing the product export cursor failed: " + e.getMessage(), e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // The rows of one datasource in id order
+    private final class Source {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private long id;
+
+        Source(DataSource dataSource, long after) throws SQLException {
+            this.connection = dataSource.getConnection();
+            try {
+                connection.setReadOnly(true);
+                // Some drivers, PostgreSQL among them, only fetch lazily outside auto-commit
+                connection.setAutoCommit(false);
+                statement = connection.prepareStatement(QUERY, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(configuration.getFetchSize());
+                statement.setLong(1, after);
+                resultSet = statement.executeQuery();
+            } catch (SQLException | RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        long id() {
+            return id;
+        }
+
+        // False once the rows are exhausted
+        boolean advance() throws SQLException {
+            if (!resultSet.next()) {
+                return false;
+            }
+            id = resultSet.getLong(1);
+            return true;
+        }
+
+        void close() throws SQLException {
+            try (connection; statement; resultSet) {
+                connection.rollback();
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.service;
+
+import com.example.codec.CsvReader;
+import com.example.codec.LineReader;
+import com.example.config.TransferConfiguration;
+import com.example.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.ContentLengthExceededException;
+import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.json.JsonMapper;
+import jakarta.inject.Singleton;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Creates products from a CSV or NDJSON upload of any size. The body is parsed one row at a time with bounded
+ * buffers, each row is validated like {@code POST /products}, and valid rows are inserted every
+ * {@code products.transfer.commit-interval} rows in their own transaction. Memory use therefore depends on the
+ * commit interval and not on the size of the upload. If reading the upload fails, for example because the connection
+ * dropped, the rows committed so far stay committed and the rows not yet written are discarded.
+ */
+@Singleton
+public class ProductImportService {
+
+    public static final String ROWS_METRIC = "products.import.rows";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImportService.class);
+    private static final Argument<Product> PRODUCT = Argument.of(Product.class);
+
+    private final ProductBatchWriter writer;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final TransferConfiguration configuration;
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    ProductImportService(ProductBatchWriter writer,
+                         Validator validator,
+                         JsonMapper jsonMapper,
+                         TransferConfiguration configuration,
+                         MeterRegistry meterRegistry) {
+        this.writer = writer;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.configuration = configuration;
+        this.importedRows = rows(meterRegistry, "imported");
+        this.failedRows = rows(meterRegistry, "failed");
+    }
+
+    public ImportReport importProducts(InputStream body, TransferFormat format) {
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        Import state = new Import();
+        try {
+            RowSource rows = format == TransferFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+            for (Row row = rows.next(); row != null; row = rows.next()) {
+                state.add(row);
+            }
+        } catch (IOException e) {
+            // The rows still pending may have been cut off mid-record, so they are not written. An upload over
+            // products.transfer.max-import-size is answered with 413.
+            if (e.getCause() instanceof ContentLengthExceededException exceeded) {
+                throw exceeded;
+            }
+            throw new UncheckedIOException(e);
+        }
+        state.flush();
+        return new ImportReport(state.imported, state.failed, state.errors);
+    }
+
+    private RowSource csvRows(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader, configuration.getMaxRecordLength());
+        List<String> header = csv.readRecord();
+        if (header == null || csv.isTooLong()) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "CSV must start with a header record");
+        }
+        List<String> columns = header.stream().map(column -> column.trim().toLowerCase()).toList();
+        int name = columns.indexOf("name");
+        int description = columns.indexOf("description");
+        int price = columns.indexOf("price");
+        if (name < 0 || price < 0) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "CSV header must contain the columns name and price");
+        }
+        return () -> {
+            List<String> fields = csv.readRecord();
+            while (fields != null && !csv.isTooLong() && fields.size() == 1 && fields.get(0).isBlank()) {
+                fields = csv.readRecord();
+            }
+            if (fields == null) {
+                return null;
+            }
+            long line = csv.getRecordLine();
+            if (csv.isTooLong()) {
+                return Row.invalid(line, "Record exceeds " + configuration.getMaxRecordLength() + " characters");
+            }
+            if (fields.size() != columns.size()) {
+                return Row.invalid(line, "Expected " + columns.size() + " fields but found " + fields.size());
+            }
+            BigDecimal parsedPrice = null;
+            String priceField = fields.get(price).trim();
+            if (!priceField.isEmpty()) {
+                try {
+                    parsedPrice = new BigDecimal(priceField);
+                } catch (NumberFormatException e) {
+                    return Row.invalid(line, "Price must be a decimal number");
+                }
+            }
+            String parsedDescription = description < 0 || fields.get(description).isEmpty() ? null : fields.get(description);
+            return new Row(line, new Product(fields.get(name), parsedDescription, parsedPrice), null);
+        };
+    }
+
+    private RowSource ndjsonRows(Reader reader) {
+        LineReader lines = new LineReader(reader, configuration.getMaxRecordLength());
+        return () -> {
+            for (String json = lines.readLine(); json != null; json = lines.readLine()) {
+                long line = lines.getLine();
+                if (lines.isTooLong()) {
+                    return Row.invalid(line, "Line exceeds " + configuration.getMaxRecordLength() + " characters");
+                }
+                if (json.isBlank()) {
+                    continue;
+                }
+                try {
+                    Product product = jsonMapper.readValue(json, PRODUCT);
+                    if (product == null) {
+                        return Row.invalid(line, "Product is required");
+                    }
+                    // Exported files carry ids and versions; importing always creates new products
+                    product.setId(null);
+                    product.setVersion(null);
+                    return new Row(line, product, null);
+                } catch (IOException e) {
+                    return Row.invalid(line, "Malformed JSON: " + e.getMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    private List<String> validate(Product product) {
+        return validator.validate(product).stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .toList();
+    }
+
+    private static Counter rows(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(ROWS_METRIC)
+                .description("Rows read by bulk imports")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+
+        // Null at the end of the input
+        Row next() throws IOException;
+    }
+
+    private record Row(long line, Product product, List<String> errors) {
+
+        static Row invalid(long line, String error) {
+            return new Row(line, null, List.of(error));
+        }
+    }
+
+    private final class Import {
+
+        private final List<Product> pending = new ArrayList<>();
+        private final List<Long> pendingLines = new ArrayList<>();
+        private final List<ImportError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void add(Row row) {
+            List<String> rowErrors = row.errors() != null ? row.errors() : validate(row.product());
+            if (!rowErrors.isEmpty()) {
+                reject(row.line(), rowErrors);
+                return;
+            }
+            pending.add(row.product());
+            pendingLines.add(row.line());
+            if (pending.size() >= configuration.getCommitInterval()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                writer.insert(List.copyOf(pending));
+                imported += pending.size();
+                importedRows.increment(pending.size());
+            } catch (RuntimeException e) {
+                LOG.warn("Import of {} rows failed", pending.size(), e);
+                for (Long line : pendingLines) {
+                    reject(line, List.of(String.valueOf(e.getMessage())));
+                }
+            }
+            pending.clear();
+            pendingLines.clear();
+        }
+
+        private void reject(long line, List<String> rowErrors) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < configuration.getMaxReportedErrors()) {
+                errors.add(new ImportError(line, rowErrors));
+            }
+        }
+    }
+}
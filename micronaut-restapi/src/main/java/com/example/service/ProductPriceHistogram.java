@@ -0,0 +1,11 @@
+package com.example.service;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * Equal-width histogram of product prices: bucket {@code i} counts the prices in
+ * {@code [min + i * bucketWidth, min + (i + 1) * bucketWidth)}, the last bucket including {@code max}.
+ */
+@Serdeable
+public record ProductPriceHistogram(double min, double max, double bucketWidth, long[] counts) {
+}
@@ -0,0 +1,117 @@
+package com.example.service;
+
+import com.example.cache.ProductCache;
+import com.example.event.ProductChangedEvent;
+import com.example.model.Product;
+import com.example.repository.ProductLoader;
+import com.example.repository.ProductReadRouter;
+import com.example.repository.ProductStore;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+import jakarta.inject.Singleton;
+import jakarta.transaction.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Writes products to the {@link ProductStore}. A shard commits on its own, together with the outbox rows of the
+ * changes and before the surrounding transaction.
+ */
+@Singleton
+public class ProductService {
+
+    private final ProductStore productStore;
+    private final ProductReadRouter productReads;
+    private final ProductLoader productLoader;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher<ProductChangedEvent> eventPublisher;
+
+    public ProductService(ProductStore productStore,
+                          ProductReadRouter productReads,
+                          ProductLoader productLoader,
+                          ProductCache productCache,
+                          ApplicationEventPublisher<ProductChangedEvent> eventPublisher) {
+        this.productStore = productStore;
+        this.productReads = productReads;
+        this.productLoader = productLoader;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Optional<Product> findById(Long id) {
+        return productCache.findById(id, productLoader::findById);
+    }
+
+    public Optional<Product> findByName(String name) {
+        return productCache.findByName(name, productReads::findByName);
+    }
+
+    @Transactional
+    public Product create(Product product) {
+        // A body may carry the id and version of another product; creating never updates it
+        product.setId(null);
+        product.setVersion(null);
+        Product saved = productStore.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), ProductChangedEvent.Type.CREATED));
+        return saved;
+    }
+
+    @Transactional
+    public Optional<Product> update(Long id, Product product) {
+        return update(id, product, null);
+    }
+
+    /**
+     * Updates a product with a single {@code UPDATE ... WHERE id = ? AND version = ?}. When exactly one
+     * expected version is given (the usual {@code If-Match}) no read is needed; otherwise the current version
+     * is read first. Returns empty if the product does not exist.
+     *
+     * @param expectedVersions versions the caller accepts, or {@code null} to accept any
+     * @throws HttpStatusException 412 if the current version is not an expected one, 409 if a concurrent
+     *                             writer changed the product between the read and the update
+     */
+    @Transactional
+    public Optional<Product> update(Long id, Product product, @Nullable Set<Long> expectedVersions) {
+        long version;
+        if (expectedVersions != null && expectedVersions.size() == 1) {
+            version = expectedVersions.iterator().next();
+        } else {
+            Optional<Long> current = productStore.findVersionById(id);
+            if (current.isEmpty()) {
+                return Optional.empty();
+            }
+            version = current.get();
+            if (expectedVersions != null && !expectedVersions.contains(version)) {
+                throw new HttpStatusException(HttpStatus.PRECONDITION_FAILED, "Product " + id + " has been modified");
+            }
+        }
+
+        Instant now = Instant.now();
+        long updated = productStore.updateByIdAndVersion(id, version,
+                product.getName(), product.getDescription(), product.getPrice(), now);
+        if (updated == 0) {
+            if (!productStore.existsById(id)) {
+                return Optional.empty();
+            }
+            HttpStatus status = expectedVersions == null ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED;
+            throw new HttpStatusException(status, "Product " + id + " has been modified");
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangedEvent.Type.UPDATED));
+
+        Product saved = new Product(product.getName(), product.getDescription(), product.getPrice());
+        saved.setId(id);
+        saved.setVersion(version + 1);
+        saved.setLastModified(now);
+        return Optional.of(saved);
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        productStore.deleteById(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangedEvent.Type.DELETED));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.service;
+
+import com.example.config.StatsConfiguration;
+import com.example.repository.ProductPriceBucket;
+import com.example.repository.ProductPriceStats;
+import com.example.repository.ProductReadRouter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+/**
+ * Price statistics and histograms aggregated by the database, so only a few numbers leave it. Results are kept
+ * for {@code products.stats.cache-ttl}; within that time they may miss the latest writes.
+ */
+@Singleton
+public class ProductStatsService {
+
+    private static final String STATS_KEY = "stats";
+
+    private final ProductReadRouter productReads;
+    @Nullable
+    private final Cache<Object, Object> results;
+
+    public ProductStatsService(ProductReadRouter productReads, StatsConfiguration configuration) {
+        this.productReads = productReads;
+        this.results = configuration.getCacheTtl().isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(configuration.getCacheTtl())
+                .maximumSize(configuration.getMaxBuckets() + 1L)
+                .build();
+    }
+
+    public ProductPriceStats stats() {
+        return cached(STATS_KEY, productReads::findPriceStats);
+    }
+
+    public ProductPriceHistogram histogram(int buckets) {
+        ProductPriceStats stats = stats();
+        return cached(buckets, () -> computeHistogram(stats, buckets));
+    }
+
+    private ProductPriceHistogram computeHistogram(ProductPriceStats stats, int buckets) {
+        long[] counts = new long[buckets];
+        double range = stats.max() - stats.min();
+        if (stats.count() == 0) {
+            return new ProductPriceHistogram(0, 0, 0, counts);
+        }
+        if (range == 0) {
+            // Every product has the same price
+            counts[0] = stats.count();
+            return new ProductPriceHistogram(stats.min(), stats.max(), 0, counts);
+        }
+        for (ProductPriceBucket bucket : productReads.findPriceBuckets(
+                BigDecimal.valueOf(stats.min()), BigDecimal.valueOf(range), buckets)) {
+            counts[bucket.bucket()] = bucket.count();
+        }
+        return new ProductPriceHistogram(stats.min(), stats.max(), range / buckets, counts);
+    }
+
+    // Loaded outside the cache: Caffeine runs a load inside a map computation, where a virtual thread waiting for the
+    // shards would stay pinned to its carrier thread. Requests that miss together may each load the result.
+    @SuppressWarnings("unchecked")
+    private <T> T cached(Object key, Supplier<T> loader) {
+        if (results == null) {
+            return loader.get();
+        }
+        T result = (T) results.getIfPresent(key);
+        if (result == null) {
+            result = loader.get();
+            results.put(key, result);
+        }
+        return result;
+    }
+}
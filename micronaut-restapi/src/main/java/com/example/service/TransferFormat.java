@@ -0,0 +1,22 @@
+package com.example.service;
+
+import com.example.codec.ProductMediaTypes;
+import io.micronaut.http.MediaType;
+
+/**
+ * Formats of bulk product import and export. CSV has the columns {@code id,name,description,price,version}; NDJSON
+ * has one product per line, as written by {@code GET /products/stream}.
+ */
+public enum TransferFormat {
+    CSV(ProductMediaTypes.TEXT_CSV), NDJSON(ProductMediaTypes.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    TransferFormat(String mediaType) {
+        this.mediaType = MediaType.of(mediaType);
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.shard;
+
+import com.example.outbox.ChangeIds;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.data.connection.jdbc.advice.DelegatingDataSource;
+import io.micronaut.data.exceptions.DataAccessException;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out product ids that are unique across all shards. They come from {@code products_seq} in the default
+ * datasource, which steps by {@value #BLOCK_SIZE}: every value drawn reserves itself and the
+ * {@value #BLOCK_SIZE} - 1 ids below it, so one round trip covers {@value #BLOCK_SIZE} inserts. That is the block
+ * Hibernate's pooled optimizer takes for the same value, so ids allocated here never collide with products
+ * inserted through {@code ProductRepositoryMicronaut}; the jdbc persistence mode only uses the value itself.
+ * <p>
+ * The ids of the changes the shards write to their outbox come from {@code product_changes_seq} in the default
+ * datasource as well, so that they are unique and follow the order of the changes across all shards. They are
+ * handed out through {@link ChangeIds}, as the outbox writer of the default datasource does.
+ */
+@Singleton
+@Requires(property = "products.shards.datasources")
+public class ProductIdAllocator {
+
+    // INCREMENT BY of products_seq, see V1__create_products.sql and the allocationSize of Product
+    static final int BLOCK_SIZE = 50;
+
+    private static final String NEXT_BLOCK_QUERY = "SELECT products_seq.NEXTVAL FROM dual";
+    private static final String NEXT_CHANGE_QUERY = "SELECT product_changes_seq.NEXTVAL FROM dual";
+
+    private final DataSource dataSource;
+    // Held across the sequence round trip when a block runs out; in synchronized, that would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long end;
+
+    public ProductIdAllocator(DataSource dataSource) {
+        // Unwrapped so that the sequence is not read in the transaction of the calling thread
+        this.dataSource = DelegatingDataSource.unwrapDataSource(dataSource);
+    }
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next == end) {
+                long last = nextBlock();
+                // The sequence starts at 1, whose block would reach below it
+                next = Math.max(last - BLOCK_SIZE + 1, 1);
+                end = last + 1;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code count} change ids in ascending order
+     */
+    public long[] nextChangeIds(int count) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(NEXT_CHANGE_QUERY)) {
+            return ChangeIds.allocate(count, () -> {
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getLong(1);
+                } catch (SQLException e) {
+                    throw new DataAccessException("Allocating change ids failed: " + e.getMessage(), e);
+                }
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Allocating change ids failed: " + e.getMessage(), e);
+        }
+    }
+
+    private long nextBlock() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(NEXT_BLOCK_QUERY);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            throw new DataAccessException("Allocating product ids failed: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.shard;
+
+import com.example.event.ProductChangedEvent;
+import com.example.model.Product;
+import com.example.outbox.ProductChange;
+import com.example.repository.ProductCriteria;
+import com.example.repository.ProductPriceBucket;
+import com.example.repository.ProductRepositoryMicronaut;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.exceptions.DataAccessException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The products table and the change outbox of one shard. Every method runs one statement, or one batch, in its own
+ * transaction on a connection of the shard's pool; a write inserts the outbox rows of its changes in that same
+ * transaction. The SQL is written for Oracle; H2 runs it in {@code MODE=Oracle}.
+ */
+final class ProductShard {
+
+    // Oracle accepts at most 1000 expressions in an IN list
+    private static final int MAX_IN_LIST = 1000;
+
+    private static final String COLUMNS = "id, name, description, price, version, last_modified";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM products";
+    private static final String INSERT = "INSERT INTO products (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE products SET name = ?, description = ?, price = ?, "
+            + "version = version + 1, last_modified = ? WHERE id = ? AND version = ?";
+    private static final String INSERT_CHANGE = "INSERT INTO product_changes (id, product_id, type, changed_at) "
+            + "VALUES (?, ?, ?, ?)";
+    private static final String PRICE_TOTALS = "SELECT COUNT(*), COALESCE(SUM(price), 0), MIN(price), MAX(price) "
+            + "FROM products";
+    // The histogram query of the other datasources, its parameters bound by position: min, buckets, range, buckets
+    private static final String PRICE_BUCKETS = ProductRepositoryMicronaut.PRICE_BUCKETS_QUERY.replaceAll(":\\w+", "?");
+    private static final String SELECT_CHANGES = "SELECT id, product_id, type, changed_at FROM product_changes "
+            + "WHERE id > ? AND changed_at < ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+
+    private final String name;
+    private final DataSource dataSource;
+    private final ProductIdAllocator idAllocator;
+
+    ProductShard(String name, DataSource dataSource, ProductIdAllocator idAllocator) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.idAllocator = idAllocator;
+    }
+
+    String name() {
+        return name;
+    }
+
+    Optional<Product> findById(long id) {
+        List<Product> products = query(SELECT + " WHERE id = ?", statement -> statement.setLong(1, id));
+        return products.stream().findFirst();
+    }
+
+    List<Product> findByIdIn(Collection<Long> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        for (List<Long> chunk : chunks(ids)) {
+            products.addAll(query(SELECT + " WHERE id IN (" + placeholders(chunk.size()) + ")",
+                    statement -> bindAll(statement, chunk)));
+        }
+        return products;
+    }
+
+    List<Long> findIdByIdIn(Collection<Long> ids) {
+        List<Long> found = new ArrayList<>(ids.size());
+        for (List<Long> chunk : chunks(ids)) {
+            found.addAll(queryLongs("SELECT id FROM products WHERE id IN (" + placeholders(chunk.size()) + ")",
+                    statement -> bindAll(statement, chunk)));
+        }
+        return found;
+    }
+
+    // The product with the lowest id of that name, if any
+    Optional<Product> findByName(String productName) {
+        return query(SELECT + " WHERE name = ? ORDER BY id FETCH FIRST 1 ROWS ONLY",
+                statement -> statement.setString(1, productName)).stream().findFirst();
+    }
+
+    List<Product> findByIdGreaterThanOrderById(long after, int limit) {
+        return query(SELECT + " WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY", statement -> {
+            statement.setLong(1, after);
+            statement.setInt(2, limit);
+        });
+    }
+
+    List<Product> findAll() {
+        return query(SELECT + " ORDER BY id", statement -> {
+        });
+    }
+
+    /**
+     * The first {@code limit} products matching the criteria in the given order, which ends with the id.
+     */
+    List<Product> search(@Nullable ProductCriteria criteria, String orderBy, int limit) {
+        String where = criteria != null ? " WHERE " + criteria.toSql() : "";
+        return query(SELECT + where + " ORDER BY " + orderBy + " FETCH FIRST ? ROWS ONLY", statement -> {
+            int index = 1;
+            if (criteria != null) {
+                for (Object parameter : criteria.parameters()) {
+                    statement.setObject(index++, parameter);
+                }
+            }
+            statement.setInt(index, limit);
+        });
+    }
+
+    PriceTotals priceTotals() {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(PRICE_TOTALS);
+                 ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return new PriceTotals(resultSet.getLong(1), resultSet.getBigDecimal(2), resultSet.getBigDecimal(3),
+                        resultSet.getBigDecimal(4));
+            }
+        });
+    }
+
+    List<ProductPriceBucket> findPriceBuckets(BigDecimal min, BigDecimal range, int buckets) {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(PRICE_BUCKETS)) {
+                statement.setBigDecimal(1, min);
+                statement.setInt(2, buckets);
+                statement.setBigDecimal(3, range);
+                statement.setInt(4, buckets);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    List<ProductPriceBucket> counts = new ArrayList<>();
+                    while (resultSet.next()) {
+                        counts.add(new ProductPriceBucket(resultSet.getInt(1), resultSet.getLong(2)));
+                    }
+                    return counts;
+                }
+            }
+        });
+    }
+
+    Optional<Long> findVersionById(long id) {
+        return queryLongs("SELECT version FROM products WHERE id = ?", statement -> statement.setLong(1, id))
+                .stream().findFirst();
+    }
+
+    long count() {
+        return queryLongs("SELECT COUNT(*) FROM products", statement -> {
+        }).get(0);
+    }
+
+    int insertAll(List<Product> products) {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                for (Product product : products) {
+                    statement.setLong(1, product.getId());
+                    statement.setString(2, product.getName());
+                    statement.setString(3, product.getDescription());
+                    statement.setBigDecimal(4, product.getPrice());
+                    statement.setLong(5, product.getVersion());
+                    statement.setObject(6, OffsetDateTime.ofInstant(product.getLastModified(), ZoneOffset.UTC));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            insertChanges(connection, products.stream().map(Product::getId).toList(),
+                    ProductChangedEvent.Type.CREATED);
+            return products.size();
+        });
+    }
+
+    long updateByIdAndVersion(long id, long version, String productName, String description, BigDecimal price,
+                              Instant lastModified) {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+                statement.setString(1, productName);
+                statement.setString(2, description);
+                statement.setBigDecimal(3, price);
+                statement.setObject(4, OffsetDateTime.ofInstant(lastModified, ZoneOffset.UTC));
+                statement.setLong(5, id);
+                statement.setLong(6, version);
+                long updated = statement.executeUpdate();
+                if (updated > 0) {
+                    insertChanges(connection, List.of(id), ProductChangedEvent.Type.UPDATED);
+                }
+                return updated;
+            }
+        });
+    }
+
+    // One statement per id in a batch, whose update counts tell which products existed and have a change to record
+    long deleteByIdIn(Collection<Long> ids) {
+        return execute(connection -> {
+            List<Long> deleted = new ArrayList<>(ids.size());
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM products WHERE id = ?")) {
+                for (Long id : ids) {
+                    statement.setLong(1, id);
+                    statement.addBatch();
+                }
+                int[] counts = statement.executeBatch();
+                int i = 0;
+                for (Long id : ids) {
+                    if (counts[i++] > 0) {
+                        deleted.add(id);
+                    }
+                }
+            }
+            insertChanges(connection, deleted, ProductChangedEvent.Type.DELETED);
+            return (long) deleted.size();
+        });
+    }
+
+    // Clears the products without recording their deletion
+    void deleteAll() {
+        execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM products")) {
+                statement.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    List<ProductChange> findChangesAfter(long after, Instant changedBefore, int limit) {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_CHANGES)) {
+                statement.setLong(1, after);
+                statement.setObject(2, OffsetDateTime.ofInstant(changedBefore, ZoneOffset.UTC));
+                statement.setInt(3, limit);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    List<ProductChange> changes = new ArrayList<>();
+                    while (resultSet.next()) {
+                        ProductChange change = new ProductChange(resultSet.getLong(2),
+                                ProductChangedEvent.Type.valueOf(resultSet.getString(3)),
+                                resultSet.getObject(4, OffsetDateTime.class).toInstant());
+                        change.setId(resultSet.getLong(1));
+                        changes.add(change);
+                    }
+                    return changes;
+                }
+            }
+        });
+    }
+
+    private void insertChanges(Connection connection, List<Long> productIds, ProductChangedEvent.Type type)
+            throws SQLException {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        long[] changeIds = idAllocator.nextChangeIds(productIds.size());
+        OffsetDateTime changedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_CHANGE)) {
+            for (int i = 0; i < changeIds.length; i++) {
+                statement.setLong(1, changeIds[i]);
+                statement.setLong(2, productIds.get(i));
+                statement.setString(3, type.name());
+                statement.setObject(4, changedAt);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private List<Product> query(String sql, Binder binder) {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                binder.bind(statement);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    List<Product> products = new ArrayList<>();
+                    while (resultSet.next()) {
+                        products.add(map(resultSet));
+                    }
+                    return products;
+                }
+            }
+        });
+    }
+
+    private List<Long> queryLongs(String sql, Binder binder) {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                binder.bind(statement);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    List<Long> values = new ArrayList<>();
+                    while (resultSet.next()) {
+                        values.add(resultSet.getLong(1));
+                    }
+                    return values;
+                }
+            }
+        });
+    }
+
+    private <T> T execute(Work<T> work) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Shard " + name + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static Product map(ResultSet resultSet) throws SQLException {
+        Product product = new Product(resultSet.getString(2), resultSet.getString(3), resultSet.getBigDecimal(4));
+        product.setId(resultSet.getLong(1));
+        product.setVersion(resultSet.getLong(5));
+        OffsetDateTime lastModified = resultSet.getObject(6, OffsetDateTime.class);
+        product.setLastModified(lastModified != null ? lastModified.toInstant() : null);
+        return product;
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> list = List.copyOf(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += MAX_IN_LIST) {
+            chunks.add(list.subList(from, Math.min(from + MAX_IN_LIST, list.size())));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static void bindAll(PreparedStatement statement, List<Long> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            statement.setLong(i + 1, ids.get(i));
+        }
+    }
+
+    /**
+     * The aggregates of the prices on one shard that can be merged with those of the others; min and max are null
+     * when the shard has no products.
+     */
+    record PriceTotals(long count, BigDecimal sum, @Nullable BigDecimal min, @Nullable BigDecimal max) {
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+}
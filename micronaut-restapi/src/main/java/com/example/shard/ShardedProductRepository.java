@@ -0,0 +1,498 @@
+package com.example.shard;
+
+import com.example.config.ShardConfiguration;
+import com.example.model.Product;
+import com.example.outbox.ProductChange;
+import com.example.repository.ProductCriteria;
+import com.example.repository.ProductPriceBucket;
+import com.example.repository.ProductPriceStats;
+import com.example.repository.ProductRepository;
+import com.example.repository.ProductStore;
+import com.example.repository.ProductSummary;
+import com.example.repository.ProductVersion;
+import io.micronaut.context.BeanLocator;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.connection.jdbc.advice.DelegatingDataSource;
+import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.data.exceptions.OptimisticLockException;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+/**
+ * Products partitioned by id over the datasources in {@code products.shards.datasources}. Ids are allocated by
+ * {@link ProductIdAllocator} before the insert, so every product is read, updated and deleted on the one shard its
+ * id maps to. Lookups by name and listings are sent to all shards in parallel on the blocking executor and their
+ * results merged in id order.
+ * <p>
+ * Each shard keeps the outbox of the changes to its products and commits every write together with its outbox rows.
+ * A write that spans shards, such as {@link #saveAll(Iterable)}, is atomic per shard but not as a whole, and it is
+ * not part of the transaction of the caller. Searches and price statistics are evaluated by every shard and merged:
+ * a search page from the top of each shard, the statistics from their counts, sums and histograms.
+ */
+@Singleton
+@Requires(property = "products.shards.datasources")
+public class ShardedProductRepository implements ProductRepository, ProductStore {
+
+    // Buckets of the histogram the percentiles of findPriceStats are interpolated from
+    static final int PERCENTILE_BUCKETS = 1000;
+
+    // The sortable properties, whose columns have the same name. Names compare as the binary collation of the shards
+    // does, save for characters outside the Basic Multilingual Plane.
+    private static final Map<String, Comparator<Product>> SORTABLE = Map.of(
+            "id", Comparator.comparing(Product::getId),
+            "name", Comparator.comparing(Product::getName),
+            "price", Comparator.comparing(Product::getPrice));
+
+    private final List<ProductShard> shards;
+    private final ShardConfiguration.Strategy strategy;
+    private final long rangeSize;
+    private final Duration timeout;
+    private final ProductIdAllocator idAllocator;
+    private final ExecutorService executorService;
+
+    public ShardedProductRepository(ShardConfiguration configuration,
+                                    ProductIdAllocator idAllocator,
+                                    BeanLocator beanLocator,
+                                    @Named(TaskExecutors.BLOCKING) ExecutorService executorService) {
+        if (configuration.getDatasources().isEmpty()) {
+            throw new IllegalStateException("products.shards.datasources must name at least one datasource");
+        }
+        this.shards = configuration.getDatasources().stream()
+                .map(name -> new ProductShard(name, DelegatingDataSource.unwrapDataSource(
+                        beanLocator.getBean(DataSource.class, Qualifiers.byName(name))), idAllocator))
+                .toList();
+        this.strategy = configuration.getStrategy();
+        this.rangeSize = configuration.getRangeSize();
+        this.timeout = configuration.getTimeout();
+        this.idAllocator = idAllocator;
+        this.executorService = executorService;
+    }
+
+    /**
+     * @return the name of the datasource holding the product with that id
+     */
+    public String shardOf(Long id) {
+        return shard(id).name();
+    }
+
+    /**
+     * Inserts a product without an id, or updates one with an id and the version it was read at.
+     *
+     * @throws OptimisticLockException if the product was changed or deleted since
+     */
+    @Override
+    public <S extends Product> S save(S product) {
+        if (product.getId() == null) {
+            prepareInsert(product);
+            shard(product.getId()).insertAll(List.of(product));
+            return product;
+        }
+        if (product.getVersion() == null) {
+            throw new IllegalArgumentException("Product " + product.getId() + " has no version to update");
+        }
+        Instant now = Instant.now();
+        long updated = updateByIdAndVersion(product.getId(), product.getVersion(),
+                product.getName(), product.getDescription(), product.getPrice(), now);
+        if (updated == 0) {
+            throw new OptimisticLockException("Product " + product.getId() + " has been modified or deleted");
+        }
+        product.setVersion(product.getVersion() + 1);
+        product.setLastModified(now);
+        return product;
+    }
+
+    /**
+     * Inserts products without an id, one batch per shard; products with an id are updated as by
+     * {@link #save(Product)}.
+     */
+    @Override
+    public <S extends Product> List<S> saveAll(Iterable<S> products) {
+        List<S> saved = new ArrayList<>();
+        Map<ProductShard, List<Product>> inserts = new LinkedHashMap<>();
+        for (S product : products) {
+            if (product.getId() == null) {
+                prepareInsert(product);
+                inserts.computeIfAbsent(shard(product.getId()), shard -> new ArrayList<>()).add(product);
+            } else {
+                save(product);
+            }
+            saved.add(product);
+        }
+        gather(inserts, ProductShard::insertAll);
+        return saved;
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return shard(id).findById(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findVersionById(id).isPresent();
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return shard(id).findVersionById(id);
+    }
+
+    /**
+     * All products in id order. Loads the whole table into memory; prefer {@link #findByIdGreaterThanOrderById}.
+     */
+    @Override
+    public List<Product> findAll() {
+        return mergeById(scatter(ProductShard::findAll));
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<Long> ids) {
+        return findByIdIn(toList(ids));
+    }
+
+    @Override
+    public List<Product> findByIdIn(Collection<Long> ids) {
+        return mergeById(gather(byShard(ids), ProductShard::findByIdIn));
+    }
+
+    @Override
+    public List<Long> findIdByIdIn(Collection<Long> ids) {
+        List<Long> found = new ArrayList<>();
+        gather(byShard(ids), ProductShard::findIdByIdIn).forEach(found::addAll);
+        return found;
+    }
+
+    /**
+     * Names are not unique across shards; of several products with that name, the one with the lowest id.
+     */
+    @Override
+    public Optional<Product> findByName(String name) {
+        return scatter(shard -> shard.findByName(name)).stream()
+                .flatMap(Optional::stream)
+                .min(Comparator.comparing(Product::getId));
+    }
+
+    /**
+     * One keyset page: every shard returns its first {@code limit} products after the cursor, and the first
+     * {@code limit} of their union are the page.
+     */
+    public List<Product> findByIdGreaterThanOrderById(long after, int limit) {
+        List<Product> merged = mergeById(scatter(shard -> shard.findByIdGreaterThanOrderById(after, limit)));
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    @Override
+    public List<Product> findByIdGreaterThanOrderById(Long id, Pageable pageable) {
+        return findByIdGreaterThanOrderById(id.longValue(), pageable.getSize());
+    }
+
+    // The shards read full rows here; the projections only save the description column
+    @Override
+    public List<ProductVersion> queryByIdGreaterThanOrderById(Long id, Pageable pageable) {
+        return findByIdGreaterThanOrderById(id, pageable).stream()
+                .map(product -> new ProductVersion(product.getId(), product.getVersion()))
+                .toList();
+    }
+
+    @Override
+    public List<ProductSummary> readByIdGreaterThanOrderById(Long id, Pageable pageable) {
+        return findByIdGreaterThanOrderById(id, pageable).stream()
+                .map(ShardedProductRepository::summary)
+                .toList();
+    }
+
+    /**
+     * Merges the outboxes of all shards like a keyset page. Change ids come from one sequence, so a single cursor
+     * covers every shard.
+     */
+    @Override
+    public List<ProductChange> findChangesAfter(Long id, Instant changedBefore, Pageable pageable) {
+        int limit = pageable.getSize();
+        List<ProductChange> merged = new ArrayList<>();
+        scatter(shard -> shard.findChangesAfter(id, changedBefore, limit)).forEach(merged::addAll);
+        merged.sort(Comparator.comparing(ProductChange::getId));
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * Every shard returns the first {@code offset + size} matches in the order of the page, and the page is cut from
+     * their merge. Only the criteria of {@code ProductSpecifications} can be evaluated by the shards. The page has no
+     * total.
+     */
+    @Override
+    public Page<Product> findAll(@Nullable PredicateSpecification<Product> spec, Pageable pageable) {
+        if (spec != null && !(spec instanceof ProductCriteria)) {
+            throw new IllegalArgumentException("Sharded products can only be searched with ProductCriteria");
+        }
+        ProductCriteria criteria = (ProductCriteria) spec;
+        List<Sort.Order> orders = new ArrayList<>(pageable.getSort().getOrderBy());
+        if (orders.stream().noneMatch(order -> order.getProperty().equals("id"))) {
+            orders.add(Sort.Order.asc("id"));
+        }
+        Comparator<Product> comparator = null;
+        StringJoiner orderBy = new StringJoiner(", ");
+        for (Sort.Order order : orders) {
+            Comparator<Product> byProperty = SORTABLE.get(order.getProperty());
+            if (byProperty == null) {
+                throw new IllegalArgumentException("Sharded products cannot be sorted by " + order.getProperty());
+            }
+            byProperty = order.isAscending() ? byProperty : byProperty.reversed();
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+            orderBy.add(order.getProperty() + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        int offset = pageable.isUnpaged() ? 0 : Math.toIntExact(pageable.getOffset());
+        int limit = pageable.isUnpaged() ? Integer.MAX_VALUE : Math.addExact(offset, pageable.getSize());
+        List<Product> merged = new ArrayList<>();
+        scatter(shard -> shard.search(criteria, orderBy.toString(), limit)).forEach(merged::addAll);
+        merged.sort(comparator);
+        List<Product> content = merged.subList(Math.min(offset, merged.size()), Math.min(limit, merged.size()));
+        return Page.of(new ArrayList<>(content), pageable, (Long) null);
+    }
+
+    /**
+     * Count, sum, minimum and maximum are merged from every shard. Percentiles cannot be, so they are interpolated
+     * from a histogram of {@value #PERCENTILE_BUCKETS} buckets merged over the shards, which puts them within
+     * (max - min) / {@value #PERCENTILE_BUCKETS} of the exact value.
+     */
+    @Override
+    public ProductPriceStats findPriceStats() {
+        long count = 0;
+        BigDecimal sum = BigDecimal.ZERO;
+        BigDecimal min = null;
+        BigDecimal max = null;
+        for (ProductShard.PriceTotals totals : scatter(ProductShard::priceTotals)) {
+            count += totals.count();
+            sum = sum.add(totals.sum());
+            if (totals.min() != null) {
+                min = min == null ? totals.min() : min.min(totals.min());
+                max = max == null ? totals.max() : max.max(totals.max());
+            }
+        }
+        if (count == 0) {
+            return new ProductPriceStats(0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        long[] counts = new long[PERCENTILE_BUCKETS];
+        if (max.compareTo(min) > 0) {
+            for (ProductPriceBucket bucket : findPriceBuckets(min, max.subtract(min), PERCENTILE_BUCKETS)) {
+                counts[bucket.bucket()] = bucket.count();
+            }
+        } else {
+            counts[0] = count;
+        }
+        double low = min.doubleValue();
+        double high = max.doubleValue();
+        return new ProductPriceStats(count, sum.doubleValue(), low, high, sum.doubleValue() / count,
+                percentile(counts, count, low, high, 0.5), percentile(counts, count, low, high, 0.9),
+                percentile(counts, count, low, high, 0.95), percentile(counts, count, low, high, 0.99));
+    }
+
+    @Override
+    public List<ProductPriceBucket> findPriceBuckets(BigDecimal min, BigDecimal range, int buckets) {
+        long[] counts = new long[buckets];
+        for (List<ProductPriceBucket> perShard : scatter(shard -> shard.findPriceBuckets(min, range, buckets))) {
+            perShard.forEach(bucket -> counts[bucket.bucket()] += bucket.count());
+        }
+        List<ProductPriceBucket> merged = new ArrayList<>();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (counts[bucket] > 0) {
+                merged.add(new ProductPriceBucket(bucket, counts[bucket]));
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public long count() {
+        return scatter(ProductShard::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public long updateByIdAndVersion(Long id, long version, String name, String description, BigDecimal price,
+                                     Instant lastModified) {
+        return shard(id).updateByIdAndVersion(id, version, name, description, price, lastModified);
+    }
+
+    /**
+     * Updates each product at the version it was read at, setting its new version and timestamp.
+     *
+     * @throws OptimisticLockException if one of them was changed or deleted since; the products before it are
+     *                                 updated
+     */
+    @Override
+    public List<Product> updateAll(List<Product> products) {
+        products.forEach(this::save);
+        return products;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        shard(id).deleteByIdIn(List.of(id));
+    }
+
+    @Override
+    public void delete(Product product) {
+        deleteById(product.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        deleteByIdIn(toList(ids));
+    }
+
+    @Override
+    public void deleteByIdIn(Collection<Long> ids) {
+        gather(byShard(ids), ProductShard::deleteByIdIn);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Product> products) {
+        deleteByIdIn(StreamSupport.stream(products.spliterator(), false).map(Product::getId).toList());
+    }
+
+    // Records no changes; for clearing the shards in tests and benchmarks
+    @Override
+    public void deleteAll() {
+        scatter(shard -> {
+            shard.deleteAll();
+            return null;
+        });
+    }
+
+    ProductShard shard(long id) {
+        int index = switch (strategy) {
+            // Fibonacci hashing, so that blocks of consecutive ids spread over the shards
+            case HASH -> (int) Long.remainderUnsigned(id * 0x9E3779B97F4A7C15L, shards.size());
+            case RANGE -> (int) Math.min(Math.max(id - 1, 0) / rangeSize, shards.size() - 1);
+        };
+        return shards.get(index);
+    }
+
+    private void prepareInsert(Product product) {
+        product.setId(idAllocator.nextId());
+        product.setVersion(0L);
+        product.setLastModified(Instant.now());
+    }
+
+    private Map<ProductShard, List<Long>> byShard(Collection<Long> ids) {
+        Map<ProductShard, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long id : ids) {
+            byShard.computeIfAbsent(shard(id), shard -> new ArrayList<>()).add(id);
+        }
+        return byShard;
+    }
+
+    private <T> List<T> scatter(Function<ProductShard, T> query) {
+        Map<ProductShard, Void> all = new LinkedHashMap<>();
+        shards.forEach(shard -> all.put(shard, null));
+        return gather(all, (shard, ignored) -> query.apply(shard));
+    }
+
+    // Runs the work for each shard and returns the results in shard order. With several shards, the first runs on
+    // the calling thread while the others run in parallel on the executor.
+    private <A, T> List<T> gather(Map<ProductShard, A> work, ShardWork<A, T> action) {
+        if (work.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<ProductShard, A>> entries = new ArrayList<>(work.entrySet());
+        List<CompletableFuture<T>> futures = entries.subList(1, entries.size()).stream()
+                .map(entry -> CompletableFuture.supplyAsync(
+                        () -> action.apply(entry.getKey(), entry.getValue()), executorService))
+                .toList();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<T> results = new ArrayList<>(entries.size());
+        results.add(action.apply(entries.get(0).getKey(), entries.get(0).getValue()));
+        if (futures.isEmpty()) {
+            return results;
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new DataAccessException("Shard query failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new DataAccessException("Shards did not answer within " + timeout.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for the shards");
+        }
+        futures.forEach(future -> results.add(future.join()));
+        return results;
+    }
+
+    // Interpolates between the prices at the ranks around p * (count - 1), as PERCENTILE_CONT does
+    private static double percentile(long[] counts, long count, double min, double max, double p) {
+        double rank = p * (count - 1);
+        long below = (long) Math.floor(rank);
+        double lower = priceAt(counts, below, min, max);
+        return below == rank ? lower : lower + (rank - below) * (priceAt(counts, below + 1, min, max) - lower);
+    }
+
+    // The price at that rank, taking the prices in its bucket to be spread evenly over the bucket
+    private static double priceAt(long[] counts, long rank, double min, double max) {
+        double width = (max - min) / counts.length;
+        long before = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (rank < before + counts[bucket]) {
+                double price = min + width * (bucket + (rank - before + 0.5) / counts[bucket]);
+                return Math.min(Math.max(price, min), max);
+            }
+            before += counts[bucket];
+        }
+        return max;
+    }
+
+    private static ProductSummary summary(Product product) {
+        return new ProductSummary(product.getId(), product.getName(), product.getPrice(), product.getVersion(),
+                product.getLastModified());
+    }
+
+    // The shards return their rows in id order; List.sort finds those runs, so this is a linear merge
+    private static List<Product> mergeById(List<List<Product>> perShard) {
+        List<Product> merged = new ArrayList<>(perShard.stream().mapToInt(List::size).sum());
+        perShard.forEach(merged::addAll);
+        merged.sort(Comparator.comparing(Product::getId));
+        return merged;
+    }
+
+    private static List<Long> toList(Iterable<? extends Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+
+    @FunctionalInterface
+    private interface ShardWork<A, T> {
+        T apply(ProductShard shard, A argument);
+    }
+}
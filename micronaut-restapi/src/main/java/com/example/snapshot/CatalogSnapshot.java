@@ -0,0 +1,152 @@
+package com.example.snapshot;
+
+import io.micronaut.core.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * A read-only snapshot of the catalog, memory-mapped from a file written by {@link CatalogSnapshotWriter}. The
+ * file holds, big-endian:
+ * <pre>
+ * header   magic, count (ints), built-at epoch millis, index offset (longs)
+ * records  the JSON of every product in id order, each followed by a comma
+ * index    per product: id, version, last-modified epoch millis and record offset (longs)
+ * </pre>
+ * Lookups binary-search the index. The records of consecutive products are adjacent, so a page of them is one
+ * slice of the file; neither copies the JSON nor allocates per product.
+ */
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x50435331;
+    static final int HEADER_SIZE = 24;
+    static final int ENTRY_SIZE = 32;
+    static final long NO_LAST_MODIFIED = Long.MIN_VALUE;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final Instant builtAt;
+    private final int indexOffset;
+
+    private CatalogSnapshot(Path file, ByteBuffer buffer, int size, Instant builtAt, int indexOffset) {
+        this.file = file;
+        this.buffer = buffer;
+        this.size = size;
+        this.builtAt = builtAt;
+        this.indexOffset = indexOffset;
+    }
+
+    public static CatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot " + file + " has " + length + " bytes, more than one mapping holds");
+            }
+            // The mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (length < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a catalog snapshot");
+            }
+            int size = buffer.getInt(4);
+            long indexOffset = buffer.getLong(16);
+            if (indexOffset + (long) size * ENTRY_SIZE != length) {
+                throw new IOException("Catalog snapshot " + file + " is incomplete");
+            }
+            return new CatalogSnapshot(file, buffer, size, Instant.ofEpochMilli(buffer.getLong(8)), (int) indexOffset);
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * When the build of this snapshot began; it holds every change committed before.
+     */
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    /**
+     * @return the position of the product with that id, or -1 if the snapshot has none
+     */
+    public int indexOf(long id) {
+        int position = lowerBound(id);
+        return position < size && id(position) == id ? position : -1;
+    }
+
+    /**
+     * @return the position of the first product with a greater id, or {@link #size()} if there is none
+     */
+    public int firstAfter(long id) {
+        return id == Long.MAX_VALUE ? size : lowerBound(id + 1);
+    }
+
+    public long id(int position) {
+        return buffer.getLong(entry(position));
+    }
+
+    public long version(int position) {
+        return buffer.getLong(entry(position) + 8);
+    }
+
+    @Nullable
+    public Instant lastModified(int position) {
+        long millis = buffer.getLong(entry(position) + 16);
+        return millis == NO_LAST_MODIFIED ? null : Instant.ofEpochMilli(millis);
+    }
+
+    /**
+     * The JSON of the product at that position, as a read-only view of the mapped file.
+     */
+    public ByteBuffer json(int position) {
+        return records(position, position + 1);
+    }
+
+    /**
+     * The JSON of the products from position {@code from} up to {@code to}, separated by commas: a JSON array
+     * without its brackets, as a read-only view of the mapped file.
+     */
+    public ByteBuffer records(int from, int to) {
+        if (from >= to) {
+            return EMPTY;
+        }
+        int start = offset(from);
+        // Leaves out the comma after the last record
+        int end = (to < size ? offset(to) : indexOffset) - 1;
+        return buffer.slice(start, end - start);
+    }
+
+    private int lowerBound(long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (id(middle) < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int offset(int position) {
+        return (int) buffer.getLong(entry(position) + 24);
+    }
+
+    private int entry(int position) {
+        return indexOffset + position * ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.snapshot;
+
+import io.micronaut.core.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Writes a {@link CatalogSnapshot} file from products added in ascending id order. The records are written as
+ * they are added and the index to a file next to it, which is appended once all products are in; neither is held
+ * in memory.
+ */
+final class CatalogSnapshotWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final Path indexFile;
+    private final DataOutputStream records;
+    private final DataOutputStream index;
+    private long offset = CatalogSnapshot.HEADER_SIZE;
+    private int count;
+    private long lastId = Long.MIN_VALUE;
+
+    CatalogSnapshotWriter(Path file) throws IOException {
+        this.file = file;
+        this.indexFile = file.resolveSibling(file.getFileName() + ".index");
+        this.records = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+        this.index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile), BUFFER_SIZE));
+        // Filled in by finish
+        records.write(new byte[CatalogSnapshot.HEADER_SIZE]);
+    }
+
+    void add(long id, long version, @Nullable Instant lastModified, byte[] json) throws IOException {
+        if (id <= lastId) {
+            throw new IllegalArgumentException("Product " + id + " added after product " + lastId);
+        }
+        if (offset + json.length + 1 + (long) (count + 1) * CatalogSnapshot.ENTRY_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot " + file + " would exceed " + Integer.MAX_VALUE + " bytes");
+        }
+        index.writeLong(id);
+        index.writeLong(version);
+        index.writeLong(lastModified != null ? lastModified.toEpochMilli() : CatalogSnapshot.NO_LAST_MODIFIED);
+        index.writeLong(offset);
+        records.write(json);
+        records.write(',');
+        offset += json.length + 1;
+        count++;
+        lastId = id;
+    }
+
+    /**
+     * Completes the file; {@code builtAt} is when the products began to be read.
+     */
+    void finish(Instant builtAt) throws IOException {
+        index.close();
+        Files.copy(indexFile, records);
+        records.close();
+        ByteBuffer header = ByteBuffer.allocate(CatalogSnapshot.HEADER_SIZE)
+                .putInt(CatalogSnapshot.MAGIC)
+                .putInt(count)
+                .putLong(builtAt.toEpochMilli())
+                .putLong(offset)
+                .flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            index.close();
+            records.close();
+        } finally {
+            Files.deleteIfExists(indexFile);
+        }
+    }
+}
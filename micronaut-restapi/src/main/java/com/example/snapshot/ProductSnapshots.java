@@ -0,0 +1,292 @@
+package com.example.snapshot;
+
+import com.example.config.PaginationConfiguration;
+import com.example.config.SnapshotConfiguration;
+import com.example.event.ProductChangedEvent;
+import com.example.model.Product;
+import com.example.repository.ProductStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a {@link CatalogSnapshot} of all products, from which {@code ProductController} serves reads without
+ * going to the database. It is rebuilt every {@code products.snapshot.refresh-interval} while products have
+ * changed, and replaced atomically: a read uses either the old or the new snapshot, never a mix.
+ * <p>
+ * Products changed through this instance since the current snapshot began to be built are tracked; reads of
+ * them go to the database, and pages do too once the oldest such change is {@code max-staleness} old. Changes
+ * made elsewhere are picked up by the next build, which happens at the latest at half of {@code max-age}.
+ */
+@Singleton
+@Requires(property = "products.snapshot.enabled", value = "true")
+public class ProductSnapshots {
+
+    public static final String BUILD_METRIC = "products.snapshot.build";
+    public static final String READS_METRIC = "products.snapshot.reads";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductSnapshots.class);
+
+    private final ProductStore productStore;
+    private final JsonMapper jsonMapper;
+    private final Path directory;
+    private final int batchSize;
+    private final long maxStalenessNanos;
+    private final long maxAgeMillis;
+    private final AtomicLong changes = new AtomicLong();
+    // One build at a time, held while the build reads the database and writes the file; changes are not recorded
+    // while a swap carries the pending ones over to the new generation
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private volatile Generation current = new Generation(null, new ConcurrentHashMap<>());
+
+    private final Timer builds;
+    private final Counter servedFromSnapshot;
+    private final Counter servedFromDatabase;
+
+    public ProductSnapshots(ProductStore productStore,
+                            JsonMapper jsonMapper,
+                            SnapshotConfiguration configuration,
+                            PaginationConfiguration pagination,
+                            MeterRegistry meterRegistry) {
+        this.productStore = productStore;
+        this.jsonMapper = jsonMapper;
+        this.directory = Path.of(configuration.getDirectory());
+        this.batchSize = pagination.getStreamBatchSize();
+        this.maxStalenessNanos = configuration.getMaxStaleness().toNanos();
+        this.maxAgeMillis = configuration.getMaxAge().toMillis();
+        this.builds = Timer.builder(BUILD_METRIC)
+                .description("Time to write and map a catalog snapshot")
+                .register(meterRegistry);
+        this.servedFromSnapshot = reads(meterRegistry, "snapshot");
+        this.servedFromDatabase = reads(meterRegistry, "database");
+    }
+
+    /**
+     * @return the snapshot to read the product with that id from, or null if it has to be read from the
+     * database. A product missing from the returned snapshot does not exist.
+     */
+    @Nullable
+    public CatalogSnapshot forProduct(long id) {
+        Generation generation = current;
+        return count(isServable(generation) && !generation.changed.containsKey(id) ? generation.snapshot : null);
+    }
+
+    /**
+     * @return the snapshot to read pages from, or null if they have to be read from the database
+     */
+    @Nullable
+    public CatalogSnapshot forPages() {
+        Generation generation = current;
+        boolean fresh = generation.changed.isEmpty() || System.nanoTime() - generation.oldestChange < maxStalenessNanos;
+        return count(isServable(generation) && fresh ? generation.snapshot : null);
+    }
+
+    @Nullable
+    public CatalogSnapshot current() {
+        return current.snapshot;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        markChanged(event.id());
+    }
+
+    // Again once committed, so that a build that began before the commit does not count as having the change
+    @TransactionalEventListener(TransactionalEventListener.TransactionPhase.AFTER_COMPLETION)
+    public void onProductChangeCompleted(ProductChangedEvent event) {
+        markChanged(event.id());
+    }
+
+    @Scheduled(fixedDelay = "${products.snapshot.refresh-interval:1s}")
+    public void refresh() {
+        Generation generation = current;
+        boolean due = generation.snapshot == null
+                || !generation.changed.isEmpty()
+                || System.currentTimeMillis() - generation.snapshot.builtAt().toEpochMilli() >= maxAgeMillis / 2;
+        if (!due) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // The current snapshot is served until it is too old
+            LOG.warn("Building the catalog snapshot failed", e);
+        }
+    }
+
+    /**
+     * Builds a snapshot of all products and swaps it in.
+     */
+    public void rebuild() {
+        buildLock.lock();
+        try {
+            // Changes up to here are committed, or will be marked again when they are
+            long since = changes.get();
+            Instant builtAt = Instant.now();
+            long start = System.nanoTime();
+            CatalogSnapshot snapshot = build(builtAt);
+            CatalogSnapshot previous = swap(snapshot, since);
+            builds.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            LOG.debug("Built a catalog snapshot of {} products in {}", snapshot.size(), snapshot.file());
+            if (previous != null) {
+                delete(previous.file());
+            }
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        CatalogSnapshot snapshot = current.snapshot;
+        if (snapshot != null) {
+            delete(snapshot.file());
+        }
+    }
+
+    private CatalogSnapshot build(Instant builtAt) {
+        Path file;
+        try {
+            Files.createDirectories(directory);
+            file = Files.createTempFile(directory, "catalog-", ".snapshot");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            write(file, builtAt);
+            return CatalogSnapshot.open(file);
+        } catch (IOException e) {
+            delete(file);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+    }
+
+    // Reads the products in keyset batches, so that neither the rows nor their JSON are all held at once. From the
+    // primary: a replica that lags behind the changes counted since would leave stale products in the snapshot
+    private void write(Path file, Instant builtAt) throws IOException {
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            Pageable batch = Pageable.from(0, batchSize);
+            long after = 0;
+            List<Product> products;
+            do {
+                products = productStore.findByIdGreaterThanOrderById(after, batch);
+                for (Product product : products) {
+                    writer.add(product.getId(), product.getVersion(), product.getLastModified(),
+                            jsonMapper.writeValueAsBytes(product));
+                    after = product.getId();
+                }
+            } while (products.size() == batchSize);
+            writer.finish(builtAt);
+        }
+    }
+
+    private CatalogSnapshot swap(CatalogSnapshot snapshot, long since) {
+        changeLock.lock();
+        try {
+            Generation previous = current;
+            Map<Long, Change> changed = new ConcurrentHashMap<>();
+            previous.changed.forEach((id, change) -> {
+                if (change.sequence() > since) {
+                    changed.put(id, change);
+                }
+            });
+            Generation next = new Generation(snapshot, changed);
+            next.oldestChange = changed.values().stream()
+                    .mapToLong(Change::since)
+                    .reduce((oldest, other) -> other - oldest < 0 ? other : oldest)
+                    .orElse(0);
+            current = next;
+            return previous.snapshot;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private void markChanged(Long id) {
+        long now = System.nanoTime();
+        changeLock.lock();
+        try {
+            Generation generation = current;
+            if (generation.changed.isEmpty()) {
+                generation.oldestChange = now;
+            }
+            // A product changed again keeps the time of its first change
+            generation.changed.merge(id, new Change(changes.incrementAndGet(), now),
+                    (first, latest) -> new Change(latest.sequence(), first.since()));
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Nullable
+    private CatalogSnapshot count(@Nullable CatalogSnapshot snapshot) {
+        (snapshot != null ? servedFromSnapshot : servedFromDatabase).increment();
+        return snapshot;
+    }
+
+    private boolean isServable(Generation generation) {
+        return generation.snapshot != null
+                && System.currentTimeMillis() - generation.snapshot.builtAt().toEpochMilli() < maxAgeMillis;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Windows does not delete a file while it is mapped; it is left behind
+            LOG.debug("Could not delete catalog snapshot {}", file, e);
+        }
+    }
+
+    private static Counter reads(MeterRegistry meterRegistry, String source) {
+        return Counter.builder(READS_METRIC)
+                .description("Product reads by whether the catalog snapshot could answer them")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    // A snapshot and the products changed since its build began, by the sequence number of their last change and
+    // the System.nanoTime() of their first
+    private static final class Generation {
+
+        @Nullable
+        private final CatalogSnapshot snapshot;
+        private final Map<Long, Change> changed;
+        private volatile long oldestChange;
+
+        private Generation(@Nullable CatalogSnapshot snapshot, Map<Long, Change> changed) {
+            this.snapshot = snapshot;
+            this.changed = changed;
+        }
+    }
+
+    private record Change(long sequence, long since) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.warmup;
+
+import com.example.config.WarmupConfiguration;
+import com.example.controller.ProductController;
+import com.example.model.Product;
+import com.example.repository.ProductReadRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.convert.ConversionService;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.simple.SimpleHttpHeaders;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.runtime.server.event.ServerStartupEvent;
+import io.micronaut.scheduling.TaskExecutors;
+import io.netty.buffer.ByteBuf;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives synthetic read traffic through {@link ProductController} and the JSON serde once the server has
+ * started, so that the JIT compiles the hot paths, the connection pools fill and the caches load before the
+ * first real request. {@link WarmupHealthIndicator} keeps readiness down until it completes. Nothing is
+ * written: the request body path of creates and updates is exercised by deserializing and validating a
+ * product without saving it.
+ */
+@Singleton
+@Requires(property = "products.warmup.enabled", notEquals = "false")
+public class ProductWarmup {
+
+    public static final String DURATION_METRIC = "products.warmup.duration";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductWarmup.class);
+    private static final String SPARSE_FIELDS = "id,name,price";
+    private static final byte[] SAMPLE_BODY = "{\"name\":\"Warm-up\",\"description\":\"Warm-up product\",\"price\":9.99}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ProductController productController;
+    private final ProductReadRouter productReads;
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+    private final WarmupConfiguration configuration;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executorService;
+    private final HttpHeaders headers;
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile boolean stopped;
+    private volatile boolean complete;
+
+    public ProductWarmup(ProductController productController,
+                         ProductReadRouter productReads,
+                         JsonMapper jsonMapper,
+                         Validator validator,
+                         WarmupConfiguration configuration,
+                         MeterRegistry meterRegistry,
+                         ConversionService conversionService,
+                         @Named(TaskExecutors.BLOCKING) ExecutorService executorService) {
+        this.productController = productController;
+        this.productReads = productReads;
+        this.jsonMapper = jsonMapper;
+        this.validator = validator;
+        this.configuration = configuration;
+        this.meterRegistry = meterRegistry;
+        this.executorService = executorService;
+        this.headers = new SimpleHttpHeaders(conversionService);
+    }
+
+    @EventListener
+    public void onStartup(ServerStartupEvent event) {
+        long start = System.nanoTime();
+        long deadline = start + configuration.getMaxDuration().toNanos();
+        int workers = Math.max(1, configuration.getConcurrency());
+        AtomicInteger running = new AtomicInteger(workers);
+        for (int i = 0; i < workers; i++) {
+            executorService.execute(() -> {
+                try {
+                    work(deadline);
+                } finally {
+                    if (running.decrementAndGet() == 0) {
+                        finish(System.nanoTime() - start);
+                    }
+                }
+            });
+        }
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int getCompletedIterations() {
+        return completed.get();
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+    }
+
+    private void work(long deadline) {
+        long after = 0;
+        try {
+            while (!stopped && System.nanoTime() - deadline < 0
+                    && started.getAndIncrement() < configuration.getIterations()) {
+                after = iteration(after);
+                completed.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            // Most likely the database; its own health indicator reports that
+            stopped = true;
+            LOG.warn("Warm-up stopped after {} iterations", completed.get(), e);
+        }
+    }
+
+    // Returns the cursor of the next page, wrapping around at the end of the table
+    private long iteration(long after) {
+        int pageSize = configuration.getPageSize();
+        List<Product> page = productReads.findByIdGreaterThanOrderById(after, Pageable.from(0, pageSize));
+        serialize(productController.getAllProducts(after, pageSize, null, headers).body());
+        serialize(productController.getAllProducts(after, pageSize, SPARSE_FIELDS, headers).body());
+        for (Product product : page) {
+            Long id = product.getId();
+            serialize(productController.getProduct(id, null, headers).body());
+            serialize(productController.getProduct(id, SPARSE_FIELDS, headers).body());
+        }
+        productController.getProduct(-1L, null, headers);
+
+        String prefix = page.isEmpty() ? "a" : page.get(0).getName().substring(0, 1);
+        serialize(productController.searchProducts(prefix, ProductController.NameMatch.PREFIX, null, null, "price", pageSize));
+
+        try {
+            validator.validate(jsonMapper.readValue(SAMPLE_BODY, Product.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return page.size() < pageSize ? 0 : page.get(page.size() - 1).getId();
+    }
+
+    private void serialize(Object body) {
+        // Bodies served from the catalog snapshot are JSON already
+        if (body == null || body instanceof ByteBuf) {
+            return;
+        }
+        try {
+            jsonMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void finish(long nanos) {
+        meterRegistry.timer(DURATION_METRIC).record(Duration.ofNanos(nanos));
+        complete = true;
+        LOG.info("Warm-up completed {} iterations in {} ms", completed.get(), Duration.ofNanos(nanos).toMillis());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.warmup;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.async.publisher.Publishers;
+import io.micronaut.health.HealthStatus;
+import io.micronaut.management.health.indicator.HealthIndicator;
+import io.micronaut.management.health.indicator.HealthResult;
+import jakarta.inject.Singleton;
+import org.reactivestreams.Publisher;
+
+import java.util.Map;
+
+/**
+ * Reports {@code DOWN} until {@link ProductWarmup} has completed. It is not a liveness indicator, so only
+ * {@code /health} and {@code /health/readiness} wait for it.
+ */
+@Singleton
+@Requires(beans = ProductWarmup.class)
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    public static final String NAME = "warmup";
+
+    private final ProductWarmup warmup;
+
+    public WarmupHealthIndicator(ProductWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+    @Override
+    public Publisher<HealthResult> getResult() {
+        HealthStatus status = warmup.isComplete() ? HealthStatus.UP : HealthStatus.DOWN;
+        return Publishers.just(HealthResult.builder(NAME, status)
+                .details(Map.of("iterations", warmup.getCompletedIterations()))
+                .build());
+    }
+}
@@ -0,0 +1,17 @@
+-- Steps of 50 match the id pool Hibernate draws from products_seq (allocationSize = 50), so both persistence
+-- modes can share the sequence
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE products (
+    id NUMBER(19) NOT NULL,
+    name VARCHAR2(100 CHAR) NOT NULL,
+    description VARCHAR2(500 CHAR),
+    price NUMBER(38, 2) NOT NULL,
+    version NUMBER(19) DEFAULT 0 NOT NULL,
+    last_modified TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_products PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_products_id_version ON products (id, version);
+CREATE INDEX idx_products_name ON products (name);
+CREATE INDEX idx_products_price ON products (price);
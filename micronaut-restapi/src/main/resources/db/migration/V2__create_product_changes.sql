@@ -0,0 +1,10 @@
+-- Every value reserves the 50 ids up to it, see ChangeIds
+CREATE SEQUENCE product_changes_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE product_changes (
+    id NUMBER(19) NOT NULL,
+    product_id NUMBER(19) NOT NULL,
+    type VARCHAR2(16 CHAR) NOT NULL,
+    changed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_product_changes PRIMARY KEY (id)
+);
@@ -0,0 +1,3 @@
+-- A products table Hibernate created before the migrations, adopted with baseline-version=3, has a nullable version
+-- column and NULL in the rows written before it existed; no update by version would match them
+UPDATE products SET version = 0 WHERE version IS NULL;
@@ -0,0 +1,2 @@
+-- A request claims its key with a row without a body and writes its response into that row before committing
+ALTER TABLE idempotency_keys MODIFY (body NULL);
@@ -0,0 +1,170 @@
+package com.example.admission;
+
+import com.example.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Each test identifies as its own client so that the buckets of other tests do not interfere
+@MicronautTest
+@Property(name = "products.admission.enabled", value = "true")
+@Property(name = "products.admission.client-header", value = AdmissionFilterTest.CLIENT_HEADER)
+@Property(name = "products.admission.reads.rate", value = "0.5")
+@Property(name = "products.admission.reads.burst", value = "3")
+@Property(name = "products.admission.writes.rate", value = "0.5")
+@Property(name = "products.admission.writes.burst", value = "2")
+class AdmissionFilterTest {
+
+    static final String CLIENT_HEADER = "X-Client-Id";
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private static <T> MutableHttpRequest<T> as(String clientId, MutableHttpRequest<T> request) {
+        return request.header(CLIENT_HEADER, clientId);
+    }
+
+    private HttpStatus read(String clientId) {
+        try {
+            return client.toBlocking().exchange(as(clientId, HttpRequest.GET("/products?limit=1"))).getStatus();
+        } catch (HttpClientResponseException e) {
+            return e.getStatus();
+        }
+    }
+
+    @Test
+    void testClientOverRateIsRejectedWithRetryAfter() {
+        String clientId = UUID.randomUUID().toString();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.OK, read(clientId));
+        }
+
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(as(clientId, HttpRequest.GET("/products?limit=1"))));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatus());
+        long retryAfter = Long.parseLong(exception.getResponse().getHeaders().get(HttpHeaders.RETRY_AFTER));
+        assertTrue(retryAfter >= 1 && retryAfter <= 2, "Retry-After " + retryAfter);
+        assertTrue(meterRegistry.counter(AdmissionFilter.REJECTED_METRIC, "budget", "reads", "reason", "rate-limit").count() > 0);
+    }
+
+    @Test
+    void testClientsHaveSeparateBuckets() {
+        String exhausted = UUID.randomUUID().toString();
+        for (int i = 0; i < 4; i++) {
+            read(exhausted);
+        }
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, read(exhausted));
+        assertEquals(HttpStatus.OK, read(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void testWritesHaveTheirOwnBudget() {
+        String clientId = UUID.randomUUID().toString();
+        for (int i = 0; i < 4; i++) {
+            read(clientId);
+        }
+        Product product = new Product("Admitted Product", "Admission", new BigDecimal("4.00"));
+
+        HttpResponse<Product> created = client.toBlocking().exchange(as(clientId, HttpRequest.POST("/products", product)), Product.class);
+
+        assertEquals(HttpStatus.CREATED, created.getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, read(clientId));
+    }
+
+    @Test
+    void testTokenBucketRefills() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    void testLimitRejectsBeyondInFlight() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, TimeUnit.MILLISECONDS.toNanos(100));
+        long now = System.nanoTime();
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        limit.release(now, now, false);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void testLimitShrinksOnSlowResponsesAndGrowsOnFastOnes() {
+        long threshold = TimeUnit.MILLISECONDS.toNanos(100);
+        AdaptiveLimit limit = new AdaptiveLimit(20, 2, 40, threshold);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 50; i++) {
+            now += threshold * 3;
+            limit.tryAcquire();
+            limit.release(now, now + threshold * 2, false);
+        }
+        assertEquals(2, limit.limit());
+
+        for (int i = 0; i < 20; i++) {
+            now += threshold;
+            limit.tryAcquire();
+            limit.tryAcquire();
+            limit.release(now, now + threshold / 2, false);
+            limit.release(now, now + threshold / 2, false);
+        }
+        assertTrue(limit.limit() > 2, "limit " + limit.limit());
+    }
+
+    @Test
+    void testOneSlowRoundShrinksOnce() {
+        long threshold = TimeUnit.MILLISECONDS.toNanos(100);
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 10, threshold);
+        long start = System.nanoTime() + 1;
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        for (int i = 0; i < 10; i++) {
+            limit.release(start, start + threshold * 2 + i, false);
+        }
+
+        assertEquals(9, limit.limit());
+    }
+
+    @Test
+    void testLimitShrinksOnFailures() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 10, TimeUnit.SECONDS.toNanos(1));
+        long now = System.nanoTime() + 1;
+
+        limit.tryAcquire();
+        limit.release(now, now, true);
+
+        assertEquals(9, limit.limit());
+    }
+}
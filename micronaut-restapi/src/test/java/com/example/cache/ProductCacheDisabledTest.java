@@ -0,0 +1,21 @@
+package com.example.cache;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@MicronautTest
+@Property(name = "products.cache.enabled", value = "false")
+class ProductCacheDisabledTest {
+
+    @Inject
+    ProductCache productCache;
+
+    @Test
+    void testCacheCanBeSwitchedOff() {
+        assertInstanceOf(NoOpProductCache.class, productCache);
+    }
+}
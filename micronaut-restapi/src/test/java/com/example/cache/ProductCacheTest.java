@@ -0,0 +1,154 @@
+package com.example.cache;
+
+import com.example.model.Product;
+import com.example.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest(transactional = false)
+class ProductCacheTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    ProductCache productCache;
+
+    @Inject
+    ProductService productService;
+
+    @Inject
+    RollbackHelper rollbackHelper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Product createProduct(String name) {
+        Product product = new Product(name, "Test Description", new BigDecimal("19.99"));
+        return client.toBlocking().retrieve(HttpRequest.POST("/products", product), Product.class);
+    }
+
+    private Product getProduct(Long id) {
+        return client.toBlocking().retrieve(HttpRequest.GET("/products/" + id), Product.class);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "products").tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void testCacheEnabledByDefault() {
+        assertInstanceOf(SyncProductCache.class, productCache);
+    }
+
+    @Test
+    void testRepeatedReadIsServedFromCache() {
+        Product product = createProduct("Cached Product");
+
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
+        getProduct(product.getId());
+        getProduct(product.getId());
+
+        assertEquals(missesBefore + 1, cacheGets("miss"));
+        assertEquals(hitsBefore + 1, cacheGets("hit"));
+    }
+
+    @Test
+    void testSparseReadIsServedFromCache() {
+        Product product = createProduct("Cached Sparse Product");
+        getProduct(product.getId());
+
+        double hitsBefore = cacheGets("hit");
+        Product sparse = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/" + product.getId() + "?fields=id,name"), Product.class);
+
+        assertEquals("Cached Sparse Product", sparse.getName());
+        assertEquals(hitsBefore + 1, cacheGets("hit"));
+    }
+
+    @Test
+    void testNoStaleReadAfterUpdate() {
+        Product product = createProduct("Before Update");
+        getProduct(product.getId());
+
+        Product update = new Product("After Update", "Updated Description", new BigDecimal("29.99"));
+        client.toBlocking().exchange(HttpRequest.PUT("/products/" + product.getId(), update), Product.class);
+
+        Product retrieved = getProduct(product.getId());
+        assertEquals("After Update", retrieved.getName());
+        assertEquals(0, new BigDecimal("29.99").compareTo(retrieved.getPrice()));
+    }
+
+    @Test
+    void testNoStaleReadAfterDelete() {
+        Product product = createProduct("Deleted Product");
+        getProduct(product.getId());
+
+        client.toBlocking().exchange(HttpRequest.DELETE("/products/" + product.getId()));
+
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> getProduct(product.getId())
+        );
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void testFindByNameFollowsRename() {
+        Product product = createProduct("Original Name");
+        assertTrue(productService.findByName("Original Name").isPresent());
+
+        productService.update(product.getId(), new Product("New Name", "Test Description", new BigDecimal("19.99")));
+
+        assertFalse(productService.findByName("Original Name").isPresent());
+        assertEquals(product.getId(), productService.findByName("New Name").orElseThrow().getId());
+    }
+
+    @Test
+    void testRolledBackUpdateIsNotCached() {
+        Product product = createProduct("Committed Name");
+
+        assertThrows(IllegalStateException.class, () -> rollbackHelper.updateReadAndFail(product.getId()));
+
+        Optional<Product> retrieved = productService.findById(product.getId());
+        assertEquals("Committed Name", retrieved.orElseThrow().getName());
+    }
+
+    @Singleton
+    static class RollbackHelper {
+
+        private final ProductService productService;
+
+        RollbackHelper(ProductService productService) {
+            this.productService = productService;
+        }
+
+        @Transactional
+        public void updateReadAndFail(Long id) {
+            productService.update(id, new Product("Uncommitted Name", "Test Description", new BigDecimal("19.99")));
+            // Reading inside the transaction caches the uncommitted row
+            productService.findById(id);
+            throw new IllegalStateException("Rollback");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.controller;
+
+import com.example.codec.ProductMediaTypes;
+import com.example.service.ImportReport;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@MicronautTest(transactional = false)
+@Property(name = "micronaut.server.max-request-size", value = "1KB")
+@Property(name = "products.transfer.max-import-size", value = "8KB")
+class ImportSizeLimitTest {
+
+    private static final MediaType CSV = MediaType.of(ProductMediaTypes.TEXT_CSV);
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    // About 40 bytes per row
+    private static String csv(int rows) {
+        StringBuilder body = new StringBuilder("name,price\n");
+        String tag = UUID.randomUUID().toString();
+        for (int i = 0; i < rows; i++) {
+            body.append(tag).append(',').append(i).append(".50\n");
+        }
+        return body.toString();
+    }
+
+    @Test
+    void testImportMayExceedTheServerLimit() {
+        ImportReport report = client.toBlocking().retrieve(
+                HttpRequest.POST("/products/import", csv(100)).contentType(CSV), ImportReport.class);
+
+        assertEquals(100, report.imported());
+    }
+
+    @Test
+    void testImportIsCappedAtItsOwnLimit() {
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(HttpRequest.POST("/products/import", csv(500)).contentType(CSV)));
+
+        assertEquals(HttpStatus.REQUEST_ENTITY_TOO_LARGE, exception.getStatus());
+    }
+
+    @Test
+    void testOtherRoutesKeepTheServerLimit() {
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(HttpRequest.POST("/products/batch", csv(100))
+                        .contentType(ProductMediaTypes.APPLICATION_NDJSON)));
+
+        assertEquals(HttpStatus.REQUEST_ENTITY_TOO_LARGE, exception.getStatus());
+    }
+}
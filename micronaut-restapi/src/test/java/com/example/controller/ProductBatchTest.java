@@ -0,0 +1,126 @@
+package com.example.controller;
+
+import com.example.model.Product;
+import com.example.service.BatchItemResult;
+import com.example.service.BatchResult;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@MicronautTest
+@Property(name = "products.batch.chunk-size", value = "2")
+@Property(name = "products.batch.max-items", value = "10")
+class ProductBatchTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    private BatchResult createProducts(List<Product> products) {
+        return client.toBlocking().retrieve(HttpRequest.POST("/products/batch", products), BatchResult.class);
+    }
+
+    private HttpStatus getStatus(Long id) {
+        try {
+            return client.toBlocking().exchange(HttpRequest.GET("/products/" + id), Product.class).status();
+        } catch (HttpClientResponseException e) {
+            return e.getStatus();
+        }
+    }
+
+    @Test
+    void testCreateProductsReportsEachItem() {
+        List<Product> products = List.of(
+                new Product("Batch 1", "Description 1", new BigDecimal("1.99")),
+                new Product("", "Invalid name", new BigDecimal("2.99")),
+                new Product("Batch 3", "Description 3", new BigDecimal("3.99")),
+                new Product("Batch 4", "Description 4", new BigDecimal("0.0")),
+                new Product("Batch 5", "Description 5", new BigDecimal("5.99"))
+        );
+
+        BatchResult result = createProducts(products);
+
+        assertEquals(3, result.succeeded());
+        assertEquals(2, result.failed());
+        assertEquals(List.of(201, 400, 201, 400, 201), result.items().stream().map(BatchItemResult::status).toList());
+        assertEquals(List.of("Name is required"), result.items().get(1).errors());
+        assertEquals(List.of("Price must be greater than 0"), result.items().get(3).errors());
+        for (int index : new int[]{0, 2, 4}) {
+            assertNotNull(result.items().get(index).id());
+            assertEquals(HttpStatus.OK, getStatus(result.items().get(index).id()));
+        }
+    }
+
+    @Test
+    void testUpdateProducts() {
+        BatchResult created = createProducts(List.of(
+                new Product("Batch 1", "Description 1", new BigDecimal("1.99")),
+                new Product("Batch 2", "Description 2", new BigDecimal("2.99")),
+                new Product("Batch 3", "Description 3", new BigDecimal("3.99"))
+        ));
+        List<Product> updates = new ArrayList<>();
+        for (BatchItemResult item : created.items()) {
+            Product update = new Product("Updated " + item.index(), "Updated", new BigDecimal("9.99"));
+            update.setId(item.id());
+            updates.add(update);
+        }
+        Product missing = new Product("Missing", "Missing", new BigDecimal("9.99"));
+        missing.setId(999_999L);
+        updates.add(missing);
+        updates.add(new Product("No id", "No id", new BigDecimal("9.99")));
+
+        BatchResult result = client.toBlocking().retrieve(HttpRequest.PUT("/products/batch", updates), BatchResult.class);
+
+        assertEquals(List.of(200, 200, 200, 404, 400), result.items().stream().map(BatchItemResult::status).toList());
+        Product updated = client.toBlocking().retrieve(HttpRequest.GET("/products/" + created.items().get(1).id()), Product.class);
+        assertEquals("Updated 1", updated.getName());
+        assertEquals(0, new BigDecimal("9.99").compareTo(updated.getPrice()));
+    }
+
+    @Test
+    void testDeleteProducts() {
+        BatchResult created = createProducts(List.of(
+                new Product("Batch 1", "Description 1", new BigDecimal("1.99")),
+                new Product("Batch 2", "Description 2", new BigDecimal("2.99")),
+                new Product("Batch 3", "Description 3", new BigDecimal("3.99"))
+        ));
+        List<Long> ids = new ArrayList<>(created.items().stream().map(BatchItemResult::id).toList());
+        ids.add(999_999L);
+
+        BatchResult result = client.toBlocking().retrieve(HttpRequest.DELETE("/products/batch", ids), BatchResult.class);
+
+        assertEquals(List.of(204, 204, 204, 404), result.items().stream().map(BatchItemResult::status).toList());
+        for (BatchItemResult item : created.items()) {
+            assertEquals(HttpStatus.NOT_FOUND, getStatus(item.id()));
+        }
+    }
+
+    @Test
+    void testBatchTooLarge() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            products.add(new Product("Batch " + i, "Description", new BigDecimal("1.99")));
+        }
+
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> createProducts(products)
+        );
+
+        assertEquals(HttpStatus.REQUEST_ENTITY_TOO_LARGE, exception.getStatus());
+    }
+}
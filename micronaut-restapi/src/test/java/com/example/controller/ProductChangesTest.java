@@ -0,0 +1,153 @@
+package com.example.controller;
+
+import com.example.event.ProductChangedEvent;
+import com.example.model.Product;
+import com.example.outbox.ProductChange;
+import com.example.outbox.ProductChangeRepository;
+import com.example.service.BatchItemResult;
+import com.example.service.BatchResult;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.client.sse.SseClient;
+import io.micronaut.http.sse.Event;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest
+class ProductChangesTest {
+
+    private static final Argument<List<ProductChange>> CHANGES = Argument.listOf(ProductChange.class);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    @Client("/")
+    SseClient sseClient;
+
+    @Inject
+    ProductChangeRepository changeRepository;
+
+    private Product createProduct(String name) {
+        Product product = new Product(name, "Change Description", new BigDecimal("10.00"));
+        return client.toBlocking().retrieve(HttpRequest.POST("/products", product), Product.class);
+    }
+
+    private Flux<Event<List<ProductChange>>> changes(MutableHttpRequest<?> request) {
+        return Flux.from(sseClient.eventStream(request, CHANGES));
+    }
+
+    // Changes of the given products, in feed order
+    private List<ProductChange> changesOf(MutableHttpRequest<?> request, Set<Long> productIds, int count) {
+        return changes(request)
+                .flatMapIterable(Event::getData)
+                .filter(change -> productIds.contains(change.getProductId()))
+                .take(count)
+                .collectList()
+                .block(TIMEOUT);
+    }
+
+    @Test
+    void testMutationsAppearInOrder() {
+        Product product = createProduct("Changing Product");
+        Product update = new Product("Changed Product", "Change Description", new BigDecimal("11.00"));
+        client.toBlocking().exchange(HttpRequest.PUT("/products/" + product.getId(), update), Product.class);
+        client.toBlocking().exchange(HttpRequest.DELETE("/products/" + product.getId()));
+
+        List<ProductChange> changes = changesOf(HttpRequest.GET("/products/changes?since=0"), Set.of(product.getId()), 3);
+
+        assertEquals(List.of(ProductChangedEvent.Type.CREATED, ProductChangedEvent.Type.UPDATED, ProductChangedEvent.Type.DELETED),
+                changes.stream().map(ProductChange::getType).toList());
+        assertTrue(changes.get(0).getId() < changes.get(1).getId());
+        assertTrue(changes.get(1).getId() < changes.get(2).getId());
+    }
+
+    @Test
+    void testEventIdResumesAfterLastChange() {
+        Product first = createProduct("First Product");
+        Event<List<ProductChange>> event = changes(HttpRequest.GET("/products/changes?since=0"))
+                .filter(e -> e.getData().stream().anyMatch(change -> change.getProductId().equals(first.getId())))
+                .blockFirst(TIMEOUT);
+        Product second = createProduct("Second Product");
+
+        // As an EventSource reconnects: the original URL plus the id of the last event it received
+        List<ProductChange> changes = changesOf(
+                HttpRequest.GET("/products/changes?since=0").header(ProductController.LAST_EVENT_ID_HEADER, event.getId()),
+                Set.of(first.getId(), second.getId()), 1);
+
+        assertEquals("changes", event.getName());
+        assertEquals(second.getId(), changes.get(0).getProductId());
+        assertTrue(changes.get(0).getId() > Long.parseLong(event.getId()));
+    }
+
+    @Test
+    void testEventsAreBatched() {
+        List<Product> products = List.of(
+                new Product("Batch Change 1", "Batch", new BigDecimal("1.00")),
+                new Product("Batch Change 2", "Batch", new BigDecimal("2.00")),
+                new Product("Batch Change 3", "Batch", new BigDecimal("3.00")));
+        client.toBlocking().exchange(HttpRequest.POST("/products/batch", products));
+        long last = StreamSupport.stream(changeRepository.findAll().spliterator(), false)
+                .mapToLong(ProductChange::getId)
+                .max()
+                .orElseThrow();
+
+        Event<List<ProductChange>> event = changes(HttpRequest.GET("/products/changes?since=" + (last - 3))).blockFirst(TIMEOUT);
+
+        assertEquals(3, event.getData().size());
+        assertEquals(String.valueOf(last), event.getId());
+    }
+
+    @Test
+    void testBatchChangesFollowTheBatchAcrossIdBlocks() {
+        List<Product> products = IntStream.range(0, 120)
+                .mapToObj(i -> new Product("Block Change " + i, "Block", new BigDecimal("1.00")))
+                .toList();
+        BatchResult result = client.toBlocking().retrieve(HttpRequest.POST("/products/batch", products), BatchResult.class);
+        List<Long> productIds = result.items().stream().map(BatchItemResult::id).toList();
+
+        List<Long> changed = StreamSupport.stream(changeRepository.findAll().spliterator(), false)
+                .filter(change -> productIds.contains(change.getProductId()))
+                .sorted(Comparator.comparing(ProductChange::getId))
+                .map(ProductChange::getProductId)
+                .toList();
+
+        assertEquals(productIds, changed);
+    }
+
+    @Test
+    void testRejectedUpdateWritesNoChange() {
+        Product product = createProduct("Guarded Product");
+        Product update = new Product("Guarded Update", "Guarded", new BigDecimal("2.00"));
+
+        assertThrows(HttpClientResponseException.class, () -> client.toBlocking().exchange(
+                HttpRequest.PUT("/products/" + product.getId(), update).header(HttpHeaders.IF_MATCH, "\"99\""), Product.class));
+
+        List<ProductChangedEvent.Type> types = StreamSupport.stream(changeRepository.findAll().spliterator(), false)
+                .filter(change -> change.getProductId().equals(product.getId()))
+                .map(ProductChange::getType)
+                .toList();
+        assertEquals(List.of(ProductChangedEvent.Type.CREATED), types);
+    }
+}
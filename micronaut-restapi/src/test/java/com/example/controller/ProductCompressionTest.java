@@ -0,0 +1,228 @@
+package com.example.controller;
+
+import com.example.codec.ProductMediaTypes;
+import com.example.model.Product;
+import com.example.service.BatchItemResult;
+import com.example.service.BatchResult;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.MediaType;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.runtime.server.EmbeddedServer;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.compression.ZstdDecoder;
+import io.netty.handler.codec.compression.ZstdEncoder;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The JDK client is used because the Micronaut client decompresses responses transparently
+@MicronautTest
+class ProductCompressionTest {
+
+    private static final int PRODUCTS = 20;
+
+    @Inject
+    EmbeddedServer server;
+
+    @Inject
+    JsonMapper jsonMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(server.getURL() + path));
+    }
+
+    private List<Product> products(String tag) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product(tag + " " + i, "Compressible description of product " + i, new BigDecimal(i + ".50")));
+        }
+        return products;
+    }
+
+    // Uploads a batch through the given Content-Encoding and returns the id before the first created product
+    private long uploadBatch(String encoding) throws IOException, InterruptedException {
+        byte[] body = encode(encoding, jsonMapper.writeValueAsBytes(products(UUID.randomUUID().toString())));
+        HttpResponse<byte[]> response = send(request("/products/batch")
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, encoding)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body)));
+
+        assertEquals(200, response.statusCode(), new String(response.body()));
+        BatchResult result = jsonMapper.readValue(response.body(), BatchResult.class);
+        assertEquals(PRODUCTS, result.succeeded());
+        return result.items().stream().map(BatchItemResult::id).min(Long::compare).orElseThrow() - 1;
+    }
+
+    private void assertCompressedPage(String encoding) throws IOException, InterruptedException {
+        long after = uploadBatch("gzip");
+
+        HttpResponse<byte[]> response = send(request("/products?after=" + after + "&limit=" + PRODUCTS)
+                .header(HttpHeaders.ACCEPT_ENCODING, encoding));
+
+        assertEquals(200, response.statusCode());
+        assertEquals(Optional.of(encoding), response.headers().firstValue(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.headers().allValues(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        byte[] json = decode(encoding, response.body());
+        assertTrue(response.body().length < json.length, response.body().length + " compressed vs " + json.length);
+        List<Product> page = jsonMapper.readValue(json, Argument.listOf(Product.class));
+        assertEquals(PRODUCTS, page.size());
+        assertEquals(after + 1, page.get(0).getId());
+    }
+
+    @Test
+    void testListIsCompressedWithGzip() throws Exception {
+        assertCompressedPage("gzip");
+    }
+
+    @Test
+    void testListIsCompressedWithDeflate() throws Exception {
+        assertCompressedPage("deflate");
+    }
+
+    @Test
+    void testListIsCompressedWithZstd() throws Exception {
+        assertCompressedPage("zstd");
+    }
+
+    @Test
+    void testCborListIsCompressed() throws Exception {
+        long after = uploadBatch("gzip");
+
+        HttpResponse<byte[]> response = send(request("/products?after=" + after + "&limit=" + PRODUCTS)
+                .header(HttpHeaders.ACCEPT, ProductMediaTypes.APPLICATION_CBOR)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        assertEquals(Optional.of(ProductMediaTypes.APPLICATION_CBOR), response.headers().firstValue(HttpHeaders.CONTENT_TYPE));
+        assertEquals(Optional.of("gzip"), response.headers().firstValue(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void testCompressedPageHasWeakETag() throws Exception {
+        long after = uploadBatch("gzip");
+        String uri = "/products?after=" + after + "&limit=" + PRODUCTS;
+        String identity = send(request(uri)).headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+
+        HttpResponse<byte[]> compressed = send(request(uri).header(HttpHeaders.ACCEPT_ENCODING, "zstd"));
+        String etag = compressed.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+
+        assertEquals(Optional.of("zstd"), compressed.headers().firstValue(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("W/" + identity, etag);
+        HttpResponse<byte[]> notModified = send(request(uri)
+                .header(HttpHeaders.ACCEPT_ENCODING, "zstd")
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertEquals(304, notModified.statusCode());
+        assertEquals(Optional.of(etag), notModified.headers().firstValue(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testCompressedCborPageHasItsOwnETag() throws Exception {
+        long after = uploadBatch("gzip");
+        String uri = "/products?after=" + after + "&limit=" + PRODUCTS;
+
+        String json = send(request(uri).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        String cbor = send(request(uri)
+                .header(HttpHeaders.ACCEPT, ProductMediaTypes.APPLICATION_CBOR)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+
+        assertTrue(cbor.startsWith("W/") && cbor.endsWith("-cbor\""), cbor);
+        assertNotEquals(json, cbor);
+    }
+
+    @Test
+    void testSmallProductIsNotCompressed() throws Exception {
+        long id = uploadBatch("gzip") + 1;
+
+        HttpResponse<byte[]> response = send(request("/products/" + id).header(HttpHeaders.ACCEPT_ENCODING, "gzip, zstd"));
+
+        assertEquals(200, response.statusCode());
+        assertEquals(Optional.empty(), response.headers().firstValue(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.headers().allValues(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(id, jsonMapper.readValue(response.body(), Product.class).getId());
+    }
+
+    @Test
+    void testListIsNotCompressedWithoutAcceptEncoding() throws Exception {
+        long after = uploadBatch("gzip");
+
+        HttpResponse<byte[]> response = send(request("/products?after=" + after + "&limit=" + PRODUCTS));
+
+        assertEquals(Optional.empty(), response.headers().firstValue(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(PRODUCTS, jsonMapper.readValue(response.body(), Argument.listOf(Product.class)).size());
+    }
+
+    @Test
+    void testBatchUploadWithDeflateBody() throws Exception {
+        uploadBatch("deflate");
+    }
+
+    @Test
+    void testBatchUploadWithZstdBody() throws Exception {
+        uploadBatch("zstd");
+    }
+
+    private static byte[] encode(String encoding, byte[] data) {
+        return transform(true, switch (encoding) {
+            case "gzip" -> ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP);
+            case "deflate" -> ZlibCodecFactory.newZlibEncoder(ZlibWrapper.ZLIB);
+            case "zstd" -> new ZstdEncoder();
+            default -> throw new IllegalArgumentException(encoding);
+        }, data);
+    }
+
+    private static byte[] decode(String encoding, byte[] data) {
+        return transform(false, switch (encoding) {
+            case "gzip" -> ZlibCodecFactory.newZlibDecoder(ZlibWrapper.GZIP);
+            case "deflate" -> ZlibCodecFactory.newZlibDecoder(ZlibWrapper.ZLIB);
+            case "zstd" -> new ZstdDecoder();
+            default -> throw new IllegalArgumentException(encoding);
+        }, data);
+    }
+
+    private static byte[] transform(boolean outbound, ChannelHandler codec, byte[] data) {
+        EmbeddedChannel channel = new EmbeddedChannel(codec);
+        if (outbound) {
+            channel.writeOutbound(Unpooled.wrappedBuffer(data));
+        } else {
+            channel.writeInbound(Unpooled.wrappedBuffer(data));
+        }
+        channel.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuf chunk;
+        while ((chunk = outbound ? channel.readOutbound() : channel.readInbound()) != null) {
+            out.writeBytes(ByteBufUtil.getBytes(chunk));
+            chunk.release();
+        }
+        return out.toByteArray();
+    }
+}
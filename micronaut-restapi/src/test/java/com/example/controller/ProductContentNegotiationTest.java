@@ -0,0 +1,188 @@
+package com.example.controller;
+
+import com.example.codec.ProductMediaTypes;
+import com.example.model.Product;
+import com.example.service.BatchResult;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.body.MessageBodyHandlerRegistry;
+import io.micronaut.http.body.MessageBodyReader;
+import io.micronaut.http.body.MessageBodyWriter;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.codec.CodecException;
+import io.micronaut.http.simple.SimpleHttpHeaders;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest
+class ProductContentNegotiationTest {
+
+    private static final MediaType CBOR = MediaType.of(ProductMediaTypes.APPLICATION_CBOR);
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    JsonMapper jsonMapper;
+
+    @Inject
+    MessageBodyHandlerRegistry handlers;
+
+    private Product createProduct(String name, String price) {
+        Product product = new Product(name, "Negotiation Description", new BigDecimal(price));
+        return client.toBlocking().retrieve(HttpRequest.POST("/products", product), Product.class);
+    }
+
+    @Test
+    void testCreateAndReadProductAsCbor() {
+        Product product = new Product("CBOR Product", "Binary", new BigDecimal("1234.50"));
+        HttpRequest<Product> create = HttpRequest.POST("/products", product)
+                .contentType(CBOR)
+                .accept(CBOR);
+
+        HttpResponse<Product> created = client.toBlocking().exchange(create, Product.class);
+
+        assertEquals(HttpStatus.CREATED, created.getStatus());
+        assertEquals(CBOR, created.getContentType().orElseThrow());
+        Long id = created.body().getId();
+
+        HttpResponse<Product> read = client.toBlocking().exchange(HttpRequest.GET("/products/" + id).accept(CBOR), Product.class);
+
+        assertEquals(CBOR, read.getContentType().orElseThrow());
+        assertEquals(HttpHeaders.ACCEPT, read.header(HttpHeaders.VARY));
+        assertEquals("CBOR Product", read.body().getName());
+        assertEquals(new BigDecimal("1234.50"), read.body().getPrice());
+    }
+
+    @Test
+    void testCborIsSmallerThanJson() {
+        Long id = createProduct("Compact Product", "19.99").getId();
+
+        byte[] cbor = client.toBlocking().retrieve(HttpRequest.GET("/products/" + id).accept(CBOR), byte[].class);
+        byte[] json = client.toBlocking().retrieve(HttpRequest.GET("/products/" + id).accept(MediaType.APPLICATION_JSON_TYPE), byte[].class);
+
+        // Major type 5: a map
+        assertEquals(0xA0, cbor[0] & 0xE0);
+        assertTrue(cbor.length < json.length, cbor.length + " bytes of CBOR vs " + json.length + " bytes of JSON");
+    }
+
+    @Test
+    void testCborHasItsOwnETag() {
+        Product product = createProduct("Tagged Product", "9.00");
+        String uri = "/products/" + product.getId();
+
+        String json = client.toBlocking().exchange(HttpRequest.GET(uri), Product.class).header(HttpHeaders.ETAG);
+        String cbor = client.toBlocking().exchange(HttpRequest.GET(uri).accept(CBOR), Product.class).header(HttpHeaders.ETAG);
+
+        assertEquals("\"" + product.getVersion() + "\"", json);
+        assertEquals("\"" + product.getVersion() + "-cbor\"", cbor);
+        assertEquals(HttpStatus.OK, client.toBlocking().exchange(
+                HttpRequest.GET(uri).accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, json), Product.class).status());
+        HttpResponse<Product> notModified = client.toBlocking().exchange(
+                HttpRequest.GET(uri).accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, cbor), Product.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.status());
+        assertEquals(cbor, notModified.header(HttpHeaders.ETAG));
+
+        // Every representation of the same version satisfies If-Match
+        HttpResponse<Product> updated = client.toBlocking().exchange(HttpRequest.PUT(uri,
+                new Product("Tagged Product", "Updated", new BigDecimal("9.50"))).header(HttpHeaders.IF_MATCH, cbor),
+                Product.class);
+        assertEquals(HttpStatus.OK, updated.status());
+        assertEquals("\"" + (product.getVersion() + 1) + "\"", updated.header(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testCborRoundTripsBigDecimalExactly() {
+        Argument<Product> type = Argument.of(Product.class);
+        MessageBodyWriter<Product> writer = handlers.findWriter(type, List.of(CBOR)).orElseThrow();
+        MessageBodyReader<Product> reader = handlers.findReader(type, List.of(CBOR)).orElseThrow();
+
+        for (String price : List.of("0.10", "19.90", "12345678901234567890.123456789", "1E+3")) {
+            Product product = new Product("Exact", null, new BigDecimal(price));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.writeTo(type, CBOR, product, new SimpleHttpHeaders(), out);
+
+            Product decoded = reader.read(type, CBOR, new SimpleHttpHeaders(), new ByteArrayInputStream(out.toByteArray()));
+
+            assertEquals(new BigDecimal(price), decoded.getPrice());
+            assertEquals(new BigDecimal(price).scale(), decoded.getPrice().scale());
+        }
+    }
+
+    @Test
+    void testSearchAsNdjson() throws IOException {
+        String tag = UUID.randomUUID().toString();
+        createProduct(tag + " A", "1.00");
+        createProduct(tag + " B", "2.00");
+        createProduct(tag + " C", "3.00");
+
+        HttpResponse<String> response = client.toBlocking().exchange(
+                HttpRequest.GET("/products/search?name=" + tag + "&sort=name").accept(ProductController.APPLICATION_NDJSON),
+                String.class);
+
+        assertEquals(ProductController.APPLICATION_NDJSON, response.getContentType().orElseThrow().toString());
+        String[] lines = response.body().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(tag + " A", jsonMapper.readValue(lines[0], Product.class).getName());
+        assertEquals(tag + " C", jsonMapper.readValue(lines[2], Product.class).getName());
+    }
+
+    @Test
+    void testCreateBatchFromNdjson() throws IOException {
+        String body = new String(jsonMapper.writeValueAsBytes(new Product("Line 1", null, new BigDecimal("5.00")))) + "\n"
+                + new String(jsonMapper.writeValueAsBytes(new Product("Line 2", null, new BigDecimal("6.00")))) + "\n";
+
+        BatchResult result = client.toBlocking().retrieve(
+                HttpRequest.POST("/products/batch", body).contentType(ProductController.APPLICATION_NDJSON),
+                BatchResult.class);
+
+        assertEquals(2, result.succeeded());
+        assertEquals(0, result.failed());
+    }
+
+    @Test
+    void testNdjsonErrorNamesTheLineOfTheInput() {
+        Argument<List<Product>> type = Argument.listOf(Product.class);
+        MediaType ndjson = MediaType.of(ProductController.APPLICATION_NDJSON);
+        MessageBodyReader<List<Product>> reader = handlers.findReader(type, List.of(ndjson)).orElseThrow();
+        byte[] body = "{\"name\":\"Line 1\",\"price\":1.00}\n\n   \n{\"name\":".getBytes(StandardCharsets.UTF_8);
+        byte[] tooLong = ("{\"name\":\"" + "x".repeat(10_000) + "\",\"price\":1.00}\n").getBytes(StandardCharsets.UTF_8);
+
+        CodecException malformed = assertThrows(CodecException.class,
+                () -> reader.read(type, ndjson, new SimpleHttpHeaders(), new ByteArrayInputStream(body)));
+        CodecException overlong = assertThrows(CodecException.class,
+                () -> reader.read(type, ndjson, new SimpleHttpHeaders(), new ByteArrayInputStream(tooLong)));
+
+        assertTrue(malformed.getMessage().startsWith("Error decoding NDJSON line 4 "), malformed.getMessage());
+        assertEquals("NDJSON line 1 exceeds 8192 characters", overlong.getMessage());
+    }
+
+    @Test
+    void testJsonRemainsTheDefault() {
+        Long id = createProduct("Default Product", "7.00").getId();
+
+        HttpResponse<Product> response = client.toBlocking().exchange(HttpRequest.GET("/products/" + id), Product.class);
+
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getContentType().orElseThrow());
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.controller;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+
+/**
+ * Runs the {@link ProductControllerTest} suite with requests offloaded to the bounded platform thread pool
+ * instead of virtual threads.
+ */
+@MicronautTest
+@Property(name = "products.executor", value = TaskExecutors.IO)
+class ProductControllerPlatformThreadTest extends ProductControllerTest {
+}
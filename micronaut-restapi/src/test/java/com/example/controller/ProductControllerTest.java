@@ -1,7 +1,9 @@
 package com.example.controller;
 
 import com.example.model.Product;
+import io.micronaut.context.annotation.Value;
 import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
@@ -13,12 +15,19 @@ import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @MicronautTest
 class ProductControllerTest {
@@ -27,6 +36,9 @@ class ProductControllerTest {
     @Client("/")
     HttpClient client;
 
+    @Value("${datasources.default.url}")
+    String databaseUrl;
+
     private Product createProduct() {
         Product product = new Product("Test Product", "Test Description", new BigDecimal("19.99"));
         HttpRequest<Product> request = HttpRequest.POST("/products", product);
@@ -59,6 +71,42 @@ class ProductControllerTest {
         assertFalse(products.isEmpty());
     }
 
+    @Test
+    void testGetAllProductsPaginated() {
+        // Create three products so the first page of two is full
+        Product first = createProduct();
+        Product second = createProduct();
+        Product third = createProduct();
+
+        HttpRequest<Object> firstPageRequest = HttpRequest.GET("/products?after=" + (first.getId() - 1) + "&limit=2");
+        HttpResponse<List<Product>> firstPage = client.toBlocking().exchange(firstPageRequest, Argument.listOf(Product.class));
+
+        assertEquals(HttpStatus.OK, firstPage.status());
+        assertEquals(2, firstPage.body().size());
+        assertEquals(first.getId(), firstPage.body().get(0).getId());
+        assertEquals(second.getId(), firstPage.body().get(1).getId());
+        assertEquals(String.valueOf(second.getId()), firstPage.header(ProductController.NEXT_CURSOR_HEADER));
+
+        HttpRequest<Object> nextPageRequest = HttpRequest.GET("/products?after=" + firstPage.header(ProductController.NEXT_CURSOR_HEADER) + "&limit=2");
+        HttpResponse<List<Product>> nextPage = client.toBlocking().exchange(nextPageRequest, Argument.listOf(Product.class));
+
+        assertEquals(1, nextPage.body().size());
+        assertEquals(third.getId(), nextPage.body().get(0).getId());
+        assertNull(nextPage.header(ProductController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetAllProductsWithInvalidLimit() {
+        HttpRequest<Object> request = HttpRequest.GET("/products?limit=0");
+
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(request, Argument.listOf(Product.class))
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
     @Test
     void testGetProductById() {
         // Create a product first
@@ -117,6 +165,183 @@ class ProductControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
     }
 
+    @Test
+    void testGetProductReturnsETag() {
+        Product product = createProduct();
+
+        HttpResponse<Product> response = client.toBlocking().exchange(HttpRequest.GET("/products/" + product.getId()), Product.class);
+
+        assertEquals(HttpStatus.OK, response.status());
+        assertEquals("\"" + product.getVersion() + "\"", response.header(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testGetProductNotModifiedWithIfNoneMatch() {
+        Product product = createProduct();
+        HttpResponse<Product> first = client.toBlocking().exchange(HttpRequest.GET("/products/" + product.getId()), Product.class);
+
+        HttpRequest<Object> conditional = HttpRequest.GET("/products/" + product.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, first.header(HttpHeaders.ETAG));
+        HttpResponse<Product> second = client.toBlocking().exchange(conditional, Product.class);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.status());
+        assertEquals(first.header(HttpHeaders.ETAG), second.header(HttpHeaders.ETAG));
+        assertTrue(second.getBody().isEmpty());
+    }
+
+    @Test
+    void testGetProductNotModifiedSinceLastModified() {
+        Product product = createProduct();
+        HttpResponse<Product> first = client.toBlocking().exchange(HttpRequest.GET("/products/" + product.getId()), Product.class);
+        assertNotNull(first.header(HttpHeaders.LAST_MODIFIED));
+
+        HttpRequest<Object> conditional = HttpRequest.GET("/products/" + product.getId())
+                .header(HttpHeaders.IF_MODIFIED_SINCE, first.header(HttpHeaders.LAST_MODIFIED));
+        HttpResponse<Product> second = client.toBlocking().exchange(conditional, Product.class);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.status());
+    }
+
+    @Test
+    void testGetProductModifiedAfterUpdate() {
+        Product product = createProduct();
+        String etag = client.toBlocking().exchange(HttpRequest.GET("/products/" + product.getId()), Product.class)
+                .header(HttpHeaders.ETAG);
+
+        client.toBlocking().exchange(HttpRequest.PUT("/products/" + product.getId(),
+                new Product("Updated Product", "Updated Description", new BigDecimal("29.99"))), Product.class);
+
+        HttpRequest<Object> conditional = HttpRequest.GET("/products/" + product.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag);
+        HttpResponse<Product> response = client.toBlocking().exchange(conditional, Product.class);
+
+        assertEquals(HttpStatus.OK, response.status());
+        assertEquals("Updated Product", response.body().getName());
+        assertNotEquals(etag, response.header(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testGetAllProductsNotModifiedUntilPageChanges() {
+        Product first = createProduct();
+        Product second = createProduct();
+        String uri = "/products?after=" + (first.getId() - 1) + "&limit=2";
+        HttpResponse<List<Product>> page = client.toBlocking().exchange(HttpRequest.GET(uri), Argument.listOf(Product.class));
+        String etag = page.header(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        HttpResponse<List<Product>> unchanged = client.toBlocking().exchange(
+                HttpRequest.GET(uri).header(HttpHeaders.IF_NONE_MATCH, etag), Argument.listOf(Product.class));
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.status());
+        assertEquals(String.valueOf(second.getId()), unchanged.header(ProductController.NEXT_CURSOR_HEADER));
+
+        client.toBlocking().exchange(HttpRequest.DELETE("/products/" + second.getId()));
+
+        HttpResponse<List<Product>> changed = client.toBlocking().exchange(
+                HttpRequest.GET(uri).header(HttpHeaders.IF_NONE_MATCH, etag), Argument.listOf(Product.class));
+        assertEquals(HttpStatus.OK, changed.status());
+        assertNotEquals(etag, changed.header(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testUpdateProductWithMatchingIfMatch() {
+        Product product = createProduct();
+        String etag = client.toBlocking().exchange(HttpRequest.GET("/products/" + product.getId()), Product.class)
+                .header(HttpHeaders.ETAG);
+
+        Product updatedProduct = new Product("Updated Product", "Updated Description", new BigDecimal("29.99"));
+        HttpRequest<Product> request = HttpRequest.PUT("/products/" + product.getId(), updatedProduct)
+                .header(HttpHeaders.IF_MATCH, etag);
+        HttpResponse<Product> response = client.toBlocking().exchange(request, Product.class);
+
+        assertEquals(HttpStatus.OK, response.status());
+        assertEquals(product.getVersion() + 1, response.body().getVersion());
+        assertEquals("\"" + (product.getVersion() + 1) + "\"", response.header(HttpHeaders.ETAG));
+
+        Product reloaded = client.toBlocking().retrieve(HttpRequest.GET("/products/" + product.getId()), Product.class);
+        assertEquals("Updated Product", reloaded.getName());
+        assertEquals(product.getVersion() + 1, reloaded.getVersion());
+    }
+
+    @Test
+    void testUpdateProductWithStaleIfMatch() {
+        Product product = createProduct();
+        String staleETag = "\"" + product.getVersion() + "\"";
+
+        // First writer wins
+        client.toBlocking().exchange(HttpRequest.PUT("/products/" + product.getId(),
+                new Product("First Writer", "Updated Description", new BigDecimal("29.99")))
+                .header(HttpHeaders.IF_MATCH, staleETag), Product.class);
+
+        // Second writer still holds the old version
+        HttpRequest<Product> request = HttpRequest.PUT("/products/" + product.getId(),
+                        new Product("Second Writer", "Updated Description", new BigDecimal("39.99")))
+                .header(HttpHeaders.IF_MATCH, staleETag);
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(request, Product.class)
+        );
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatus());
+
+        Product reloaded = client.toBlocking().retrieve(HttpRequest.GET("/products/" + product.getId()), Product.class);
+        assertEquals("First Writer", reloaded.getName());
+    }
+
+    @Test
+    void testUpdateProductWithIfMatchNotFound() {
+        Product updatedProduct = new Product("Updated Product", "Updated Description", new BigDecimal("29.99"));
+        HttpRequest<Product> request = HttpRequest.PUT("/products/9999", updatedProduct)
+                .header(HttpHeaders.IF_MATCH, "\"0\"");
+
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(request, Product.class)
+        );
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void testUpdateProductWithIfMatchAnyNotFound() {
+        Product updatedProduct = new Product("Updated Product", "Updated Description", new BigDecimal("29.99"));
+        HttpRequest<Product> request = HttpRequest.PUT("/products/9999", updatedProduct)
+                .header(HttpHeaders.IF_MATCH, "*");
+
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(request, Product.class)
+        );
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatus());
+    }
+
+    @Test
+    void testUpdateProductWrittenWithoutVersion() throws SQLException {
+        long id = 900_000_001L;
+        try (Connection connection = DriverManager.getConnection(databaseUrl, "sa", "")) {
+            // As a row written before the version column existed
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO products (id, name, description, price) VALUES (?, ?, ?, ?)")) {
+                insert.setLong(1, id);
+                insert.setString(2, "Legacy Product");
+                insert.setString(3, "Legacy Description");
+                insert.setBigDecimal(4, new BigDecimal("9.99"));
+                insert.executeUpdate();
+            }
+            try {
+                Product update = new Product("Updated Legacy Product", "Legacy Description", new BigDecimal("19.99"));
+                HttpResponse<Product> response = client.toBlocking().exchange(
+                        HttpRequest.PUT("/products/" + id, update).header(HttpHeaders.IF_MATCH, "\"0\""),
+                        Product.class);
+
+                assertEquals(HttpStatus.OK, response.status());
+                assertEquals(1L, response.body().getVersion());
+            } finally {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM products WHERE id = ?")) {
+                    delete.setLong(1, id);
+                    delete.executeUpdate();
+                }
+            }
+        }
+    }
+
     @Test
     void testDeleteProduct() {
         // Create a product first
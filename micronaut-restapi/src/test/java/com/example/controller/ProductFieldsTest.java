@@ -0,0 +1,143 @@
+package com.example.controller;
+
+import com.example.codec.ProductMediaTypes;
+import com.example.model.Product;
+import com.example.repository.ProductRepositoryMicronaut;
+import com.example.repository.ProductSummary;
+import io.micronaut.core.type.Argument;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@MicronautTest(transactional = false)
+class ProductFieldsTest {
+
+    private static final Argument<List<Map<String, Object>>> OBJECT_LIST =
+            Argument.listOf(Argument.mapOf(String.class, Object.class));
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    ProductRepositoryMicronaut productRepository;
+
+    private Product createProduct(String name, String price) {
+        Product product = new Product(name, "A long description nobody listing products needs", new BigDecimal(price));
+        return client.toBlocking().retrieve(HttpRequest.POST("/products", product), Product.class);
+    }
+
+    @Test
+    void testListWritesOnlySelectedFields() {
+        Product first = createProduct("Sparse One", "10.00");
+        createProduct("Sparse Two", "20.00");
+
+        HttpResponse<List<Map<String, Object>>> response = client.toBlocking().exchange(
+                HttpRequest.GET("/products?after=" + (first.getId() - 1) + "&limit=2&fields=id,name,price"), OBJECT_LIST);
+
+        List<Map<String, Object>> page = response.body();
+        assertEquals(2, page.size());
+        assertEquals(Set.of("id", "name", "price"), page.get(0).keySet());
+        assertEquals("Sparse One", page.get(0).get("name"));
+        assertEquals(String.valueOf(page.get(1).get("id")), response.header(ProductController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testListWithDescriptionSelected() {
+        Product product = createProduct("Sparse Described", "30.00");
+
+        List<Map<String, Object>> page = client.toBlocking().retrieve(
+                HttpRequest.GET("/products?after=" + (product.getId() - 1) + "&limit=1&fields=name,description"), OBJECT_LIST);
+
+        assertEquals(Map.of("name", "Sparse Described", "description", product.getDescription()), page.get(0));
+    }
+
+    @Test
+    void testListAsNdjson() {
+        Product product = createProduct("Sparse NDJSON", "40.00");
+
+        String body = client.toBlocking().retrieve(
+                HttpRequest.GET("/products?after=" + (product.getId() - 1) + "&limit=1&fields=id")
+                        .accept(ProductMediaTypes.APPLICATION_NDJSON),
+                String.class);
+
+        assertEquals("{\"id\":" + product.getId() + "}\n", body);
+    }
+
+    @Test
+    void testProductWritesOnlySelectedFieldsAndKeepsETag() {
+        Product product = createProduct("Sparse Single", "50.00");
+
+        HttpResponse<Map<String, Object>> response = client.toBlocking().exchange(
+                HttpRequest.GET("/products/" + product.getId() + "?fields=name,price,version"),
+                Argument.mapOf(String.class, Object.class));
+
+        assertEquals(Set.of("name", "price", "version"), response.body().keySet());
+        String etag = response.header(HttpHeaders.ETAG);
+        assertEquals(ProductETags.of(product.getVersion(), MediaType.APPLICATION_JSON_TYPE), etag);
+
+        HttpResponse<?> unchanged = client.toBlocking().exchange(
+                HttpRequest.GET("/products/" + product.getId() + "?fields=name").header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatus());
+    }
+
+    @Test
+    void testProductAsCbor() {
+        Product product = createProduct("Sparse CBOR", "60.00");
+        MediaType cbor = MediaType.of(ProductMediaTypes.APPLICATION_CBOR);
+
+        Product read = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/" + product.getId() + "?fields=id,price").accept(cbor), Product.class);
+
+        assertEquals(product.getId(), read.getId());
+        assertEquals(new BigDecimal("60.00"), read.getPrice());
+        assertEquals(null, read.getName());
+    }
+
+    @Test
+    void testMissingProductIsNotFound() {
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(HttpRequest.GET("/products/999999999?fields=id")));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void testUnknownFieldIsRejected() {
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(HttpRequest.GET("/products?fields=id,secret")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void testSummaryProjection() {
+        Product product = createProduct("Sparse Projection", "70.00");
+
+        List<ProductSummary> summaries = productRepository.readByIdGreaterThanOrderById(product.getId() - 1, Pageable.from(0, 1));
+
+        assertEquals(1, summaries.size());
+        assertEquals(product.getId(), summaries.get(0).id());
+        assertEquals("Sparse Projection", summaries.get(0).name());
+        assertEquals(0, new BigDecimal("70.00").compareTo(summaries.get(0).price()));
+        assertEquals(product.getVersion(), summaries.get(0).version());
+    }
+}
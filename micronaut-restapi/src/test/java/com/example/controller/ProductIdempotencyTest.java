@@ -0,0 +1,143 @@
+package com.example.controller;
+
+import com.example.idempotency.IdempotencyService;
+import com.example.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@MicronautTest
+class ProductIdempotencyTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private static Product product(String name) {
+        return new Product(name, "Idempotent Description", new BigDecimal("12.50"));
+    }
+
+    private HttpResponse<Product> post(Product product, String key) {
+        return client.toBlocking().exchange(
+                HttpRequest.POST("/products", product).header(ProductController.IDEMPOTENCY_KEY_HEADER, key), Product.class);
+    }
+
+    private List<Product> productsNamed(String name) {
+        return client.toBlocking().retrieve(HttpRequest.GET("/products/search?name=" + name), Argument.listOf(Product.class));
+    }
+
+    @Test
+    void testRetryReplaysFirstResponse() {
+        String name = "Idempotent-" + UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+
+        HttpResponse<Product> first = post(product(name), key);
+        HttpResponse<Product> retry = post(product(name), key);
+
+        assertEquals(HttpStatus.CREATED, first.getStatus());
+        assertNull(first.getHeaders().get(ProductController.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals(HttpStatus.CREATED, retry.getStatus());
+        assertEquals("true", retry.getHeaders().get(ProductController.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals(first.body().getId(), retry.body().getId());
+        assertEquals(1, productsNamed(name).size());
+    }
+
+    @Test
+    void testRequestsWithoutKeyAlwaysCreate() {
+        String name = "Unkeyed-" + UUID.randomUUID();
+
+        client.toBlocking().exchange(HttpRequest.POST("/products", product(name)), Product.class);
+        client.toBlocking().exchange(HttpRequest.POST("/products", product(name)), Product.class);
+
+        assertEquals(2, productsNamed(name).size());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() {
+        String key = UUID.randomUUID().toString();
+        post(product("Original-" + UUID.randomUUID()), key);
+
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> post(product("Different-" + UUID.randomUUID()), key));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatus());
+    }
+
+    @Test
+    void testInvalidRequestIsNotRecorded() {
+        String key = UUID.randomUUID().toString();
+        Product invalid = new Product("", "Invalid", new BigDecimal("-1"));
+        String name = "Corrected-" + UUID.randomUUID();
+
+        assertThrows(HttpClientResponseException.class, () -> post(invalid, key));
+        HttpResponse<Product> corrected = post(product(name), key);
+
+        assertEquals(HttpStatus.CREATED, corrected.getStatus());
+        assertEquals(name, corrected.body().getName());
+    }
+
+    @Test
+    void testConcurrentDuplicatesCreateOneProduct() throws Exception {
+        String name = "Concurrent-" + UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+        double waitedBefore = meterRegistry.counter(IdempotencyService.REQUESTS_METRIC, "result", "waited").count()
+                + meterRegistry.counter(IdempotencyService.REQUESTS_METRIC, "result", "replayed").count();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<HttpResponse<Product>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<HttpResponse<Product>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return post(product(name), key);
+                }));
+            }
+            start.countDown();
+            for (Future<HttpResponse<Product>> future : futures) {
+                responses.add(future.get());
+            }
+        }
+
+        assertEquals(1, productsNamed(name).size());
+        assertEquals(1, responses.stream().map(response -> response.body().getId()).distinct().count());
+        assertEquals(7, responses.stream().filter(response -> response.getHeaders().contains(ProductController.IDEMPOTENT_REPLAYED_HEADER)).count());
+        double waitedAfter = meterRegistry.counter(IdempotencyService.REQUESTS_METRIC, "result", "waited").count()
+                + meterRegistry.counter(IdempotencyService.REQUESTS_METRIC, "result", "replayed").count();
+        assertEquals(7, waitedAfter - waitedBefore);
+    }
+
+    @Test
+    void testOverlongKeyIsRejected() {
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> post(product("Overlong"), "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertFalse(exception.getResponse().getHeaders().contains(ProductController.IDEMPOTENT_REPLAYED_HEADER));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.controller;
+
+import com.example.model.Product;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.uri.UriBuilder;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@MicronautTest
+class ProductSearchTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    private void createProduct(String name, String price) {
+        Product product = new Product(name, "Search Description", new BigDecimal(price));
+        client.toBlocking().exchange(HttpRequest.POST("/products", product), Product.class);
+    }
+
+    private List<Product> search(Map<String, String> parameters) {
+        UriBuilder uri = UriBuilder.of("/products/search");
+        parameters.forEach(uri::queryParam);
+        return client.toBlocking().retrieve(HttpRequest.GET(uri.toString()), Argument.listOf(Product.class));
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).toList();
+    }
+
+    @Test
+    void testSearchByNamePrefix() {
+        String tag = UUID.randomUUID().toString();
+        createProduct(tag + " Lamp", "10.00");
+        createProduct(tag + " Desk", "20.00");
+        createProduct("Other " + tag, "30.00");
+
+        List<Product> products = search(Map.of("name", tag, "sort", "name"));
+
+        assertEquals(List.of(tag + " Desk", tag + " Lamp"), names(products));
+    }
+
+    @Test
+    void testSearchByNameContains() {
+        String tag = UUID.randomUUID().toString();
+        createProduct(tag + " Lamp", "10.00");
+        createProduct("Other " + tag, "30.00");
+
+        List<Product> products = search(Map.of("name", tag, "match", "contains", "sort", "price"));
+
+        assertEquals(List.of(tag + " Lamp", "Other " + tag), names(products));
+    }
+
+    @Test
+    void testSearchByPriceRangeSortedDescendingWithLimit() {
+        String tag = UUID.randomUUID().toString();
+        createProduct(tag + " A", "5.00");
+        createProduct(tag + " B", "15.00");
+        createProduct(tag + " C", "25.00");
+        createProduct(tag + " D", "35.00");
+
+        List<Product> products = search(Map.of("name", tag, "minPrice", "10", "maxPrice", "30",
+                "sort", "price,desc", "limit", "1"));
+
+        assertEquals(List.of(tag + " C"), names(products));
+    }
+
+    @Test
+    void testSearchTreatsWildcardsLiterally() {
+        String tag = UUID.randomUUID().toString();
+        createProduct(tag + " 100% Cotton", "10.00");
+        createProduct(tag + " 1000 Cotton", "10.00");
+
+        List<Product> products = search(Map.of("name", tag + " 100%"));
+
+        assertEquals(List.of(tag + " 100% Cotton"), names(products));
+    }
+
+    @Test
+    void testSearchWithUnknownSortProperty() {
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> search(Map.of("sort", "description"))
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void testSearchWithInvertedPriceRange() {
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> search(Map.of("minPrice", "20", "maxPrice", "10"))
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+}
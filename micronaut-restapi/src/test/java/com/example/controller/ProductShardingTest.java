@@ -0,0 +1,264 @@
+package com.example.controller;
+
+import com.example.codec.ProductMediaTypes;
+import com.example.event.ProductChangedEvent;
+import com.example.model.Product;
+import com.example.outbox.ProductChange;
+import com.example.repository.ProductPriceStats;
+import com.example.service.BatchItemResult;
+import com.example.service.BatchResult;
+import com.example.service.ProductPriceHistogram;
+import com.example.shard.ShardedProductRepository;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.client.sse.SseClient;
+import io.micronaut.http.sse.Event;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest(environments = "shards", transactional = false)
+class ProductShardingTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    @Client("/")
+    SseClient sseClient;
+
+    @Inject
+    ShardedProductRepository shardedRepository;
+
+    @Inject
+    JsonMapper jsonMapper;
+
+    @BeforeEach
+    void clearShards() {
+        shardedRepository.deleteAll();
+    }
+
+    private Product create(String name) {
+        return create(name, new BigDecimal("1.00"));
+    }
+
+    private Product create(String name, BigDecimal price) {
+        Product product = new Product(name, "Sharded", price);
+        return client.toBlocking().retrieve(HttpRequest.POST("/products", product), Product.class);
+    }
+
+    // The change types recorded for the product in the outbox of that H2 database, in id order
+    private static List<String> changesIn(String database, long productId) throws SQLException {
+        String url = "jdbc:h2:mem:" + database + ";MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        List<String> types = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement query = connection.prepareStatement(
+                     "SELECT type FROM product_changes WHERE product_id = ? ORDER BY id")) {
+            query.setLong(1, productId);
+            try (ResultSet resultSet = query.executeQuery()) {
+                while (resultSet.next()) {
+                    types.add(resultSet.getString(1));
+                }
+            }
+        }
+        return types;
+    }
+
+    private HttpStatus getStatus(String uri) {
+        try {
+            return client.toBlocking().exchange(HttpRequest.GET(uri), String.class).status();
+        } catch (HttpClientResponseException e) {
+            return e.getStatus();
+        }
+    }
+
+    @Test
+    void testCrudAcrossShards() {
+        List<Product> created = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            created.add(create("Sharded Product " + i));
+        }
+        Set<String> shards = created.stream().map(product -> shardedRepository.shardOf(product.getId()))
+                .collect(Collectors.toSet());
+        assertTrue(shards.size() > 1);
+
+        for (Product product : created) {
+            Product read = client.toBlocking().retrieve(HttpRequest.GET("/products/" + product.getId()), Product.class);
+            assertEquals(product.getName(), read.getName());
+        }
+
+        Product first = created.get(0);
+        Product update = new Product("Renamed", "Sharded", new BigDecimal("2.00"));
+        Product updated = client.toBlocking().retrieve(HttpRequest.PUT("/products/" + first.getId(), update), Product.class);
+        assertEquals(first.getVersion() + 1, updated.getVersion());
+        assertEquals("Renamed", shardedRepository.findById(first.getId()).orElseThrow().getName());
+
+        client.toBlocking().exchange(HttpRequest.DELETE("/products/" + first.getId()));
+        assertEquals(HttpStatus.NOT_FOUND, getStatus("/products/" + first.getId()));
+    }
+
+    @Test
+    void testPagesMergeAllShards() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(create("Paged Product " + i).getId());
+        }
+
+        List<Long> listed = new ArrayList<>();
+        long after = 0;
+        List<Product> page;
+        do {
+            page = client.toBlocking().retrieve(HttpRequest.GET("/products?limit=3&after=" + after),
+                    Argument.listOf(Product.class));
+            page.forEach(product -> listed.add(product.getId()));
+            after = page.isEmpty() ? after : page.get(page.size() - 1).getId();
+        } while (page.size() == 3);
+
+        assertEquals(ids.stream().sorted().toList(), listed);
+    }
+
+    @Test
+    void testBatchWritesRouteEachProduct() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(new Product("Batch " + i, "Sharded", new BigDecimal("3.00")));
+        }
+        BatchResult created = client.toBlocking().retrieve(HttpRequest.POST("/products/batch", products), BatchResult.class);
+        assertEquals(5, created.succeeded());
+        assertEquals(5, shardedRepository.count());
+
+        List<Long> ids = created.items().stream().map(BatchItemResult::id).toList();
+        BatchResult deleted = client.toBlocking().retrieve(
+                HttpRequest.DELETE("/products/batch", ids), BatchResult.class);
+        assertEquals(5, deleted.succeeded());
+        assertEquals(0, shardedRepository.count());
+    }
+
+    @Test
+    void testChangesAreRecordedOnTheShard() throws SQLException {
+        Product first = create("Changed On Shard");
+        Product second = create("Also Changed On Shard");
+        Product update = new Product("Changed Again", "Sharded", new BigDecimal("4.00"));
+        client.toBlocking().exchange(HttpRequest.PUT("/products/" + first.getId(), update), Product.class);
+        client.toBlocking().exchange(HttpRequest.DELETE("/products/" + first.getId()));
+
+        String shard = shardedRepository.shardOf(first.getId()).replace("-", "");
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), changesIn(shard, first.getId()));
+        assertEquals(List.of(), changesIn("testdb", first.getId()));
+
+        Set<Long> productIds = Set.of(first.getId(), second.getId());
+        List<ProductChange> changes = Flux.from(sseClient.eventStream(
+                        HttpRequest.GET("/products/changes?since=0"), Argument.listOf(ProductChange.class)))
+                .flatMapIterable(Event::getData)
+                .filter(change -> productIds.contains(change.getProductId()))
+                .take(4)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        assertEquals(List.of(ProductChangedEvent.Type.CREATED, ProductChangedEvent.Type.CREATED,
+                        ProductChangedEvent.Type.UPDATED, ProductChangedEvent.Type.DELETED),
+                changes.stream().map(ProductChange::getType).toList());
+        assertEquals(changes.stream().map(ProductChange::getId).sorted().toList(),
+                changes.stream().map(ProductChange::getId).toList());
+    }
+
+    @Test
+    void testSearchMergesTheTopOfEveryShard() {
+        for (int i = 1; i <= 12; i++) {
+            create("Searched " + i, new BigDecimal(i + ".00"));
+        }
+        create("Unmatched", new BigDecimal("99.00"));
+
+        List<Product> top = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/search?name=Searched&sort=price,desc&limit=5"), Argument.listOf(Product.class));
+        assertEquals(List.of("Searched 12", "Searched 11", "Searched 10", "Searched 9", "Searched 8"),
+                top.stream().map(Product::getName).toList());
+
+        List<Product> range = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/search?name=Searched&minPrice=3&maxPrice=6&sort=price"),
+                Argument.listOf(Product.class));
+        assertEquals(List.of("Searched 3", "Searched 4", "Searched 5", "Searched 6"),
+                range.stream().map(Product::getName).toList());
+    }
+
+    @Test
+    void testStatsAndHistogramMergeShards() {
+        for (int i = 1; i <= 10; i++) {
+            create("Priced " + i, new BigDecimal(i + ".00"));
+        }
+
+        ProductPriceStats stats = client.toBlocking().retrieve(HttpRequest.GET("/products/stats"), ProductPriceStats.class);
+        assertEquals(10, stats.count());
+        assertEquals(55.0, stats.sum(), 0.001);
+        assertEquals(1.0, stats.min(), 0.001);
+        assertEquals(10.0, stats.max(), 0.001);
+        assertEquals(5.5, stats.avg(), 0.001);
+        // Interpolated from the merged histogram: within (max - min) / 1000 of PERCENTILE_CONT
+        assertEquals(5.5, stats.p50(), 0.009);
+        assertEquals(9.1, stats.p90(), 0.009);
+        assertEquals(9.91, stats.p99(), 0.009);
+
+        ProductPriceHistogram histogram = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/histogram?buckets=3"), ProductPriceHistogram.class);
+        assertArrayEquals(new long[]{3, 3, 4}, histogram.counts());
+    }
+
+    @Test
+    void testExportMergesShardsById() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(create("Exported " + i).getId());
+        }
+
+        String exported = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/export").accept(ProductController.APPLICATION_NDJSON), String.class);
+        List<Long> lines = new ArrayList<>();
+        for (String line : exported.lines().toList()) {
+            lines.add(jsonMapper.readValue(line, Product.class).getId());
+        }
+        assertEquals(ids.stream().sorted().toList(), lines);
+
+        String csv = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/export?after=" + ids.get(3)).accept(ProductMediaTypes.TEXT_CSV), String.class);
+        assertEquals(1 + ids.stream().filter(id -> id > ids.get(3)).count(), csv.lines().count());
+    }
+
+    @Test
+    void testCreateIgnoresTheIdOfTheBody() {
+        Product existing = create("Existing");
+        Product body = new Product("Posted With An Id", "Sharded", new BigDecimal("6.00"));
+        body.setId(existing.getId());
+        body.setVersion(existing.getVersion());
+
+        Product created = client.toBlocking().retrieve(HttpRequest.POST("/products", body), Product.class);
+
+        assertNotEquals(existing.getId(), created.getId());
+        assertEquals(0L, created.getVersion());
+        assertEquals("Existing", shardedRepository.findById(existing.getId()).orElseThrow().getName());
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.controller;
+
+import com.example.model.Product;
+import com.example.repository.ProductPriceStats;
+import com.example.repository.ProductRepositoryMicronaut;
+import com.example.service.ProductPriceHistogram;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A fresh context, so that the first histogram loads the statistics into the cache as well
+@MicronautTest(transactional = false)
+@Property(name = "products.stats.cache-ttl", value = "1m")
+class ProductStatsCacheTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    ProductRepositoryMicronaut productRepository;
+
+    @Test
+    void testHistogramsOnColdCache() {
+        productRepository.save(new Product("Cached Stats Low", "Stats Description", new BigDecimal("1.00")));
+        productRepository.save(new Product("Cached Stats High", "Stats Description", new BigDecimal("50.00")));
+
+        ProductPriceHistogram first = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/histogram?buckets=21"), ProductPriceHistogram.class);
+        ProductPriceHistogram second = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/histogram?buckets=53"), ProductPriceHistogram.class);
+        ProductPriceStats stats = client.toBlocking().retrieve(HttpRequest.GET("/products/stats"), ProductPriceStats.class);
+
+        assertEquals(21, first.counts().length);
+        assertEquals(53, second.counts().length);
+        assertEquals(stats.count(), Arrays.stream(first.counts()).sum());
+        assertEquals(stats.count(), Arrays.stream(second.counts()).sum());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.controller;
+
+import com.example.model.Product;
+import com.example.repository.ProductPriceStats;
+import com.example.repository.ProductRepositoryMicronaut;
+import com.example.service.ProductPriceHistogram;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Other test classes share the database, so the aggregates are checked against the same figures computed in Java
+@MicronautTest(transactional = false)
+@Property(name = "products.stats.cache-ttl", value = "0s")
+class ProductStatsTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    ProductRepositoryMicronaut productRepository;
+
+    @BeforeEach
+    void createProducts() {
+        for (String price : List.of("1.00", "2.50", "7.25", "10.00", "99.99")) {
+            productRepository.save(new Product("Stats " + price, "Stats Description", new BigDecimal(price)));
+        }
+    }
+
+    private double[] prices() {
+        return StreamSupport.stream(productRepository.findAll().spliterator(), false)
+                .mapToDouble(product -> product.getPrice().doubleValue())
+                .sorted()
+                .toArray();
+    }
+
+    // Linear interpolation between the closest ranks, as PERCENTILE_CONT does
+    private static double percentile(double[] sorted, double p) {
+        double position = p * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+    }
+
+    @Test
+    void testStatsMatchPrices() {
+        double[] prices = prices();
+
+        ProductPriceStats stats = client.toBlocking().retrieve(HttpRequest.GET("/products/stats"), ProductPriceStats.class);
+
+        assertEquals(prices.length, stats.count());
+        assertEquals(Arrays.stream(prices).sum(), stats.sum(), DELTA);
+        assertEquals(prices[0], stats.min(), DELTA);
+        assertEquals(prices[prices.length - 1], stats.max(), DELTA);
+        assertEquals(Arrays.stream(prices).average().orElseThrow(), stats.avg(), 0.01);
+        assertEquals(percentile(prices, 0.5), stats.p50(), DELTA);
+        assertEquals(percentile(prices, 0.9), stats.p90(), DELTA);
+        assertEquals(percentile(prices, 0.99), stats.p99(), DELTA);
+    }
+
+    @Test
+    void testHistogramMatchesPrices() {
+        double[] prices = prices();
+        int buckets = 7;
+
+        ProductPriceHistogram histogram = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/histogram?buckets=" + buckets), ProductPriceHistogram.class);
+
+        double min = prices[0];
+        double width = (prices[prices.length - 1] - min) / buckets;
+        long[] expected = new long[buckets];
+        for (double price : prices) {
+            expected[Math.min((int) Math.floor((price - min) / width), buckets - 1)]++;
+        }
+        assertEquals(min, histogram.min(), DELTA);
+        assertEquals(width, histogram.bucketWidth(), DELTA);
+        assertArrayEquals(expected, histogram.counts());
+        assertEquals(prices.length, Arrays.stream(histogram.counts()).sum());
+    }
+
+    @Test
+    void testTooManyBucketsAreRejected() {
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(HttpRequest.GET("/products/histogram?buckets=1000")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.controller;
+
+import com.example.model.Product;
+import com.example.repository.ProductRepository;
+import com.example.repository.ProductStreamer;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest(transactional = false)
+@Property(name = "products.pagination.stream-batch-size", value = "50")
+class ProductStreamingTest {
+
+    private static final int PRODUCT_COUNT = 1_000;
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    ProductStreamer productStreamer;
+
+    @Inject
+    JsonMapper jsonMapper;
+
+    private long saveProducts() {
+        // Start the stream after a marker so rows left by other tests are skipped
+        long marker = productRepository.save(new Product("Marker", "Marker", BigDecimal.ONE)).getId();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            products.add(new Product("Product " + i, "Description " + i, new BigDecimal("9.99")));
+        }
+        productRepository.saveAll(products);
+        return marker;
+    }
+
+    @Test
+    void testStreamProductsAsNdjson() throws IOException {
+        long marker = saveProducts();
+
+        HttpRequest<Object> request = HttpRequest.GET("/products/stream?after=" + marker)
+                .accept(ProductController.APPLICATION_NDJSON);
+        String body = client.toBlocking().retrieve(request, String.class);
+
+        String[] lines = body.split("\n");
+        assertEquals(PRODUCT_COUNT, lines.length);
+        long previousId = marker;
+        for (String line : lines) {
+            Product product = jsonMapper.readValue(line, Product.class);
+            assertTrue(product.getId() > previousId);
+            previousId = product.getId();
+        }
+    }
+
+    @Test
+    void testStreamerFetchesBoundedBatches() {
+        long marker = saveProducts();
+
+        List<List<Product>> batches = productStreamer.batchesAfter(marker).collectList().block();
+
+        assertEquals(PRODUCT_COUNT / 50, batches.size());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 50));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.controller;
+
+import com.example.codec.ProductMediaTypes;
+import com.example.model.Product;
+import com.example.service.ImportError;
+import com.example.service.ImportReport;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest(transactional = false)
+@Property(name = "products.transfer.commit-interval", value = "2")
+@Property(name = "products.transfer.max-record-length", value = "700")
+@Property(name = "products.transfer.max-reported-errors", value = "2")
+@Property(name = "products.transfer.chunk-size", value = "256")
+class ProductTransferTest {
+
+    private static final MediaType CSV = MediaType.of(ProductMediaTypes.TEXT_CSV);
+    private static final MediaType NDJSON = MediaType.of(ProductMediaTypes.APPLICATION_NDJSON);
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    JsonMapper jsonMapper;
+
+    private ImportReport importBody(String body, MediaType contentType) {
+        return client.toBlocking().retrieve(HttpRequest.POST("/products/import", body).contentType(contentType), ImportReport.class);
+    }
+
+    private Product findByName(String name) {
+        return client.toBlocking().retrieve(HttpRequest.GET("/products/search?name=" + name), Product[].class)[0];
+    }
+
+    @Test
+    void testImportCsvQuotedFields() {
+        String tag = "csv-" + UUID.randomUUID();
+        String body = "name,description,price\r\n"
+                + tag + "-a,\"Multi\nline, \"\"quoted\"\"\",10.50\r\n"
+                + "\r\n"
+                + tag + "-b,B,20\r\n"
+                + tag + "-c,Plain,30.25";
+
+        ImportReport report = importBody(body, CSV);
+
+        assertEquals(3, report.imported());
+        assertEquals(0, report.failed());
+        assertEquals("Multi\nline, \"quoted\"", findByName(tag + "-a").getDescription());
+        assertEquals(0, new BigDecimal("30.25").compareTo(findByName(tag + "-c").getPrice()));
+    }
+
+    @Test
+    void testImportReportsInvalidRowsAndKeepsTheRest() {
+        String tag = "bad-" + UUID.randomUUID();
+        String body = "name,description,price\n"
+                + tag + "-ok,Fine,1.00\n"
+                + ",Nameless,2.00\n"
+                + tag + "-cheap,Free,abc\n"
+                + tag + "-short,Missing\n"
+                + tag + "-long," + "x".repeat(800) + ",3.00\n"
+                + tag + "-ok2,Fine,4.00\n";
+
+        ImportReport report = importBody(body, CSV);
+
+        assertEquals(2, report.imported());
+        assertEquals(4, report.failed());
+        assertEquals(List.of(
+                new ImportError(3, List.of("Name is required")),
+                new ImportError(4, List.of("Price must be a decimal number"))), report.errors());
+        assertEquals("Fine", findByName(tag + "-ok2").getDescription());
+    }
+
+    @Test
+    void testImportNdjsonCreatesNewProducts() {
+        String tag = "nd-" + UUID.randomUUID();
+        String body = "{\"id\":1,\"version\":7,\"name\":\"" + tag + "-a\",\"description\":\"From NDJSON\",\"price\":5.00}\n"
+                + "\n"
+                + "{\"name\":\"" + tag + "-b\",\"description\":\"No price\"}\n"
+                + "{not json\n";
+
+        ImportReport report = importBody(body, NDJSON);
+
+        assertEquals(1, report.imported());
+        assertEquals(2, report.failed());
+        assertEquals(3, report.errors().get(0).line());
+        assertEquals(List.of("Price is required"), report.errors().get(0).errors());
+        assertEquals(0L, findByName(tag + "-a").getVersion());
+    }
+
+    @Test
+    void testImportWithoutRequiredColumnsIsRejected() {
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> importBody("title,price\nLamp,1.00\n", CSV));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void testExportRoundTripsThroughImport() throws IOException {
+        String tag = "round-" + UUID.randomUUID();
+        StringBuilder body = new StringBuilder("name,description,price\n");
+        for (int i = 0; i < 20; i++) {
+            body.append(tag).append('-').append(i).append(",\"Exported, product ").append(i).append("\",").append(i + 1).append(".99\n");
+        }
+        assertEquals(20, importBody(body.toString(), CSV).imported());
+        long after = findByName(tag + "-0").getId() - 1;
+
+        HttpResponse<String> csv = client.toBlocking().exchange(
+                HttpRequest.GET("/products/export?after=" + after).accept(CSV), String.class);
+        String ndjson = client.toBlocking().retrieve(
+                HttpRequest.GET("/products/export?after=" + after).accept(NDJSON), String.class);
+
+        assertEquals(CSV, csv.getContentType().orElseThrow());
+        List<String> csvLines = csv.body().lines().toList();
+        assertEquals("id,name,description,price,version", csvLines.get(0));
+        assertTrue(csvLines.contains(findByName(tag + "-3").getId() + "," + tag + "-3,\"Exported, product 3\",4.99,0"));
+        List<String> ndjsonLines = ndjson.lines().toList();
+        assertEquals(csvLines.size() - 1, ndjsonLines.size());
+        Product last = jsonMapper.readValue(ndjsonLines.get(ndjsonLines.size() - 1), Product.class);
+        assertTrue(last.getId() >= findByName(tag + "-19").getId());
+
+        String reimportTag = "re" + tag;
+        String reimport = Arrays.stream(csv.body().split("\n"))
+                .map(line -> line.replace(tag, reimportTag))
+                .reduce((first, second) -> first + "\n" + second)
+                .orElseThrow();
+        ImportReport report = importBody(reimport, CSV);
+        assertEquals(csvLines.size() - 1, report.imported() + report.failed());
+        assertEquals("Exported, product 7", findByName(reimportTag + "-7").getDescription());
+    }
+}
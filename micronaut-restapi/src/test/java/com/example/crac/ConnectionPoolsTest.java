@@ -0,0 +1,65 @@
+package com.example.crac;
+
+import com.example.repository.ProductRepositoryMicronaut;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest(transactional = false)
+@Property(name = "datasources.default.allow-pool-suspension", value = "true")
+class ConnectionPoolsTest {
+
+    @Inject
+    ConnectionPools pools;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    ProductRepositoryMicronaut productRepository;
+
+    @Test
+    void testSuspendClosesConnectionsAndResumeReopensThem() throws Exception {
+        productRepository.count();
+        assertTrue(pool().getHikariPoolMXBean().getTotalConnections() > 0);
+
+        pools.suspend();
+        assertEquals(0, pool().getHikariPoolMXBean().getTotalConnections());
+
+        pools.resume();
+        assertTrue(productRepository.count() >= 0);
+        assertTrue(pool().getHikariPoolMXBean().getTotalConnections() > 0);
+    }
+
+    @Test
+    void testSuspendResumesThePoolsWhenConnectionsStayOpen() throws Exception {
+        ConnectionPools impatient = new ConnectionPools(List.of(dataSource), Duration.ofMillis(200));
+        try (Connection held = pool().getConnection()) {
+            assertThrows(IllegalStateException.class, impatient::suspend);
+        }
+
+        // A suspended pool would keep this waiting for a connection until the connection timeout
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            assertTrue(executor.submit(() -> productRepository.count()).get(5, TimeUnit.SECONDS) >= 0);
+        }
+    }
+
+    private HikariDataSource pool() throws SQLException {
+        return dataSource.unwrap(HikariDataSource.class);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.idempotency;
+
+import com.example.config.IdempotencyConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.transaction.TransactionOperations;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest(transactional = false)
+@Property(name = "products.idempotency.store", value = "jdbc")
+@Property(name = "products.idempotency.ttl", value = "1s")
+class JdbcIdempotencyStoreTest {
+
+    @Inject
+    IdempotencyStore store;
+
+    @Inject
+    IdempotencyRecordRepository recordRepository;
+
+    @Inject
+    TransactionOperations<?> transactionOperations;
+
+    @Inject
+    JsonMapper jsonMapper;
+
+    @Inject
+    IdempotencyConfiguration configuration;
+
+    private static IdempotentResponse response(String body) {
+        return new IdempotentResponse("hash", 201, body, Instant.now());
+    }
+
+    // A service of its own, as on another instance sharing the table
+    private IdempotencyService instance() {
+        return new IdempotencyService(store, transactionOperations, jsonMapper, configuration, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testJdbcStoreIsSelected() {
+        assertInstanceOf(JdbcIdempotencyStore.class, store);
+    }
+
+    @Test
+    void testCompletedResponseIsFound() {
+        String key = UUID.randomUUID().toString();
+
+        assertTrue(store.claim(key, "hash"));
+        store.complete(key, response("{\"id\":1}"));
+
+        Optional<IdempotentResponse> found = store.find(key);
+        assertEquals("{\"id\":1}", found.orElseThrow().body());
+        assertEquals(201, found.get().status());
+    }
+
+    @Test
+    void testPendingKeyIsNotFound() {
+        String key = UUID.randomUUID().toString();
+
+        assertTrue(store.claim(key, "hash"));
+
+        assertTrue(store.find(key).isEmpty());
+    }
+
+    @Test
+    void testKeyIsClaimedOnce() {
+        String key = UUID.randomUUID().toString();
+
+        assertTrue(store.claim(key, "hash"));
+        store.complete(key, response("first"));
+
+        assertFalse(store.claim(key, "hash"));
+        assertEquals("first", store.find(key).orElseThrow().body());
+    }
+
+    @Test
+    void testClaimWaitsForTheTransactionHoldingTheKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch claimed = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> first = executor.submit(() -> transactionOperations.executeWrite(status -> {
+                assertTrue(store.claim(key, "hash"));
+                claimed.countDown();
+                sleep(300);
+                store.complete(key, response("first"));
+                return null;
+            }));
+            assertTrue(claimed.await(5, TimeUnit.SECONDS));
+            Future<Boolean> second = executor.submit(
+                    () -> transactionOperations.executeWrite(status -> store.claim(key, "hash")));
+
+            first.get(5, TimeUnit.SECONDS);
+            assertFalse(second.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals("first", store.find(key).orElseThrow().body());
+    }
+
+    @Test
+    void testRolledBackClaimReleasesTheKey() {
+        String key = UUID.randomUUID().toString();
+
+        assertThrows(IllegalStateException.class, () -> transactionOperations.executeWrite(status -> {
+            store.claim(key, "hash");
+            throw new IllegalStateException("Request failed");
+        }));
+
+        assertTrue(store.claim(key, "hash"));
+    }
+
+    @Test
+    void testDuplicateOnAnotherInstanceDoesNotRun() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        List<IdempotencyService> instances = List.of(instance(), instance());
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            List<Future<IdempotencyService.Result<String>>> results = instances.stream()
+                    .map(instance -> executor.submit(() -> {
+                        start.await();
+                        return instance.execute(key, "request", String.class, HttpStatus.CREATED, () -> {
+                            sleep(200);
+                            return "created-" + executions.incrementAndGet();
+                        });
+                    }))
+                    .toList();
+            start.countDown();
+
+            assertEquals(results.get(0).get(10, TimeUnit.SECONDS).body(), results.get(1).get(10, TimeUnit.SECONDS).body());
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExpiredKeysAreIgnoredPurgedAndClaimable() throws InterruptedException {
+        String key = UUID.randomUUID().toString();
+        store.claim(key, "hash");
+        store.complete(key, response("expiring"));
+
+        Thread.sleep(1500);
+
+        assertTrue(store.find(key).isEmpty());
+        ((JdbcIdempotencyStore) store).purgeExpired();
+        assertTrue(recordRepository.findById(key).isEmpty());
+
+        String unpurged = UUID.randomUUID().toString();
+        store.claim(unpurged, "hash");
+        store.complete(unpurged, response("expiring"));
+        Thread.sleep(1500);
+        assertTrue(store.claim(unpurged, "hash"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.metrics;
+
+import com.example.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest(transactional = false)
+class ProductMetricsTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Test
+    void testControllerMetricsTaggedByEndpointAndStatus() {
+        Product created = createProduct();
+        client.toBlocking().retrieve(HttpRequest.GET("/products/" + created.getId()), Product.class);
+
+        Timer getTimer = meterRegistry.find("http.server.requests")
+                .tag("uri", "/products/{id}")
+                .tag("method", "GET")
+                .tag("status", "200")
+                .timer();
+        assertNotNull(getTimer);
+        assertTrue(getTimer.count() > 0);
+
+        Timer postTimer = meterRegistry.find("http.server.requests")
+                .tag("uri", "/products")
+                .tag("method", "POST")
+                .tag("status", "201")
+                .timer();
+        assertNotNull(postTimer);
+        assertTrue(postTimer.count() > 0);
+    }
+
+    @Test
+    void testRepositoryMetricsPerMethod() {
+        Timer before = repositoryTimer("save");
+        long saves = before == null ? 0 : before.count();
+
+        createProduct();
+
+        Timer after = repositoryTimer("save");
+        assertNotNull(after);
+        assertTrue(after.count() > saves);
+    }
+
+    @Test
+    void testConnectionPoolGauges() {
+        createProduct();
+
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.idle").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.pending").gauge());
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        assertNotNull(acquire);
+        assertTrue(acquire.count() > 0);
+    }
+
+    @Test
+    void testPrometheusEndpoint() {
+        Product created = createProduct();
+        client.toBlocking().retrieve(HttpRequest.GET("/products/" + created.getId()), Product.class);
+
+        String scrape = client.toBlocking().retrieve(HttpRequest.GET("/prometheus"));
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket"));
+        assertTrue(scrape.contains("uri=\"/products/{id}\""));
+        assertTrue(scrape.contains("repository_invocations_seconds_count"));
+        assertTrue(scrape.contains("hikaricp_connections_pending"));
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds"));
+    }
+
+    private Product createProduct() {
+        Product product = new Product("Metrics Product", "Metrics Description", new BigDecimal("9.99"));
+        return client.toBlocking().retrieve(HttpRequest.POST("/products", product), Product.class);
+    }
+
+    private Timer repositoryTimer(String method) {
+        return meterRegistry.find(RepositoryTimingInterceptor.METRIC)
+                .tag("repository", "ProductRepositoryMicronaut")
+                .tag("method", method)
+                .timer();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.repository;
+
+import com.example.event.ProductChangedEvent;
+import com.example.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Not transactional: the lookups run on other threads and must see committed rows.
+// A wide window so that concurrently started lookups reliably land in the same batch
+@MicronautTest(transactional = false)
+@Property(name = "products.loader.max-wait", value = "200ms")
+@Property(name = "products.loader.max-batch-size", value = "4")
+class ProductLoaderTest {
+
+    private static final int CALLERS = 8;
+
+    @Inject
+    ProductLoader productLoader;
+
+    @Inject
+    ProductRepositoryMicronaut productRepository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    ApplicationEventPublisher<ProductChangedEvent> eventPublisher;
+
+    private Product create(String name) {
+        return productRepository.save(new Product(name, "Loader Description", new BigDecimal("3.00")));
+    }
+
+    private double queries() {
+        return meterRegistry.counter(ProductLoader.QUERIES_METRIC).count();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.counter(ProductLoader.REQUESTS_METRIC, "result", result).count();
+    }
+
+    // Runs the lookups for ids.apply(0..CALLERS-1) at the same time
+    private List<Optional<Product>> concurrently(IntFunction<Long> ids) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Optional<Product>>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                Long id = ids.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return productLoader.findById(id);
+                }));
+            }
+            start.countDown();
+            List<Optional<Product>> results = new ArrayList<>();
+            for (Future<Optional<Product>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    @Test
+    void testConcurrentLookupsOfOneIdShareALoad() throws Exception {
+        Product product = create("Coalesced Product");
+        double queriesBefore = queries();
+        double coalescedBefore = requests("coalesced");
+
+        List<Optional<Product>> results = concurrently(i -> product.getId());
+
+        results.forEach(result -> assertEquals("Coalesced Product", result.orElseThrow().getName()));
+        assertTrue(queries() - queriesBefore < CALLERS);
+        assertTrue(requests("coalesced") > coalescedBefore);
+    }
+
+    @Test
+    void testDistinctIdsAreBatched() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            products.add(create("Batched Product " + i));
+        }
+        double queriesBefore = queries();
+
+        List<Optional<Product>> results = concurrently(i -> products.get(i).getId());
+
+        for (int i = 0; i < CALLERS; i++) {
+            assertEquals(products.get(i).getId(), results.get(i).orElseThrow().getId());
+        }
+        assertTrue(queries() - queriesBefore < CALLERS);
+        assertTrue(meterRegistry.summary(ProductLoader.BATCH_SIZE_METRIC).max() <= 4);
+    }
+
+    @Test
+    void testMissingIdsAreEmpty() throws Exception {
+        Product product = create("Present Product");
+
+        List<Optional<Product>> results = concurrently(i -> i % 2 == 0 ? product.getId() : -1L - i);
+
+        for (int i = 0; i < CALLERS; i++) {
+            assertEquals(i % 2 == 0, results.get(i).isPresent());
+        }
+    }
+
+    @Test
+    void testLookupAfterUpdateSeesNewValue() {
+        Product product = create("Original Product");
+        productLoader.findById(product.getId());
+        product.setName("Updated Product");
+        productRepository.update(product);
+
+        assertEquals("Updated Product", productLoader.findById(product.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void testIdJoinedAgainAfterChangeCompletesBothCallers() throws Exception {
+        Product product = create("Rejoined Product");
+        // Not closed with try-with-resources, which would wait for a caller that never completes
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<Optional<Product>> first = executor.submit(() -> productLoader.findById(product.getId()));
+            // Within the 200ms window, so the batch of the first lookup is still open
+            Thread.sleep(50);
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), ProductChangedEvent.Type.UPDATED));
+            Future<Optional<Product>> second = executor.submit(() -> productLoader.findById(product.getId()));
+
+            assertEquals(product.getId(), first.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+            assertEquals(product.getId(), second.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
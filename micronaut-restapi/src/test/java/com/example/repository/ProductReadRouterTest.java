@@ -0,0 +1,114 @@
+package com.example.repository;
+
+import com.example.config.ReplicaConfiguration;
+import com.example.model.Product;
+import com.example.service.ProductService;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The replica database never receives the primary's writes, so a read shows which database served it
+@MicronautTest(environments = "replica")
+class ProductReadRouterTest {
+
+    private static final AtomicLong REPLICA_IDS = new AtomicLong(900_000);
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    ProductService productService;
+
+    @Value("${datasources.replica.url}")
+    String replicaUrl;
+
+    @Inject
+    ReplicaConfiguration replicaConfiguration;
+
+    private long insertIntoReplica(String name) throws SQLException {
+        long id = REPLICA_IDS.incrementAndGet();
+        try (Connection connection = DriverManager.getConnection(replicaUrl, "sa", "");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO products (id, name, description, price, version, last_modified) "
+                             + "VALUES (?, ?, 'Replica only', 9.99, 0, CURRENT_TIMESTAMP)")) {
+            insert.setLong(1, id);
+            insert.setString(2, name);
+            insert.executeUpdate();
+        }
+        return id;
+    }
+
+    private Product create(String name) {
+        Product product = new Product(name, "Primary", new BigDecimal("1.00"));
+        return client.toBlocking().retrieve(HttpRequest.POST("/products", product), Product.class);
+    }
+
+    private void awaitWindow() throws InterruptedException {
+        Thread.sleep(replicaConfiguration.getReadYourWritesWindow().multipliedBy(2).toMillis());
+    }
+
+    @Test
+    void testReadsAreServedByReplica() throws Exception {
+        long id = insertIntoReplica("Replica Product");
+        awaitWindow();
+
+        Product product = client.toBlocking().retrieve(HttpRequest.GET("/products/" + id), Product.class);
+        List<Product> page = client.toBlocking().retrieve(
+                HttpRequest.GET("/products?after=" + (id - 1) + "&limit=1"), Argument.listOf(Product.class));
+
+        assertEquals("Replica Product", product.getName());
+        assertEquals(List.of(id), page.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void testReadYourWritesWithinWindow() {
+        Product created = create("Fresh Product");
+
+        Product read = client.toBlocking().retrieve(HttpRequest.GET("/products/" + created.getId()), Product.class);
+        List<Product> page = client.toBlocking().retrieve(
+                HttpRequest.GET("/products?after=" + (created.getId() - 1) + "&limit=1"), Argument.listOf(Product.class));
+
+        assertEquals("Fresh Product", read.getName());
+        assertEquals(List.of(created.getId()), page.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void testReadsReturnToReplicaAfterWindow() throws Exception {
+        Product created = create("Unreplicated Product");
+        awaitWindow();
+
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(HttpRequest.GET("/products/" + created.getId()), Product.class)
+        );
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void testNameLookupUsesPrimaryAfterWrite() {
+        Product created = create("Named Product " + System.nanoTime());
+
+        assertTrue(productService.findByName(created.getName()).isPresent());
+    }
+}
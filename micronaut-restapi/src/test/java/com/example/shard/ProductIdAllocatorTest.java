@@ -0,0 +1,47 @@
+package com.example.shard;
+
+import io.micronaut.data.connection.jdbc.advice.DelegatingDataSource;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest(environments = "shards", transactional = false)
+class ProductIdAllocatorTest {
+
+    @Inject
+    DataSource dataSource;
+
+    private long nextSequenceValue() throws SQLException {
+        try (Connection connection = DelegatingDataSource.unwrapDataSource(dataSource).getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT products_seq.NEXTVAL FROM dual");
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    @Test
+    void testBlocksEndAtTheValueDrawnLikeHibernate() throws SQLException {
+        ProductIdAllocator allocator = new ProductIdAllocator(dataSource);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < ProductIdAllocator.BLOCK_SIZE; i++) {
+            ids.add(allocator.nextId());
+        }
+        // Hibernate's pooled optimizer would take the ids from next - BLOCK_SIZE + 1 up to next
+        long next = nextSequenceValue();
+
+        assertEquals(ProductIdAllocator.BLOCK_SIZE, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id > 0 && id <= next - ProductIdAllocator.BLOCK_SIZE), ids.toString());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.shard;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@MicronautTest(environments = "shards", transactional = false)
+@Property(name = "products.shards.strategy", value = "range")
+@Property(name = "products.shards.range-size", value = "100")
+class RangeShardingTest {
+
+    @Inject
+    ShardedProductRepository shardedRepository;
+
+    @Test
+    void testConsecutiveIdsFillOneShardAfterAnother() {
+        assertEquals("shard-0", shardedRepository.shardOf(1L));
+        assertEquals("shard-0", shardedRepository.shardOf(100L));
+        assertEquals("shard-1", shardedRepository.shardOf(101L));
+        assertEquals("shard-2", shardedRepository.shardOf(201L));
+        assertEquals("shard-2", shardedRepository.shardOf(1_000_000L));
+    }
+}
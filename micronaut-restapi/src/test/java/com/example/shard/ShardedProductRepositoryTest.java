@@ -0,0 +1,136 @@
+package com.example.shard;
+
+import com.example.model.Product;
+import io.micronaut.data.exceptions.OptimisticLockException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Each shard is a separate H2 database, so a direct query shows where a product was stored
+@MicronautTest(environments = "shards", transactional = false)
+class ShardedProductRepositoryTest {
+
+    private static final List<String> SHARDS = List.of("shard-0", "shard-1", "shard-2");
+
+    @Inject
+    ShardedProductRepository shardedRepository;
+
+    @BeforeEach
+    void clearShards() {
+        shardedRepository.deleteAll();
+    }
+
+    private static Product product(int i) {
+        return new Product("Sharded " + i, "Product " + i, new BigDecimal(i + ".99"));
+    }
+
+    private static Set<Long> idsIn(String shard) throws SQLException {
+        String url = "jdbc:h2:mem:" + shard.replace("-", "") + ";MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        Set<Long> ids = new HashSet<>();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement query = connection.prepareStatement("SELECT id FROM products");
+             ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    void testProductsAreSpreadOverShardsWithUniqueIds() throws SQLException {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            products.add(product(i));
+        }
+        List<Product> saved = shardedRepository.saveAll(products);
+
+        Set<Long> ids = saved.stream().map(Product::getId).collect(Collectors.toSet());
+        assertEquals(60, ids.size());
+        Map<String, List<Long>> expected = saved.stream().map(Product::getId)
+                .collect(Collectors.groupingBy(shardedRepository::shardOf));
+        for (String shard : SHARDS) {
+            assertFalse(expected.getOrDefault(shard, List.of()).isEmpty(), shard + " received no products");
+            assertEquals(new HashSet<>(expected.get(shard)), idsIn(shard));
+        }
+        assertEquals(60, shardedRepository.count());
+    }
+
+    @Test
+    void testSingleShardCrud() throws SQLException {
+        Product saved = shardedRepository.save(product(1));
+        String shard = shardedRepository.shardOf(saved.getId());
+        assertTrue(idsIn(shard).contains(saved.getId()));
+        assertEquals(0L, saved.getVersion());
+
+        saved.setPrice(new BigDecimal("5.00"));
+        shardedRepository.save(saved);
+        Product read = shardedRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("5.00").compareTo(read.getPrice()));
+        assertEquals(1L, read.getVersion());
+
+        shardedRepository.deleteById(saved.getId());
+        assertTrue(shardedRepository.findById(saved.getId()).isEmpty());
+        assertFalse(idsIn(shard).contains(saved.getId()));
+    }
+
+    @Test
+    void testStaleUpdateIsRejected() {
+        Product saved = shardedRepository.save(product(1));
+        Product stale = shardedRepository.findById(saved.getId()).orElseThrow();
+        saved.setName("First");
+        shardedRepository.save(saved);
+
+        stale.setName("Second");
+        assertThrows(OptimisticLockException.class, () -> shardedRepository.save(stale));
+        assertEquals("First", shardedRepository.findById(saved.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void testScatterGatherMergesInIdOrder() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            products.add(product(i));
+        }
+        List<Long> ids = shardedRepository.saveAll(products).stream().map(Product::getId).sorted().toList();
+
+        assertEquals(ids, shardedRepository.findAll().stream().map(Product::getId).toList());
+        assertEquals(ids.subList(0, 10),
+                shardedRepository.findByIdGreaterThanOrderById(0, 10).stream().map(Product::getId).toList());
+        assertEquals(ids.subList(10, 20),
+                shardedRepository.findByIdGreaterThanOrderById(ids.get(9), 10).stream().map(Product::getId).toList());
+        assertEquals(List.of(ids.get(3), ids.get(17)),
+                shardedRepository.findByIdIn(List.of(ids.get(17), ids.get(3), -1L)).stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void testFindByNameAsksEveryShard() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            products.add(product(i));
+        }
+        for (Product saved : shardedRepository.saveAll(products)) {
+            assertEquals(saved.getId(), shardedRepository.findByName(saved.getName()).orElseThrow().getId());
+        }
+        assertTrue(shardedRepository.findByName("Missing").isEmpty());
+    }
+}
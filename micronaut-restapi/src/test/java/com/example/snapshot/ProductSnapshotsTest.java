@@ -0,0 +1,181 @@
+package com.example.snapshot;
+
+import com.example.codec.ProductMediaTypes;
+import com.example.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Products renamed directly in the database publish no change, so a read that still shows the old name was served
+// from the snapshot. Builds are started by the tests rather than the schedule.
+@MicronautTest(transactional = false)
+@Property(name = "products.snapshot.enabled", value = "true")
+@Property(name = "products.snapshot.refresh-interval", value = "1h")
+@Property(name = "products.snapshot.max-staleness", value = "1s")
+class ProductSnapshotsTest {
+
+    private static final MediaType CBOR = MediaType.of(ProductMediaTypes.APPLICATION_CBOR);
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    ProductSnapshots productSnapshots;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Value("${datasources.default.url}")
+    String url;
+
+    private Product create(String name) {
+        Product product = new Product(name, "Snapshot", new BigDecimal("5.00"));
+        return client.toBlocking().retrieve(HttpRequest.POST("/products", product), Product.class);
+    }
+
+    private void renameInDatabase(long id, String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement update = connection.prepareStatement("UPDATE products SET name = ? WHERE id = ?")) {
+            update.setString(1, name);
+            update.setLong(2, id);
+            update.executeUpdate();
+        }
+    }
+
+    private Product get(long id) {
+        return client.toBlocking().retrieve(HttpRequest.GET("/products/" + id), Product.class);
+    }
+
+    private List<Product> page(long after, int limit) {
+        return client.toBlocking().retrieve(
+                HttpRequest.GET("/products?after=" + after + "&limit=" + limit), Argument.listOf(Product.class));
+    }
+
+    private double reads(String source) {
+        return meterRegistry.counter(ProductSnapshots.READS_METRIC, "source", source).count();
+    }
+
+    @Test
+    void testReadsAreServedFromSnapshotUntilRebuilt() throws Exception {
+        Product first = create("Snapshot One");
+        Product second = create("Snapshot Two");
+        productSnapshots.rebuild();
+        renameInDatabase(first.getId(), "Renamed One");
+        double served = reads("snapshot");
+
+        HttpResponse<Product> response = client.toBlocking().exchange(
+                HttpRequest.GET("/products/" + first.getId()), Product.class);
+        List<Product> page = page(first.getId() - 1, 2);
+
+        assertEquals("Snapshot One", response.body().getName());
+        assertEquals(first.getPrice(), response.body().getPrice());
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getContentType().orElseThrow());
+        assertEquals("\"" + first.getVersion() + "\"", response.header(HttpHeaders.ETAG));
+        assertEquals(List.of(first.getId(), second.getId()), page.stream().map(Product::getId).toList());
+        assertEquals("Snapshot One", page.get(0).getName());
+        assertEquals(served + 2, reads("snapshot"));
+
+        productSnapshots.rebuild();
+
+        assertEquals("Renamed One", get(first.getId()).getName());
+        assertEquals("Renamed One", page(first.getId() - 1, 1).get(0).getName());
+    }
+
+    @Test
+    void testChangedProductIsReadFromDatabase() {
+        Product product = create("Before Update");
+        productSnapshots.rebuild();
+
+        Product update = new Product("After Update", product.getDescription(), product.getPrice());
+        client.toBlocking().retrieve(HttpRequest.PUT("/products/" + product.getId(), update), Product.class);
+
+        assertEquals("After Update", get(product.getId()).getName());
+    }
+
+    @Test
+    void testPagesFallBackToDatabaseAfterMaxStaleness() throws Exception {
+        Product product = create("Stale Page");
+        productSnapshots.rebuild();
+
+        Product update = new Product("Fresh Page", product.getDescription(), product.getPrice());
+        client.toBlocking().retrieve(HttpRequest.PUT("/products/" + product.getId(), update), Product.class);
+
+        assertEquals("Stale Page", page(product.getId() - 1, 1).get(0).getName());
+        Thread.sleep(1200);
+        assertEquals("Fresh Page", page(product.getId() - 1, 1).get(0).getName());
+    }
+
+    @Test
+    void testMissingProductIsNotFoundInSnapshot() {
+        productSnapshots.rebuild();
+        double served = reads("snapshot");
+
+        HttpClientResponseException exception = assertThrows(
+                HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(HttpRequest.GET("/products/999999999"), Product.class)
+        );
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertEquals(served + 1, reads("snapshot"));
+    }
+
+    @Test
+    void testConditionalReadsAgainstSnapshot() {
+        Product first = create("Conditional One");
+        create("Conditional Two");
+        productSnapshots.rebuild();
+        String after = String.valueOf(first.getId() - 1);
+
+        HttpResponse<?> page = client.toBlocking().exchange(HttpRequest.GET("/products?after=" + after + "&limit=2"));
+        // A sparse page is read from the database; its tag hashes the same ids and versions
+        HttpResponse<?> sparse = client.toBlocking().exchange(
+                HttpRequest.GET("/products?after=" + after + "&limit=2&fields=id,name,description,price"));
+        HttpResponse<?> notModified = client.toBlocking().exchange(
+                HttpRequest.GET("/products?after=" + after + "&limit=2")
+                        .header(HttpHeaders.IF_NONE_MATCH, page.header(HttpHeaders.ETAG)));
+        HttpResponse<?> productNotModified = client.toBlocking().exchange(
+                HttpRequest.GET("/products/" + first.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + first.getVersion() + "\""));
+
+        assertEquals(sparse.header(HttpHeaders.ETAG), page.header(HttpHeaders.ETAG));
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatus());
+        assertEquals(HttpStatus.NOT_MODIFIED, productNotModified.getStatus());
+    }
+
+    @Test
+    void testCborIsNotServedFromSnapshot() {
+        Product product = create("Binary Snapshot");
+        productSnapshots.rebuild();
+        double served = reads("snapshot");
+
+        HttpResponse<Product> response = client.toBlocking().exchange(
+                HttpRequest.GET("/products/" + product.getId()).accept(CBOR), Product.class);
+
+        assertEquals(CBOR, response.getContentType().orElseThrow());
+        assertEquals("Binary Snapshot", response.body().getName());
+        assertEquals(served, reads("snapshot"));
+    }
+}
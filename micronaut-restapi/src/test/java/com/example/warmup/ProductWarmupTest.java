@@ -0,0 +1,46 @@
+package com.example.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest
+@Property(name = "products.warmup.enabled", value = "true")
+@Property(name = "products.warmup.iterations", value = "20")
+@Property(name = "products.warmup.concurrency", value = "2")
+class ProductWarmupTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    ProductWarmup warmup;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Test
+    void testReadyOnceWarmupCompleted() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!warmup.isComplete() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertTrue(warmup.isComplete());
+        assertEquals(20, warmup.getCompletedIterations());
+        assertEquals(1, meterRegistry.timer(ProductWarmup.DURATION_METRIC).count());
+        assertEquals(HttpStatus.OK, client.toBlocking().exchange(HttpRequest.GET("/health/readiness")).getStatus());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.warmup;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// A warm-up that does not finish while the test runs
+@MicronautTest
+@Property(name = "products.warmup.enabled", value = "true")
+@Property(name = "products.warmup.iterations", value = "2147483647")
+@Property(name = "products.warmup.concurrency", value = "1")
+@Property(name = "products.warmup.max-duration", value = "10m")
+class WarmupHealthIndicatorTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Test
+    void testNotReadyDuringWarmup() {
+        HttpClientResponseException exception = assertThrows(HttpClientResponseException.class,
+                () -> client.toBlocking().exchange(HttpRequest.GET("/health/readiness")));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+    }
+
+    @Test
+    void testLiveDuringWarmup() {
+        assertEquals(HttpStatus.OK, client.toBlocking().exchange(HttpRequest.GET("/health/liveness")).getStatus());
+    }
+}
@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+#
+# Runs the same mixed read/write workload against micronaut-restapi and the Spring MVC front-end of
+# spring-module, both on an embedded H2 database, and prints throughput, p50/p99/p999 latency, allocation rate
+# and startup time side by side. The load generator is com.example.benchmarks.LoadGenerator; it starts each
+# application in turn, loads the dataset, warms up, measures and stops it again.
+#
+# Usage: scripts/load-test.sh [--skip-build] [LoadGenerator options]
+#
+# LoadGenerator options: -c clients, -d seconds, -w warm-up seconds, --dataset products, --writes fraction,
+# --workload mixed|search.
+# Results are written to target/load/load-result.json, application logs next to it. Both JVMs get the options
+# in JAVA_OPTS. Micronaut's admission control is switched off, since all requests come from one address.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+OUT="$ROOT/target/load"
+MICRONAUT_PORT="${MICRONAUT_PORT:-18080}"
+SPRING_PORT="${SPRING_PORT:-18081}"
+BUILD=true
+ARGS=()
+
+while [[ $# -gt 0 ]]; do
+    case "$1" in
+        --skip-build) BUILD=false; shift ;;
+        *) ARGS+=("$1"); shift ;;
+    esac
+done
+
+mkdir -p "$OUT"
+
+if [[ "$BUILD" == true ]]; then
+    cd "$ROOT"
+    echo "Building..."
+    ./mvnw -B -q install -pl spring-module -am -Ph2 -DskipTests
+    cp spring-module/target/spring-module-0.1-exec.jar "$OUT/spring-module.jar"
+    ./mvnw -B -q package -pl micronaut-restapi -Ph2 -DskipTests
+    cp micronaut-restapi/target/micronaut-restapi-0.1.jar "$OUT/micronaut-restapi.jar"
+    ./mvnw -B -q package -pl benchmarks -am -DskipTests
+fi
+
+java -cp "$ROOT/benchmarks/target/benchmarks.jar" com.example.benchmarks.LoadGenerator -o "$OUT/load-result.json" \
+    --start "micronaut=java ${JAVA_OPTS:-} -Dmicronaut.environments=h2 -Dmicronaut.server.port=$MICRONAUT_PORT -Dproducts.admission.enabled=false -jar $OUT/micronaut-restapi.jar" \
+    --start "spring=java ${JAVA_OPTS:-} -jar $OUT/spring-module.jar --spring.profiles.active=h2 --server.port=$SPRING_PORT" \
+    "${ARGS[@]}" \
+    "micronaut=http://localhost:$MICRONAUT_PORT" "spring=http://localhost:$SPRING_PORT"
@@ -0,0 +1,210 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-request, memory and request latency of micronaut-restapi, JVM versus native image
+# and Hibernate (the jpa persistence mode) versus Micronaut Data JDBC (the jdbc persistence mode), against the
+# embedded H2 database (h2 Maven profile and environment). jvm-cold is the jvm mode without the start-up
+# warm-up (products.warmup.enabled=false); jvm-crac restores a CRaC checkpoint taken after the warm-up.
+#
+# Usage: scripts/startup-benchmark.sh [-n runs] [-r requests] [--skip-build]
+#            [jvm] [jvm-cold] [jvm-crac] [native] [jvm-jdbc] [native-jdbc]
+#
+# For every run the application is started from scratch and GET /products?limit=1 is polled until it
+# answers 200. Reported per mode (median over the runs):
+#   ttfr      wall-clock ms from process launch to the first successful response
+#   startup   ms Micronaut reports in its "Startup completed" log line (not logged on a CRaC restore)
+#   ready     ms from process launch until GET /health/readiness answers 200, i.e. the warm-up completed
+#   rss-first resident set size (MB) right after the first response
+#   rss-load  resident set size (MB) after a further <requests> requests, sent once ready
+#   heap-load used heap (MB) after those requests, from GET /prometheus
+#   p50, p99  latency (ms) of those requests
+#   steady    ms into those requests until the p99 of a window of 50 is within 20% of the last window's
+#
+# All modes are built with Micronaut AOT; the -jdbc modes also with -Dpersistence=jdbc and jvm-crac with the
+# crac profile. Per-run results are written to target/startup/results.csv.
+# Requires Linux (/proc) and curl; the native mode requires a GraalVM JDK as JAVA_HOME, jvm-crac a JDK with
+# CRaC support (such as Azul Zulu with CRaC) as JAVA_HOME. JVM options can be passed in JAVA_OPTS.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+OUT="$ROOT/target/startup"
+PORT="${PORT:-18080}"
+URL="http://localhost:$PORT/products?limit=1"
+READY_URL="http://localhost:$PORT/health/readiness"
+CHECKPOINT="$OUT/crac-checkpoint"
+WINDOW=50
+RUNS=5
+REQUESTS=500
+BUILD=true
+MODES=()
+
+while [[ $# -gt 0 ]]; do
+    case "$1" in
+        -n) RUNS="$2"; shift 2 ;;
+        -r) REQUESTS="$2"; shift 2 ;;
+        --skip-build) BUILD=false; shift ;;
+        jvm|jvm-cold|jvm-crac|native|jvm-jdbc|native-jdbc) MODES+=("$1"); shift ;;
+        *) echo "Unknown argument: $1" >&2; exit 2 ;;
+    esac
+done
+[[ ${#MODES[@]} -eq 0 ]] && MODES=(jvm native)
+
+mkdir -p "$OUT"
+
+build() {
+    local mode="$1" persistence=jpa profiles=h2
+    [[ "$mode" == *-jdbc ]] && persistence=jdbc
+    [[ "$mode" == jvm-crac ]] && profiles=h2,crac
+    cd "$ROOT"
+    # Micronaut AOT resolves spring-module from the local repository
+    ./mvnw -B -q install -pl spring-module -am -DskipTests
+    if [[ "$mode" == native* ]]; then
+        ./mvnw -B -q package -pl micronaut-restapi -P"$profiles" -Dpersistence="$persistence" -Dpackaging=native-image -DskipTests
+        cp micronaut-restapi/target/micronaut-restapi "$OUT/micronaut-restapi-$mode"
+    else
+        ./mvnw -B -q package -pl micronaut-restapi -P"$profiles" -Dpersistence="$persistence" -Dmicronaut.aot.enabled=true -DskipTests
+        cp micronaut-restapi/target/micronaut-restapi-0.1.jar "$OUT/micronaut-restapi-$mode.jar"
+    fi
+}
+
+# Waits until the URL answers 200, failing if the process exits first
+await() {
+    local pid="$1" url="$2" what="$3"
+    until curl -sf -o /dev/null "$url"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$what exited before $url answered, see the log in $OUT" >&2
+            exit 1
+        fi
+        sleep 0.005
+    done
+}
+
+# Starts jvm-crac once, lets the warm-up complete and checkpoints it; every run restores that checkpoint
+checkpoint() {
+    local log="$OUT/jvm-crac-checkpoint.log" pid
+    rm -rf "$CHECKPOINT"
+    # shellcheck disable=SC2086
+    MICRONAUT_ENVIRONMENTS=h2,crac MICRONAUT_SERVER_PORT="$PORT" \
+        java ${JAVA_OPTS:-} -XX:CRaCCheckpointTo="$CHECKPOINT" -jar "$OUT/micronaut-restapi-jvm-crac.jar" > "$log" 2>&1 &
+    pid=$!
+    await "$pid" "$READY_URL" "jvm-crac checkpoint"
+    jcmd "$pid" JDK.checkpoint > /dev/null
+    wait "$pid" 2> /dev/null || true
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+rss_mb() {
+    awk '/^VmRSS:/ { printf "%.1f", $2 / 1024 }' "/proc/$1/status"
+}
+
+heap_mb() {
+    curl -sf "http://localhost:$PORT/prometheus" \
+        | awk '/^jvm_memory_used_bytes\{.*area="heap"/ { sum += $NF } END { printf "%.1f", sum / 1048576 }'
+}
+
+# Percentile (0-100) of the numbers on standard input
+percentile() {
+    sort -n | awk -v p="$1" '{ v[NR] = $1 } END { if (NR == 0) print "-"; else { i = int((NR - 1) * p / 100) + 1; print v[i] } }'
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) print "-"; else if (NR % 2) print v[(NR + 1) / 2]; else print (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+run_once() {
+    local mode="$1" run="$2" log="$OUT/$1-$2.log" times="$OUT/$1-$2.times" pid start ttfr startup
+    local rss_first rss_load heap_load p50 p99 ready steady
+    local -a cmd
+    if [[ "$mode" == native* ]]; then
+        cmd=("$OUT/micronaut-restapi-$mode")
+    elif [[ "$mode" == jvm-crac ]]; then
+        cmd=(java -XX:CRaCRestoreFrom="$CHECKPOINT")
+    elif [[ "$mode" == jvm-cold ]]; then
+        # shellcheck disable=SC2206
+        cmd=(java ${JAVA_OPTS:-} -Dproducts.warmup.enabled=false -jar "$OUT/micronaut-restapi-jvm.jar")
+    else
+        # shellcheck disable=SC2206
+        cmd=(java ${JAVA_OPTS:-} -jar "$OUT/micronaut-restapi-$mode.jar")
+    fi
+
+    start=$(now_ms)
+    MICRONAUT_ENVIRONMENTS=h2 MICRONAUT_SERVER_PORT="$PORT" "${cmd[@]}" > "$log" 2>&1 &
+    pid=$!
+    await "$pid" "$URL" "$mode run $run"
+    ttfr=$(( $(now_ms) - start ))
+    rss_first=$(rss_mb "$pid")
+    await "$pid" "$READY_URL" "$mode run $run"
+    ready=$(( $(now_ms) - start ))
+
+    for ((i = 0; i < REQUESTS; i++)); do echo "url = \"$URL\""; echo "output = /dev/null"; done \
+        | curl -sf -K - -w '%{time_total}\n' > "$times"
+    rss_load=$(rss_mb "$pid")
+    heap_load=$(heap_mb)
+    p50=$(awk '{ print $1 * 1000 }' "$times" | percentile 50)
+    p99=$(awk '{ print $1 * 1000 }' "$times" | percentile 99)
+    steady=$(steady_ms < "$times")
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    startup=$(sed -n 's/.*Startup completed in \([0-9]*\)ms.*/\1/p' "$log" | head -1)
+    echo "$mode,$run,$ttfr,${startup:-},$rss_first,$rss_load,$heap_load,$p50,$p99,$ready,$steady" >> "$OUT/results.csv"
+    printf '  %-11s run %-2s ttfr %6s ms  startup %6s ms  ready %6s ms  rss-first %7s MB  rss-load %7s MB  heap-load %7s MB  p50 %6s ms  p99 %6s ms  steady %6s ms\n' \
+        "$mode" "$run" "$ttfr" "${startup:--}" "$ready" "$rss_first" "$rss_load" "$heap_load" "$p50" "$p99" "$steady"
+}
+
+# Elapsed ms (sum of the request times, in seconds on standard input) at the start of the first window of
+# WINDOW requests whose p99 is within 20% of the p99 of the last window
+steady_ms() {
+    awk -v w="$WINDOW" '
+        function p99(from,    n, i, j, t, v) {
+            n = 0
+            for (i = from; i < from + w; i++) v[++n] = times[i]
+            for (i = 2; i <= n; i++) { t = v[i]; for (j = i - 1; j > 0 && v[j] > t; j--) v[j + 1] = v[j]; v[j + 1] = t }
+            return v[int((n - 1) * 0.99) + 1]
+        }
+        { times[NR] = $1 * 1000 }
+        END {
+            if (NR < 2 * w) { print "-"; exit }
+            target = p99(NR - w + 1) * 1.2
+            elapsed = 0
+            for (i = 1; i + w - 1 <= NR; i += w) {
+                if (p99(i) <= target) { printf "%.0f", elapsed; exit }
+                for (j = i; j < i + w; j++) elapsed += times[j]
+            }
+            printf "%.0f", elapsed
+        }'
+}
+
+column_median() {
+    awk -F, -v mode="$1" -v col="$2" '$1 == mode && $col != "" { print $col }' "$OUT/results.csv" | median
+}
+
+echo "mode,run,ttfr_ms,startup_ms,rss_first_mb,rss_load_mb,heap_load_mb,p50_ms,p99_ms,ready_ms,steady_ms" > "$OUT/results.csv"
+for mode in "${MODES[@]}"; do
+    if [[ "$BUILD" == true ]]; then
+        echo "Building $mode..."
+        # jvm-cold runs the jvm artifact
+        build "${mode/jvm-cold/jvm}"
+    fi
+    if [[ "$mode" == jvm-crac ]]; then
+        echo "Checkpointing $mode..."
+        checkpoint
+    fi
+    echo "Measuring $mode ($RUNS runs)..."
+    for ((run = 1; run <= RUNS; run++)); do
+        run_once "$mode" "$run"
+    done
+done
+
+echo
+printf '%-12s %10s %12s %10s %14s %13s %14s %8s %8s %10s\n' \
+    mode ttfr_ms startup_ms ready_ms rss_first_mb rss_load_mb heap_load_mb p50_ms p99_ms steady_ms
+for mode in "${MODES[@]}"; do
+    printf '%-12s %10s %12s %10s %14s %13s %14s %8s %8s %10s\n' "$mode" \
+        "$(column_median "$mode" 3)" "$(column_median "$mode" 4)" "$(column_median "$mode" 10)" \
+        "$(column_median "$mode" 5)" "$(column_median "$mode" 6)" \
+        "$(column_median "$mode" 7)" "$(column_median "$mode" 8)" "$(column_median "$mode" 9)" \
+        "$(column_median "$mode" 11)"
+done
@@ -1,11 +1,17 @@
 package com.example.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.micronaut.data.annotation.DateUpdated;
 import io.micronaut.serde.annotation.Serdeable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -13,18 +19,25 @@ import jakarta.validation.constraints.Size;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 @Data
 @Serdeable
 @Entity(name = "products")
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_id_version", columnList = "id, version"),
+        @Index(name = "idx_products_name", columnList = "name"),
+        @Index(name = "idx_products_price", columnList = "price")
+})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -38,6 +51,18 @@ public class Product {
     @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
     private BigDecimal price;
 
+    // Rows written before the column existed get 0 rather than NULL, which no update by version would match
+    @Version
+    @Column(nullable = false, columnDefinition = "NUMBER(19) DEFAULT 0 NOT NULL")
+    private Long version = 0L;
+
+    // Hibernate honours @UpdateTimestamp, Micronaut Data JDBC @DateUpdated
+    @JsonIgnore
+    @UpdateTimestamp
+    @DateUpdated
+    @Column(name = "last_modified")
+    private Instant lastModified;
+
     public Product(String name, String description, BigDecimal price) {
         this.name = name;
         this.description = description;
@@ -75,4 +100,20 @@ public class Product {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.repository;
+
+import com.example.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+// Keyset pages for the Spring MVC front-end. Kept apart from ProductRepository, which micronaut-restapi extends:
+// Micronaut Data has no notion of Spring's Limit.
+public interface ProductPageRepository extends Repository<Product, Long> {
+    List<Product> findByIdGreaterThanOrderById(Long id, Limit limit);
+}
@@ -2,11 +2,10 @@ package com.example.repository;
 
 import com.example.model.Product;
 import org.springframework.data.repository.CrudRepository;
-import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
-@Repository
+// No @Repository: Spring Data finds the interface without it, and Micronaut Data would implement it as well
 public interface ProductRepository extends CrudRepository<Product, Long> {
     Optional<Product> findByName(String name);
 }
\ No newline at end of file
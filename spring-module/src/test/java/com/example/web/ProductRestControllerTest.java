@@ -0,0 +1,129 @@
+package com.example.web;
+
+import com.example.SpringModuleApplication;
+import com.example.config.TestConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = {SpringModuleApplication.class, TestConfig.class})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductRestControllerTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldCreateAndGetProduct() throws Exception {
+        long id = create("Spring Laptop", "999.99");
+
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.name").value("Spring Laptop"))
+                .andExpect(jsonPath("$.price").value(999.99))
+                .andExpect(jsonPath("$.lastModified").doesNotExist());
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForMatchingETag() throws Exception {
+        long id = create("Spring Phone", "599.99");
+
+        mockMvc.perform(get("/products/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldReturnNotFoundForMissingProduct() throws Exception {
+        mockMvc.perform(get("/products/{id}", 999_999))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldRejectInvalidProduct() throws Exception {
+        mockMvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"\",\"price\":-1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldPageWithCursor() throws Exception {
+        long first = create("Spring Page 1", "1.00");
+        create("Spring Page 2", "2.00");
+        create("Spring Page 3", "3.00");
+
+        MvcResult page = mockMvc.perform(get("/products").param("after", String.valueOf(first - 1)).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(first))
+                .andReturn();
+        String cursor = page.getResponse().getHeader(ProductRestController.NEXT_CURSOR_HEADER);
+        assertThat(cursor).isNotNull();
+
+        mockMvc.perform(get("/products").param("after", cursor).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Spring Page 3"));
+    }
+
+    @Test
+    void shouldUpdateWithMatchingIfMatch() throws Exception {
+        long id = create("Spring Tablet", "299.99");
+
+        mockMvc.perform(put("/products/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content("{\"name\":\"Spring Tablet Pro\",\"price\":399.99}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.name").value("Spring Tablet Pro"));
+
+        mockMvc.perform(put("/products/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content("{\"name\":\"Stale\",\"price\":1.00}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void shouldDeleteProduct() throws Exception {
+        long id = create("Spring Watch", "199.99");
+
+        mockMvc.perform(delete("/products/{id}", id))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    private long create(String name, String price) throws Exception {
+        MvcResult result = mockMvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"description\":\"Test\",\"price\":" + price + "}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Matcher matcher = ID.matcher(result.getResponse().getContentAsString());
+        assertThat(matcher.find()).isTrue();
+        return Long.parseLong(matcher.group(1));
+    }
+}
@@ -1,4 +1,4 @@
-INSERT INTO products (name, description, price) VALUES
-('Test Product 1', 'Description for test product 1', 10.99),
-('Test Product 2', 'Description for test product 2', 20.99),
-('Test Product 3', 'Description for test product 3', 30.99); 
\ No newline at end of file
+INSERT INTO products (id, name, description, price, version) VALUES
+(NEXT VALUE FOR products_seq, 'Test Product 1', 'Description for test product 1', 10.99, 0),
+(NEXT VALUE FOR products_seq, 'Test Product 2', 'Description for test product 2', 20.99, 0),
+(NEXT VALUE FOR products_seq, 'Test Product 3', 'Description for test product 3', 30.99, 0);
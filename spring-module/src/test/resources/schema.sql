@@ -1,6 +1,14 @@
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS products (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT DEFAULT NEXT VALUE FOR products_seq PRIMARY KEY,
     name VARCHAR(100) NOT NULL,
     description VARCHAR(500),
-    price DECIMAL(10,2) NOT NULL
-); 
\ No newline at end of file
+    price DECIMAL(10,2) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    last_modified TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_products_id_version ON products (id, version);
+CREATE INDEX IF NOT EXISTS idx_products_name ON products (name);
+CREATE INDEX IF NOT EXISTS idx_products_price ON products (price);
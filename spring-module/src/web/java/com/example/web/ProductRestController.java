@@ -0,0 +1,163 @@
+package com.example.web;
+
+import com.example.model.Product;
+import com.example.repository.ProductPageRepository;
+import com.example.repository.ProductRepository;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Spring MVC counterpart of micronaut-restapi's {@code ProductController}, for comparing the two stacks. It
+ * mirrors the core of that API: keyset pages with {@code X-Next-Cursor}, reads with a version {@code ETag}
+ * (conditional requests are answered by Spring MVC), creates, updates guarded by {@code If-Match}, and deletes.
+ */
+@RestController
+@RequestMapping(path = "/products", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ProductRestController {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ProductRepository productRepository;
+    private final ProductPageRepository productPages;
+    private final TransactionTemplate transactions;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public ProductRestController(ProductRepository productRepository,
+                                 ProductPageRepository productPages,
+                                 TransactionTemplate transactions,
+                                 @Value("${products.pagination.default-limit:100}") int defaultLimit,
+                                 @Value("${products.pagination.max-limit:1000}") int maxLimit) {
+        this.productRepository = productRepository;
+        this.productPages = productPages;
+        this.transactions = transactions;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Product>> getAllProducts(@RequestParam(name = "after", defaultValue = "0") @PositiveOrZero long after,
+                                                        @RequestParam(name = "limit", required = false) @Positive Integer limit) {
+        int pageSize = limit == null ? defaultLimit : Math.min(limit, maxLimit);
+        List<Product> page = productPages.findByIdGreaterThanOrderById(after, Limit.of(pageSize));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        return response.body(page);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Product> getProduct(@PathVariable("id") Long id) {
+        return productRepository.findById(id)
+                .map(product -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .eTag(etag(product.getVersion()))
+                            .cacheControl(CacheControl.noCache())
+                            .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+                    if (product.getLastModified() != null) {
+                        response.lastModified(product.getLastModified());
+                    }
+                    return response.body(product);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Product addProduct(@Valid @RequestBody Product product) {
+        return productRepository.save(product);
+    }
+
+    // 412 if If-Match names other versions, 409 if a concurrent writer won without one
+    @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Product> updateProduct(@PathVariable("id") Long id,
+                                                 @Valid @RequestBody Product product,
+                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Set<Long> expectedVersions = parseIfMatch(ifMatch);
+        Product updated;
+        try {
+            updated = transactions.execute(status -> update(id, product, expectedVersions));
+        } catch (OptimisticLockingFailureException e) {
+            HttpStatus status = expectedVersions == null ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED;
+            throw new ResponseStatusException(status, "Product " + id + " has been modified", e);
+        }
+        if (updated == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(etag(updated.getVersion())).body(updated);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteProduct(@PathVariable("id") Long id) {
+        productRepository.deleteById(id);
+    }
+
+    private Product update(Long id, Product product, Set<Long> expectedVersions) {
+        Optional<Product> current = productRepository.findById(id);
+        if (current.isEmpty()) {
+            return null;
+        }
+        Product existing = current.get();
+        if (expectedVersions != null && !expectedVersions.contains(existing.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Product " + id + " has been modified");
+        }
+        existing.setName(product.getName());
+        existing.setDescription(product.getDescription());
+        existing.setPrice(product.getPrice());
+        return productRepository.save(existing);
+    }
+
+    private static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Versions accepted by an If-Match header, null for any (no header or *); weak or foreign tags never match
+    private static Set<Long> parseIfMatch(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String tag : header.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(trimmed.substring(1, trimmed.length() - 1)));
+                } catch (NumberFormatException ignored) {
+                    // not one of our tags
+                }
+            }
+        }
+        return versions;
+    }
+}